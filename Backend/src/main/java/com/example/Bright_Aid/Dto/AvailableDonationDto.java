@@ -21,4 +21,5 @@ public class AvailableDonationDto {
     private BigDecimal remainingAmount;  // Calculated: amount - utilizedAmount
     private LocalDateTime donatedAt;
     private String source;               // 'Donor' or 'NGO'
+    private String sourceType;           // Ledger source (DONOR / NGO_PROJECT); send back as donationSource when utilizing
 }
@@ -0,0 +1,18 @@
+package com.example.Bright_Aid.Dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor back as the cursor to fetch the following page
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    private List<T> items;
+    private Integer size;
+    private boolean hasMore;
+    private String nextCursor;
+}
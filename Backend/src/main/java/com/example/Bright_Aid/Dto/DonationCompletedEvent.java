@@ -0,0 +1,35 @@
+package com.example.Bright_Aid.Dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Outbox payload published when a donor or NGO donation transitions to COMPLETED; with reversal set it
+// carries the values previously counted for a completed donation that was deleted, left COMPLETED or was edited
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationCompletedEvent {
+
+    public static final String TYPE = "DONATION_COMPLETED";
+    public static final String REVERSED_TYPE = "DONATION_REVERSED";
+
+    public static final String SOURCE_DONOR = "DONOR";
+    public static final String SOURCE_NGO_STUDENT = "NGO_STUDENT";
+    public static final String SOURCE_NGO_PROJECT = "NGO_PROJECT";
+
+    private Long eventId;
+    private String source;
+    private Integer donationId;
+    private Integer donorId;
+    private Integer ngoId;
+    private Integer studentId;
+    private Integer projectId;
+    private Integer transactionId;
+    private BigDecimal amount;
+    private String purpose;
+    private LocalDateTime completedAt;
+    private boolean reversal;
+}
@@ -0,0 +1,28 @@
+package com.example.Bright_Aid.Dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Outcome of a bulk donation import; rows listed in errors were skipped, every other row was imported
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationImportResultDto {
+
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<RowError> errors;
+    private long durationMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based row number in the submitted file (excluding the CSV header)
+        private int row;
+        private String message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.Bright_Aid.Dto;
+
+import com.example.Bright_Aid.Entity.Donation;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One offline (cash / cheque) donation in a bulk import; unset status defaults to COMPLETED
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationImportRowDto {
+
+    private Integer donorId;
+    private Integer projectId;
+    private Integer studentId;
+    private BigDecimal amount;
+    private Donation.DonationType donationType;
+    private Donation.DonationPurpose purpose;
+    private Donation.PaymentStatus paymentStatus;
+    private String donorMessage;
+    private Boolean isAnonymous;
+    private LocalDateTime donatedAt;
+}
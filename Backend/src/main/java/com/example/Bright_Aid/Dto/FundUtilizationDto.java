@@ -17,6 +17,7 @@ import java.time.LocalDateTime;
 public class FundUtilizationDto {
     private Integer utilizationId;
     private Integer donationId;
+    private String donationSource;       // DONOR (default) or NGO_PROJECT; which donation table donationId refers to
     private Integer projectId;
     private BigDecimal amountUsed;
     private String specificPurpose;
@@ -1,5 +1,6 @@
 package com.example.Bright_Aid.Dto;
 
+import com.example.Bright_Aid.Entity.Donation;
 import com.example.Bright_Aid.Entity.PaymentTransaction;
 import lombok.*;
 
@@ -27,6 +28,9 @@ public class PaymentTransactionDto {
     private String customerName;
     private String customerEmail;
     private String customerPhone;
+    private Integer targetProjectId;
+    private Integer targetStudentId;
+    private Donation.DonationPurpose purpose;
     private LocalDateTime initiatedAt;
     private LocalDateTime completedAt;
 }
@@ -0,0 +1,22 @@
+package com.example.Bright_Aid.Dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A recurring charge waiting for the donor to complete it on the gateway's hosted checkout page
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringChargeDto {
+
+    private Integer transactionId;
+    private String transactionReference;
+    private Integer scheduleId;
+    private BigDecimal amount;
+    private String productName;
+    private String paymentUrl;
+    private LocalDateTime initiatedAt;
+}
@@ -0,0 +1,28 @@
+package com.example.Bright_Aid.Dto;
+
+import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.RecurringDonationSchedule;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringDonationScheduleDto {
+
+    private Integer scheduleId;
+    private Integer donorId;
+    private BigDecimal amount;
+    private Donation.DonationType frequency;
+    private Donation.DonationPurpose purpose;
+    private Integer targetProjectId;
+    private Integer targetStudentId;
+    private String productName;
+    private RecurringDonationSchedule.ScheduleStatus status;
+    private LocalDate nextRunDate;
+    private LocalDateTime lastRunAt;
+}
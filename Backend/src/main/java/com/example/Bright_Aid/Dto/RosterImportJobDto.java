@@ -0,0 +1,41 @@
+package com.example.Bright_Aid.Dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progress of an asynchronous student roster import; poll until status is COMPLETED or FAILED
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterImportJobDto {
+
+    private String jobId;
+    private Integer schoolId;
+    private String fileName;
+    // QUEUED, IMPORTING, PROCESSING_PHOTOS, COMPLETED or FAILED
+    private String status;
+    private String message;
+    private int rowsRead;
+    private int imported;
+    private int failed;
+    private int photosQueued;
+    private int photosStored;
+    private int photosFailed;
+    // First errors only; failed and photosFailed hold the full counts
+    private List<RowError> errors;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private long durationMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based row number in the roster (excluding the CSV header)
+        private int row;
+        private String message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.Bright_Aid.Dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// One page of ranked search results; total counts every match, not just this page
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPageDto<T> {
+
+    private List<T> items;
+    private Integer page;
+    private Integer size;
+    private Integer total;
+}
@@ -0,0 +1,26 @@
+package com.example.Bright_Aid.Dto;
+
+import com.example.Bright_Aid.Entity.Student.ClassLevel;
+import com.example.Bright_Aid.Entity.Student.Gender;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Slim student row for the paginated directory; the full record is GET /api/students/{id}
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentDirectoryEntryDto {
+
+    private Integer studentId;
+    private Integer schoolId;
+    private String schoolName;
+    private String studentName;
+    private ClassLevel classLevel;
+    private Gender gender;
+    private String riskStatus;
+    private Boolean hasScholarship;
+    private BigDecimal familyMonthlyIncome;
+    private String profileImage;
+}
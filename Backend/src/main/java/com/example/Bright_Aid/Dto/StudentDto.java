@@ -36,6 +36,7 @@ public class StudentDto {
     private BigDecimal familyMonthlyIncome;
     private Boolean hasScholarship;
     private String riskStatus; // Risk status from dropout predictions
+    private Double attendanceRate; // Attendance rate of the latest prediction
 
     private String profileImage;
 }
@@ -9,7 +9,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "donations")
+@Table(name = "donations", indexes = {
+        @Index(name = "idx_donations_student_status_completed", columnList = "student_id, payment_status, payment_completed_at"),
+        @Index(name = "idx_donations_donor_effective", columnList = "donor_id, effective_date, donation_id"),
+        @Index(name = "idx_donations_status_completed", columnList = "payment_status, payment_completed_at")
+})
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -75,9 +79,19 @@ public class Donation extends BaseEntity {
     @Column(name = "payment_completed_at")
     private LocalDateTime paymentCompletedAt;
 
+    // Stored sort key for donor history: donated_at, falling back to creation time
+    @Column(name = "effective_date")
+    private LocalDateTime effectiveDate;
+
     @OneToOne(mappedBy = "donation", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private FundUtilization fundUtilization;
 
+    @PrePersist
+    @PreUpdate
+    void updateEffectiveDate() {
+        effectiveDate = donatedAt != null ? donatedAt : (getCreatedAt() != null ? getCreatedAt() : LocalDateTime.now());
+    }
+
     public enum DonationType {
         ONE_TIME, MONTHLY, YEARLY
     }
@@ -0,0 +1,92 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row per donor / NGO student / NGO project donation, written alongside the source row;
+// cross-source reports read this table instead of UNIONing the three donation tables
+@Entity
+@Table(name = "donation_ledger",
+        uniqueConstraints = @UniqueConstraint(name = "uk_donation_ledger_source", columnNames = {"source", "source_donation_id"}),
+        indexes = {
+                @Index(name = "idx_donation_ledger_school_date", columnList = "school_id, donated_at"),
+                @Index(name = "idx_donation_ledger_project_status", columnList = "project_id, payment_status"),
+                @Index(name = "idx_donation_ledger_student_date", columnList = "student_id, donated_at"),
+                @Index(name = "idx_donation_ledger_status_date", columnList = "payment_status, donated_at"),
+                @Index(name = "idx_donation_ledger_ngo", columnList = "ngo_id, payment_status, school_id"),
+                @Index(name = "idx_donation_ledger_donor", columnList = "donor_id, school_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ledger_id")
+    private Long ledgerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", nullable = false)
+    private Source source;
+
+    // donation_id, student_donation_id or project_donation_id depending on source
+    @Column(name = "source_donation_id", nullable = false)
+    private Integer sourceDonationId;
+
+    @Column(name = "donor_id")
+    private Integer donorId;
+
+    @Column(name = "ngo_id")
+    private Integer ngoId;
+
+    @Column(name = "student_id")
+    private Integer studentId;
+
+    @Column(name = "project_id")
+    private Integer projectId;
+
+    // Resolved from the project, otherwise the student, when the row is written
+    @Column(name = "school_id")
+    private Integer schoolId;
+
+    @Column(name = "transaction_id")
+    private Integer transactionId;
+
+    @Column(name = "amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status")
+    private Donation.PaymentStatus paymentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "donation_type")
+    private Donation.DonationType donationType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "purpose")
+    private Donation.DonationPurpose purpose;
+
+    @Column(name = "donated_at", nullable = false)
+    private LocalDateTime donatedAt;
+
+    @Column(name = "payment_completed_at")
+    private LocalDateTime paymentCompletedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Source {
+        DONOR,
+        NGO_STUDENT,
+        NGO_PROJECT
+    }
+}
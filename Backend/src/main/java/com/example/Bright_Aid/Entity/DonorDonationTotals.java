@@ -0,0 +1,36 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Completed-donation totals per donor, maintained incrementally by DonationAggregateService
+@Entity
+@Table(name = "donor_donation_totals")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorDonationTotals {
+
+    @Id
+    @Column(name = "donor_id")
+    private Integer donorId;
+
+    @Column(name = "total_donated", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalDonated;
+
+    @Column(name = "donation_count", nullable = false)
+    private Integer donationCount;
+
+    @Column(name = "students_sponsored", nullable = false)
+    private Integer studentsSponsored;
+
+    @Column(name = "projects_supported", nullable = false)
+    private Integer projectsSupported;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
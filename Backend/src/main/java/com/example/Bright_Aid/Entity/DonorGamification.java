@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "donor_gamification")
+@Table(name = "donor_gamification",
+        uniqueConstraints = @UniqueConstraint(name = "uk_donor_gamification_donor", columnNames = "donor_id"))
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -0,0 +1,39 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Append-only record of points awarded to a donor; one row per payment transaction
+@Entity
+@Table(name = "donor_points_ledger",
+        uniqueConstraints = @UniqueConstraint(name = "uk_donor_points_ledger_transaction", columnNames = "transaction_id"),
+        indexes = @Index(name = "idx_donor_points_ledger_donor", columnList = "donor_id, created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorPointsLedger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ledger_id")
+    private Integer ledgerId;
+
+    @Column(name = "donor_id", nullable = false)
+    private Integer donorId;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Integer transactionId;
+
+    @Column(name = "points", nullable = false)
+    private Integer points;
+
+    @Column(name = "amount", precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
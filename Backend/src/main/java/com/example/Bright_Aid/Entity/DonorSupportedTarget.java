@@ -0,0 +1,44 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+// Distinct students / projects a donor has completed donations for; backs the distinct counts in donor_donation_totals
+@Entity
+@Table(name = "donor_supported_targets")
+@IdClass(DonorSupportedTarget.TargetId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorSupportedTarget {
+
+    @Id
+    @Column(name = "donor_id")
+    private Integer donorId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type")
+    private TargetType targetType;
+
+    @Id
+    @Column(name = "target_id")
+    private Integer targetId;
+
+    public enum TargetType {
+        STUDENT,
+        PROJECT
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TargetId implements Serializable {
+        private Integer donorId;
+        private TargetType targetType;
+        private Integer targetId;
+    }
+}
@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "dropout_predictions")
+@Table(name = "dropout_predictions", indexes = {
+        @Index(name = "idx_dropout_predictions_student_calculated", columnList = "student_id, last_calculated")
+})
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -29,6 +29,10 @@ public class FundUtilization extends BaseEntity {
     @ToString.Exclude
     private Donation donation;
 
+    // Set instead of donation when the funds came from an NGO project donation
+    @Column(name = "ngo_project_donation_id")
+    private Integer ngoProjectDonationId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     @NotNull
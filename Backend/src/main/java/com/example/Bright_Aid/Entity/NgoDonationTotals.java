@@ -0,0 +1,30 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Completed student + project donation totals per NGO
+@Entity
+@Table(name = "ngo_donation_totals")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NgoDonationTotals {
+
+    @Id
+    @Column(name = "ngo_id")
+    private Integer ngoId;
+
+    @Column(name = "total_donated", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalDonated;
+
+    @Column(name = "donation_count", nullable = false)
+    private Integer donationCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
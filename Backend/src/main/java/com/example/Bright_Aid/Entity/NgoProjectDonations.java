@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ngo_project_donations")
+@Table(name = "ngo_project_donations", indexes = {
+        @Index(name = "idx_ngo_project_donations_status_completed", columnList = "payment_status, payment_completed_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
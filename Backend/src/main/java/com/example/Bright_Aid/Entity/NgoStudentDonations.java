@@ -6,7 +6,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ngo_student_donations")
+@Table(name = "ngo_student_donations", indexes = {
+        @Index(name = "idx_ngo_student_donations_student_status_completed", columnList = "student_id, payment_status, payment_completed_at"),
+        @Index(name = "idx_ngo_student_donations_status_completed", columnList = "payment_status, payment_completed_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,37 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Marks an outbox event as handled by one subscriber, written in the subscriber's own transaction
+@Entity
+@Table(name = "outbox_deliveries")
+@IdClass(OutboxDelivery.DeliveryId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDelivery {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Id
+    @Column(name = "subscriber", length = 64)
+    private String subscriber;
+
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeliveryId implements Serializable {
+        private Long eventId;
+        private String subscriber;
+    }
+}
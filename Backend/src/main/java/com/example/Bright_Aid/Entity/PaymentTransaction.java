@@ -6,7 +6,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payment_transactions")
+@Table(name = "payment_transactions", indexes = {
+        @Index(name = "idx_payment_transactions_target_project", columnList = "target_project_id, status"),
+        @Index(name = "idx_payment_transactions_target_student", columnList = "target_student_id, status"),
+        @Index(name = "idx_payment_transactions_purpose", columnList = "purpose, status"),
+        @Index(name = "idx_payment_transactions_status_id", columnList = "status, transaction_id"),
+        @Index(name = "idx_payment_transactions_recurring", columnList = "recurring_schedule_id, status"),
+        @Index(name = "idx_payment_transactions_unsettled", columnList = "status, settled_at, transaction_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -57,14 +64,41 @@ public class PaymentTransaction extends BaseEntity {
     private String productName;
     private String productCategory;
     
+    // Payment intent, recorded at initiation and used by settlement instead of parsing productName
+    @Column(name = "target_project_id")
+    private Integer targetProjectId;
+    
+    @Column(name = "target_student_id")
+    private Integer targetStudentId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "purpose")
+    private Donation.DonationPurpose purpose;
+    
+    // ONE_TIME for checkout payments, MONTHLY/YEARLY for charges created from a recurring schedule
+    @Enumerated(EnumType.STRING)
+    @Column(name = "donation_type")
+    private Donation.DonationType donationType;
+    
+    @Column(name = "recurring_schedule_id")
+    private Integer recurringScheduleId;
+    
     // SSLCommerz specific fields
     private String sessionKey;
+
+    // Hosted checkout page of a recurring charge, shown to the donor until it is paid or expires
+    @Column(name = "gateway_page_url", length = 512)
+    private String gatewayPageUrl;
     private String bankTransactionId;
     private String cardType;
     private String cardNo;
     
     private LocalDateTime initiatedAt = LocalDateTime.now();
     private LocalDateTime completedAt;
+
+    // Set in the transaction that creates the donation record; SUCCESS rows without it still need settling
+    @Column(name = "settled_at")
+    private LocalDateTime settledAt;
     
     public enum TransactionType {
         DONATION, SPONSORSHIP
@@ -75,6 +109,6 @@ public class PaymentTransaction extends BaseEntity {
     }
     
     public enum TransactionStatus {
-        PENDING, SUCCESS, FAILED, CANCELLED, REFUNDED
+        PENDING, SUCCESS, FAILED, CANCELLED, REFUNDED, EXPIRED
     }
 }
\ No newline at end of file
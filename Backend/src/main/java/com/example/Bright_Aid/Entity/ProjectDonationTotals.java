@@ -0,0 +1,30 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Completed donor + NGO donation totals per school project
+@Entity
+@Table(name = "project_donation_totals")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectDonationTotals {
+
+    @Id
+    @Column(name = "project_id")
+    private Integer projectId;
+
+    @Column(name = "total_raised", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalRaised;
+
+    @Column(name = "donation_count", nullable = false)
+    private Integer donationCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
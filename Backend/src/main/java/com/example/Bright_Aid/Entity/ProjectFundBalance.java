@@ -0,0 +1,61 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Remaining, not yet utilized amount of each completed donation made to a school project
+@Entity
+@Table(name = "project_fund_balances",
+        indexes = @Index(name = "idx_project_fund_balances_project_remaining", columnList = "project_id, remaining_amount"))
+@IdClass(ProjectFundBalance.BalanceId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectFundBalance {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source")
+    private DonationLedgerEntry.Source source;
+
+    @Id
+    @Column(name = "source_donation_id")
+    private Integer sourceDonationId;
+
+    @Column(name = "project_id", nullable = false)
+    private Integer projectId;
+
+    @Column(name = "donor_id")
+    private Integer donorId;
+
+    @Column(name = "ngo_id")
+    private Integer ngoId;
+
+    @Column(name = "amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "utilized_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal utilizedAmount;
+
+    @Column(name = "remaining_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal remainingAmount;
+
+    @Column(name = "donated_at")
+    private LocalDateTime donatedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BalanceId implements Serializable {
+        private DonationLedgerEntry.Source source;
+        private Integer sourceDonationId;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurring_donation_schedules", indexes = {
+        @Index(name = "idx_recurring_schedules_due", columnList = "status, next_run_date, schedule_id"),
+        @Index(name = "idx_recurring_schedules_donor", columnList = "donor_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
+public class RecurringDonationSchedule extends BaseEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "schedule_id")
+    private Integer scheduleId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @JoinColumn(name = "donor_id", nullable = false)
+    private Donor donor;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    // MONTHLY or YEARLY
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Donation.DonationType frequency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Donation.DonationPurpose purpose;
+
+    @Column(name = "target_project_id")
+    private Integer targetProjectId;
+
+    @Column(name = "target_student_id")
+    private Integer targetStudentId;
+
+    private String productName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ScheduleStatus status = ScheduleStatus.ACTIVE;
+
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    private LocalDateTime lastRunAt;
+
+    public enum ScheduleStatus {
+        ACTIVE, PAUSED, CANCELLED
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.Bright_Aid.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Completed donation totals per school, split by what the donation was for
+@Entity
+@Table(name = "school_donation_totals")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchoolDonationTotals {
+
+    @Id
+    @Column(name = "school_id")
+    private Integer schoolId;
+
+    // Donor and NGO donations to the school's projects
+    @Column(name = "project_funds", precision = 15, scale = 2, nullable = false)
+    private BigDecimal projectFunds;
+
+    @Column(name = "ngo_student_funds", precision = 15, scale = 2, nullable = false)
+    private BigDecimal ngoStudentFunds;
+
+    @Column(name = "donor_student_funds", precision = 15, scale = 2, nullable = false)
+    private BigDecimal donorStudentFunds;
+
+    @Column(name = "donation_count", nullable = false)
+    private Integer donationCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -8,10 +8,17 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students", indexes = {
+        @Index(name = "idx_students_has_scholarship", columnList = "has_scholarship"),
+        @Index(name = "idx_students_school_risk", columnList = "school_id, latest_risk_status"),
+        @Index(name = "idx_students_school_class", columnList = "school_id, class_level"),
+        @Index(name = "idx_students_school_scholarship", columnList = "school_id, has_scholarship"),
+        @Index(name = "idx_students_risk_scholarship", columnList = "latest_risk_status, has_scholarship")
+})
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -90,6 +97,17 @@ public class Student extends BaseEntity {
     @Column(name = "profile_image")
     private String profileImage;
 
+    // Snapshot of the most recent dropout prediction, maintained by DropoutPredictionService
+    @Enumerated(EnumType.STRING)
+    @Column(name = "latest_risk_status")
+    private DropoutPrediction.RiskStatus latestRiskStatus;
+
+    @Column(name = "latest_attendance_rate")
+    private Double latestAttendanceRate;
+
+    @Column(name = "latest_risk_calculated_at")
+    private LocalDateTime latestRiskCalculatedAt;
+
    
 
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
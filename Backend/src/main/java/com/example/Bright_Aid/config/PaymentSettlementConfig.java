@@ -0,0 +1,67 @@
+package com.example.Bright_Aid.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class PaymentSettlementConfig {
+
+    @Value("${payment.settlement.core-pool-size:2}")
+    private int corePoolSize;
+
+    @Value("${payment.settlement.max-pool-size:4}")
+    private int maxPoolSize;
+
+    @Value("${payment.settlement.queue-capacity:500}")
+    private int queueCapacity;
+
+    // Bounded worker pool for post-payment side effects (donation record, points, scholarship status)
+    // When the queue is full the callback thread runs the work itself instead of dropping it
+    @Bean(name = "paymentSettlementExecutor")
+    public ThreadPoolTaskExecutor paymentSettlementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-settlement-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Value("${payment.reconciliation.concurrency:4}")
+    private int reconciliationConcurrency;
+
+    // Fixed-size pool bounding concurrent gateway validation calls made by the reconciliation job
+    @Bean(name = "paymentReconciliationExecutor")
+    public ThreadPoolTaskExecutor paymentReconciliationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(reconciliationConcurrency);
+        executor.setMaxPoolSize(reconciliationConcurrency);
+        executor.setThreadNamePrefix("payment-reconciliation-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Value("${recurring.donation.concurrency:8}")
+    private int recurringChargeConcurrency;
+
+    // Fixed-size pool bounding concurrent gateway session calls made for recurring charges
+    @Bean(name = "recurringChargeExecutor")
+    public ThreadPoolTaskExecutor recurringChargeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(recurringChargeConcurrency);
+        executor.setMaxPoolSize(recurringChargeConcurrency);
+        executor.setThreadNamePrefix("recurring-charge-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.Bright_Aid.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements prepared by Hibernate on the current thread
+ * Registered through hibernate.session_factory.statement_inspector (see application-loadtest.properties);
+ * when it is not registered the counter simply stays at zero
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNTER = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTER.get()[0]++;
+        return sql;
+    }
+
+    // Statements issued so far on this thread; callers take the difference around a stage
+    public static long current() {
+        return COUNTER.get()[0];
+    }
+}
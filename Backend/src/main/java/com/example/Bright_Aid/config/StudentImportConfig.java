@@ -0,0 +1,50 @@
+package com.example.Bright_Aid.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class StudentImportConfig {
+
+    @Value("${student.import.concurrency:2}")
+    private int importConcurrency;
+
+    @Value("${student.import.queue-capacity:20}")
+    private int importQueueCapacity;
+
+    // Runs roster imports off the request thread; submissions beyond the queue are rejected rather than run inline
+    @Bean(name = "rosterImportExecutor")
+    public ThreadPoolTaskExecutor rosterImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importConcurrency);
+        executor.setMaxPoolSize(importConcurrency);
+        executor.setQueueCapacity(importQueueCapacity);
+        executor.setThreadNamePrefix("roster-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Value("${student.import.photo-concurrency:4}")
+    private int photoConcurrency;
+
+    @Value("${student.import.photo-queue-capacity:200}")
+    private int photoQueueCapacity;
+
+    // Stores imported student photos; when the queue is full the import thread stores the photo itself
+    @Bean(name = "studentPhotoExecutor")
+    public ThreadPoolTaskExecutor studentPhotoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(photoConcurrency);
+        executor.setMaxPoolSize(photoConcurrency);
+        executor.setQueueCapacity(photoQueueCapacity);
+        executor.setThreadNamePrefix("student-photo-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
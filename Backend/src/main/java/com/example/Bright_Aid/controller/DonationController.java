@@ -1,15 +1,37 @@
 package com.example.Bright_Aid.controller;
 
+import com.example.Bright_Aid.Dto.CursorPageDto;
 import com.example.Bright_Aid.Dto.DonationDto;
+import com.example.Bright_Aid.Dto.DonationImportResultDto;
+import com.example.Bright_Aid.Dto.DonationImportRowDto;
 import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
+import com.example.Bright_Aid.service.DonationAggregateService;
+import com.example.Bright_Aid.service.DonationArchiveService;
+import com.example.Bright_Aid.service.DonationExportService;
+import com.example.Bright_Aid.service.DonationImportService;
+import com.example.Bright_Aid.service.DonationLedgerService;
 import com.example.Bright_Aid.service.DonationService;
+import com.example.Bright_Aid.service.OutboxService;
+import com.example.Bright_Aid.service.ProjectFundBalanceService;
+import com.example.Bright_Aid.service.SchoolReportingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/donations")
@@ -18,6 +40,14 @@ import java.util.List;
 public class DonationController {
 
     private final DonationService donationService;
+    private final OutboxService outboxService;
+    private final DonationAggregateService donationAggregateService;
+    private final DonationLedgerService donationLedgerService;
+    private final DonationExportService donationExportService;
+    private final SchoolReportingService schoolReportingService;
+    private final DonationImportService donationImportService;
+    private final ProjectFundBalanceService projectFundBalanceService;
+    private final DonationArchiveService donationArchiveService;
 
     @PostMapping
     public ResponseEntity<DonationDto> saveDonation(@Valid @RequestBody DonationDto donationDto) {
@@ -25,12 +55,65 @@ public class DonationController {
         return new ResponseEntity<>(savedDonation, HttpStatus.CREATED);
     }
 
+    // Bulk import of offline donations; rows that fail validation or insert are reported, the rest are kept
+    @PostMapping("/import")
+    public ResponseEntity<DonationImportResultDto> importDonations(@RequestBody List<DonationImportRowDto> rows) {
+        return ResponseEntity.ok(donationImportService.importRows(rows));
+    }
+
+    @PostMapping("/import/csv")
+    public ResponseEntity<DonationImportResultDto> importDonationsCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(donationImportService.importCsv(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)));
+    }
+
     @GetMapping
     public ResponseEntity<List<DonationDto>> getAllDonations() {
         List<DonationDto> donations = donationService.getAllDonations();
         return ResponseEntity.ok(donations);
     }
 
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.getStats());
+    }
+
+    @PostMapping("/outbox/relay")
+    public ResponseEntity<Map<String, Object>> relayOutbox() {
+        return ResponseEntity.ok(Map.of("dispatched", outboxService.relay()));
+    }
+
+    @PostMapping("/outbox/retry-failed")
+    public ResponseEntity<Map<String, Object>> retryFailedOutboxEvents() {
+        return ResponseEntity.ok(Map.of("requeued", outboxService.retryFailed()));
+    }
+
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDonationAggregates() {
+        return ResponseEntity.ok(donationAggregateService.rebuild());
+    }
+
+    @PostMapping("/ledger/backfill")
+    public ResponseEntity<Map<String, Object>> backfillDonationLedger() {
+        return ResponseEntity.ok(donationLedgerService.backfill());
+    }
+
+    @PostMapping("/fund-balances/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildProjectFundBalances() {
+        return ResponseEntity.ok(projectFundBalanceService.rebuild());
+    }
+
+    // Move settled donations and payments older than the retention window into the archive tables
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Object>> runDonationArchive() {
+        return ResponseEntity.ok(donationArchiveService.archive());
+    }
+
+    @GetMapping("/archive/stats")
+    public ResponseEntity<Map<String, Object>> getDonationArchiveStats() {
+        return ResponseEntity.ok(donationArchiveService.getStats());
+    }
+
     @GetMapping("/{donationId}")
     public ResponseEntity<DonationDto> getDonationById(@PathVariable Integer donationId) {
         DonationDto donation = donationService.getDonationById(donationId);
@@ -63,11 +146,30 @@ public class DonationController {
     }
 
     @GetMapping("/donor/{donorId}")
-    public ResponseEntity<List<DonationDto>> getDonationsByDonor(@PathVariable Integer donorId) {
-        List<DonationDto> donations = donationService.getDonationsByDonorWithDetails(donorId);
+    public ResponseEntity<List<DonationDto>> getDonationsByDonor(@PathVariable Integer donorId,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<DonationDto> donations = donationService.getDonationsByDonorWithDetails(donorId, includeArchived);
         return ResponseEntity.ok(donations);
     }
 
+    @GetMapping("/donor/{donorId}/history")
+    public ResponseEntity<CursorPageDto<DonationDto>> getDonorHistory(@PathVariable Integer donorId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "20") int size,
+                                                                      @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(donationService.getDonorHistory(donorId, cursor, size, includeArchived));
+    }
+
+    // Stream a donor's full donation history as CSV or NDJSON
+    @GetMapping("/donor/{donorId}/export")
+    public ResponseEntity<StreamingResponseBody> exportDonationsByDonor(@PathVariable Integer donorId,
+                                                                        @RequestParam(defaultValue = "csv") String format,
+                                                                        @RequestParam(defaultValue = "false") boolean includeArchived) {
+        DonationExportService.Format exportFormat = DonationExportService.Format.of(format);
+        return export("donor-" + donorId + "-donations", exportFormat,
+                donationExportService.exportDonorDonations(donorId, exportFormat, includeArchived));
+    }
+
     // Get recent donations for a specific school
     @GetMapping("/school/{schoolId}/recent")
     public ResponseEntity<List<DonationDto>> getRecentDonationsBySchool(@PathVariable Integer schoolId) {
@@ -82,6 +184,25 @@ public class DonationController {
         return ResponseEntity.ok(donations);
     }
 
+    // Reporting statistics for a school: student, project and donation totals, purpose breakdown and monthly series
+    @GetMapping("/school/{schoolId}/stats")
+    public ResponseEntity<Map<String, Object>> getSchoolReportingStats(@PathVariable Integer schoolId) {
+        return ResponseEntity.ok(schoolReportingService.getSchoolStats(schoolId));
+    }
+
+    // Stream all donations a school received from every source as CSV or NDJSON (for large reports)
+    @GetMapping("/school/{schoolId}/export")
+    public ResponseEntity<StreamingResponseBody> exportDonationsBySchool(
+            @PathVariable Integer schoolId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) DonationLedgerEntry.Source source,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        DonationExportService.Format exportFormat = DonationExportService.Format.of(format);
+        return export("school-" + schoolId + "-donations", exportFormat,
+                donationExportService.exportSchoolDonations(schoolId, source, from, to, exportFormat));
+    }
+
     // Get total donation amount by donor for specific project
     @GetMapping("/donor/{donorId}/project/{projectId}/total")
     public ResponseEntity<Double> getTotalDonationByDonorForProject(@PathVariable Integer donorId, @PathVariable Integer projectId) {
@@ -99,7 +220,7 @@ public class DonationController {
     // Get available donations for a project with remaining amounts (for fund utilization dropdown)
     @GetMapping("/project/{projectId}/available")
     public ResponseEntity<List<com.example.Bright_Aid.Dto.AvailableDonationDto>> getAvailableDonationsForProject(@PathVariable Integer projectId) {
-        List<com.example.Bright_Aid.Dto.AvailableDonationDto> donations = donationService.getAvailableDonationsForProject(projectId);
+        List<com.example.Bright_Aid.Dto.AvailableDonationDto> donations = projectFundBalanceService.getAvailableDonations(projectId);
         return ResponseEntity.ok(donations);
     }
 
@@ -109,4 +230,14 @@ public class DonationController {
         List<DonationDto> donations = donationService.getDonationsByProject(projectId);
         return ResponseEntity.ok(donations);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<StreamingResponseBody> export(String baseName, DonationExportService.Format format,
+                                                         StreamingResponseBody body) {
+        boolean csv = format == DonationExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + baseName + (csv ? ".csv" : ".ndjson") + "\"")
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .body(body);
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.Bright_Aid.controller;
 
+import com.example.Bright_Aid.Dto.CursorPageDto;
 import com.example.Bright_Aid.Dto.PaymentTransactionDto;
 import com.example.Bright_Aid.Entity.PaymentTransaction;
+import com.example.Bright_Aid.service.PaymentReconciliationService;
 import com.example.Bright_Aid.service.PaymentTransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.view.RedirectView;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +27,7 @@ import java.util.Map;
 public class PaymentTransactionController {
 
     private final PaymentTransactionService paymentTransactionService;
+    private final PaymentReconciliationService paymentReconciliationService;
     
     @Value("${frontend.payment.success.url}")
     private String frontendSuccessUrl;
@@ -45,6 +50,22 @@ public class PaymentTransactionController {
         return ResponseEntity.ok(paymentTransactionService.getAll());
     }
 
+    // Cursor-paginated listing for the admin screen
+    @GetMapping("/page")
+    @Operation(summary = "List Payments (cursor)", description = "Newest-first page of payment transactions with optional filters; pass nextCursor as cursor for the next page")
+    public ResponseEntity<CursorPageDto<PaymentTransactionDto>> getPage(
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) PaymentTransaction.TransactionStatus status,
+            @RequestParam(required = false) PaymentTransaction.PaymentMethod paymentMethod,
+            @RequestParam(required = false) Integer donorId,
+            @RequestParam(required = false) Integer ngoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return ResponseEntity.ok(paymentTransactionService.getPage(cursor, size, status, paymentMethod,
+                donorId, ngoId, fromDate, toDate));
+    }
+
     // Get by ID
     @GetMapping("/{id}")
     public ResponseEntity<PaymentTransactionDto> getById(@PathVariable Integer id) {
@@ -140,4 +161,28 @@ public class PaymentTransactionController {
         
         return ResponseEntity.ok("IPN processed");
     }
+    
+    @GetMapping("/settlement/stats")
+    @Operation(summary = "Settlement Pipeline Stats", description = "Queue depth, retry counters and per-stage latency of asynchronous payment settlement")
+    public ResponseEntity<Map<String, Object>> getSettlementStats() {
+        return ResponseEntity.ok(paymentTransactionService.getSettlementStats());
+    }
+    
+    @GetMapping("/gateway/stats")
+    @Operation(summary = "Gateway Client Stats", description = "Connection pool usage and circuit breaker state of the SSLCommerz client")
+    public ResponseEntity<Map<String, Object>> getGatewayStats() {
+        return ResponseEntity.ok(paymentTransactionService.getGatewayStats());
+    }
+    
+    @GetMapping("/reconciliation/stats")
+    @Operation(summary = "Reconciliation Stats", description = "Backlog of stale PENDING transactions, outcome counters and throughput of the last reconciliation run")
+    public ResponseEntity<Map<String, Object>> getReconciliationStats() {
+        return ResponseEntity.ok(paymentReconciliationService.getStats());
+    }
+    
+    @PostMapping("/reconciliation/run")
+    @Operation(summary = "Run Reconciliation", description = "Validate stale PENDING transactions against the gateway now")
+    public ResponseEntity<Map<String, Object>> runReconciliation() {
+        return ResponseEntity.ok(paymentReconciliationService.reconcile());
+    }
 }
@@ -0,0 +1,60 @@
+package com.example.Bright_Aid.controller;
+
+import com.example.Bright_Aid.Dto.RecurringChargeDto;
+import com.example.Bright_Aid.Dto.RecurringDonationScheduleDto;
+import com.example.Bright_Aid.Entity.RecurringDonationSchedule;
+import com.example.Bright_Aid.service.RecurringDonationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/recurring-donations")
+@RequiredArgsConstructor
+@Tag(name = "Recurring Donations", description = "MONTHLY / YEARLY donation schedules and the recurring charge run")
+public class RecurringDonationController {
+
+    private final RecurringDonationService recurringDonationService;
+
+    @PostMapping
+    @Operation(summary = "Create Schedule", description = "Create a MONTHLY or YEARLY donation schedule for a donor")
+    public ResponseEntity<RecurringDonationScheduleDto> create(@RequestBody RecurringDonationScheduleDto dto) {
+        return ResponseEntity.ok(recurringDonationService.createSchedule(dto));
+    }
+
+    @GetMapping("/donor/{donorId}")
+    @Operation(summary = "Donor Schedules", description = "Recurring donation schedules of a donor")
+    public ResponseEntity<List<RecurringDonationScheduleDto>> getByDonor(@PathVariable Integer donorId) {
+        return ResponseEntity.ok(recurringDonationService.getSchedulesByDonor(donorId));
+    }
+
+    @GetMapping("/donor/{donorId}/due-payments")
+    @Operation(summary = "Due Payments", description = "Pending recurring charges of a donor with the checkout URL to pay each one")
+    public ResponseEntity<List<RecurringChargeDto>> getDuePayments(@PathVariable Integer donorId) {
+        return ResponseEntity.ok(recurringDonationService.getDuePayments(donorId));
+    }
+
+    @PutMapping("/{scheduleId}/status")
+    @Operation(summary = "Update Schedule Status", description = "Pause, resume or cancel a recurring donation schedule")
+    public ResponseEntity<RecurringDonationScheduleDto> updateStatus(@PathVariable Integer scheduleId,
+                                                                     @RequestParam RecurringDonationSchedule.ScheduleStatus status) {
+        return ResponseEntity.ok(recurringDonationService.updateStatus(scheduleId, status));
+    }
+
+    @PostMapping("/run")
+    @Operation(summary = "Run Due Charges", description = "Create and initiate charges for every schedule due today")
+    public ResponseEntity<Map<String, Object>> runDueCharges() {
+        return ResponseEntity.ok(recurringDonationService.runDueCharges());
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Recurring Charge Stats", description = "Due schedules, charge counters and throughput of the last run")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(recurringDonationService.getStats());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.Bright_Aid.controller;
 
 import com.example.Bright_Aid.Dto.SchoolDto;
+import com.example.Bright_Aid.Dto.SearchPageDto;
 import com.example.Bright_Aid.Entity.School;
 import com.example.Bright_Aid.service.SchoolService;
 import jakarta.validation.Valid;
@@ -89,8 +90,10 @@ public class SchoolController {
     // -------------------- CUSTOM QUERY ENDPOINTS --------------------
 
     @GetMapping("/search")
-    public ResponseEntity<List<SchoolDto>> searchSchoolsByName(@RequestParam String name) {
-        List<SchoolDto> schools = schoolService.findSchoolsByName(name);
+    public ResponseEntity<SearchPageDto<SchoolDto>> searchSchoolsByName(@RequestParam String name,
+                                                                        @RequestParam(defaultValue = "0") int page,
+                                                                        @RequestParam(defaultValue = "20") int size) {
+        SearchPageDto<SchoolDto> schools = schoolService.searchSchools(name, page, size);
         return new ResponseEntity<>(schools, HttpStatus.OK);
     }
 
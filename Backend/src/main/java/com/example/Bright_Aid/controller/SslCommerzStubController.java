@@ -0,0 +1,61 @@
+package com.example.Bright_Aid.controller;
+
+import com.example.Bright_Aid.service.CheckoutLoadDriver;
+import com.example.Bright_Aid.service.SslCommerzStubService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// Stub gateway and load driver endpoints; only mapped when running with the "loadtest" profile
+@RestController
+@RequestMapping("/stub")
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Tag(name = "Load Test", description = "Local SSLCommerz stub and checkout load driver")
+public class SslCommerzStubController {
+
+    private final SslCommerzStubService stubService;
+    private final CheckoutLoadDriver loadDriver;
+
+    @PostMapping("/sslcommerz/gwprocess/v4/api.php")
+    @Operation(summary = "Stub Session Init", description = "Stand-in for the SSLCommerz session initiation API")
+    public ResponseEntity<Map<String, Object>> initiate(@RequestParam Map<String, String> params) {
+        return ResponseEntity.ok(stubService.initiate(params));
+    }
+
+    @GetMapping("/sslcommerz/validator/api/merchantTransIDvalidationAPI.php")
+    @Operation(summary = "Stub Transaction Query", description = "Stand-in for the SSLCommerz transaction query API")
+    public ResponseEntity<Map<String, Object>> queryTransaction(@RequestParam("tran_id") String tranId) {
+        return ResponseEntity.ok(stubService.queryTransaction(tranId));
+    }
+
+    @PostMapping("/load-test/run")
+    @Operation(summary = "Start Checkout Load Run", description = "Drive initiate -> callback -> donation -> gamification at a target rate")
+    public ResponseEntity<Map<String, Object>> startRun(
+            @RequestParam(required = false) Integer donorId,
+            @RequestParam(required = false) Integer ngoId,
+            @RequestParam(defaultValue = "10") double rps,
+            @RequestParam(defaultValue = "30") int durationSeconds,
+            @RequestParam(defaultValue = "100") BigDecimal amount,
+            @RequestParam(required = false) Integer projectId,
+            @RequestParam(required = false) Integer studentId,
+            @RequestParam(defaultValue = "30") int drainSeconds) {
+        boolean started = loadDriver.start(donorId, ngoId, rps, durationSeconds, amount, projectId, studentId, drainSeconds);
+        if (!started) {
+            return ResponseEntity.status(409).body(Map.of("message", "A load run is already in progress"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Load run started", "reportUrl", "/stub/load-test/report"));
+    }
+
+    @GetMapping("/load-test/report")
+    @Operation(summary = "Checkout Load Report", description = "p50/p99 latency and query counts per stage for the current or last run")
+    public ResponseEntity<Map<String, Object>> getReport() {
+        return ResponseEntity.ok(loadDriver.getReport());
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.Bright_Aid.controller;
 
+import com.example.Bright_Aid.Dto.CursorPageDto;
+import com.example.Bright_Aid.Dto.RosterImportJobDto;
+import com.example.Bright_Aid.Dto.SearchPageDto;
+import com.example.Bright_Aid.Dto.StudentDirectoryEntryDto;
 import com.example.Bright_Aid.Dto.StudentDto;
+import com.example.Bright_Aid.service.SearchIndexService;
+import com.example.Bright_Aid.service.SponsorshipMatchingService;
+import com.example.Bright_Aid.service.StudentDirectoryService;
+import com.example.Bright_Aid.service.StudentRosterImportService;
 import com.example.Bright_Aid.service.StudentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -16,12 +26,32 @@ import java.util.Map;
 public class StudentController {
 
     private final StudentService studentService;
+    private final SponsorshipMatchingService sponsorshipMatchingService;
+    private final SearchIndexService searchIndexService;
+    private final StudentDirectoryService studentDirectoryService;
+    private final StudentRosterImportService studentRosterImportService;
 
     @GetMapping
     public List<StudentDto> getAllStudents() {
         return studentService.getAllStudents();
     }
 
+    // Filtered, keyset-paginated directory; pass nextCursor back as cursor for the following page
+    @GetMapping("/directory")
+    public ResponseEntity<CursorPageDto<StudentDirectoryEntryDto>> getStudentDirectory(
+            @RequestParam(required = false) Integer schoolId,
+            @RequestParam(required = false) String classLevel,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String riskStatus,
+            @RequestParam(required = false) Boolean hasScholarship,
+            @RequestParam(required = false) BigDecimal minIncome,
+            @RequestParam(required = false) BigDecimal maxIncome,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(studentDirectoryService.getDirectory(schoolId, classLevel, gender, riskStatus,
+                hasScholarship, minIncome, maxIncome, cursor, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<StudentDto> getStudentById(@PathVariable Integer id) {
         return studentService.getStudentById(id)
@@ -34,6 +64,19 @@ public class StudentController {
         return ResponseEntity.ok(studentService.createStudent(dto));
     }
 
+    // Bulk roster import (CSV plus optional ZIP of photos); runs in the background, poll the returned job
+    @PostMapping("/import")
+    public ResponseEntity<RosterImportJobDto> importRoster(@RequestParam Integer schoolId,
+                                                           @RequestParam("file") MultipartFile file,
+                                                           @RequestParam(value = "photos", required = false) MultipartFile photos) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(studentRosterImportService.submit(schoolId, file, photos));
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<RosterImportJobDto> getRosterImport(@PathVariable String jobId) {
+        return ResponseEntity.ok(studentRosterImportService.getJob(jobId));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<StudentDto> updateStudent(@PathVariable Integer id, @RequestBody StudentDto dto) {
         return ResponseEntity.ok(studentService.updateStudent(id, dto));
@@ -82,6 +125,26 @@ public class StudentController {
         return ResponseEntity.ok(students);
     }
     
+    // Ranked name search (prefix, fuzzy, Bangla/English transliteration), optionally within one school
+    @GetMapping("/search")
+    public ResponseEntity<SearchPageDto<StudentDto>> searchStudents(@RequestParam String q,
+                                                                    @RequestParam(required = false) Integer schoolId,
+                                                                    @RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(studentService.searchStudents(q, schoolId, page, size));
+    }
+
+    // Student and school name search indexes: sizes and last rebuild
+    @GetMapping("/search-index/stats")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        return ResponseEntity.ok(searchIndexService.rebuild());
+    }
+
     @GetMapping("/find-for-sponsorship")
     public ResponseEntity<StudentDto> findStudentForSponsorship() {
         StudentDto student = studentService.findMostSuitableStudentForSponsorship();
@@ -117,4 +180,15 @@ public class StudentController {
         }
     }
 
+    // In-memory sponsorship matching pool: size, active reservations and next match
+    @GetMapping("/sponsorship-pool/stats")
+    public ResponseEntity<Map<String, Object>> getSponsorshipPoolStats() {
+        return ResponseEntity.ok(sponsorshipMatchingService.getStats());
+    }
+
+    @PostMapping("/sponsorship-pool/refresh")
+    public ResponseEntity<Map<String, Object>> refreshSponsorshipPool() {
+        return ResponseEntity.ok(sponsorshipMatchingService.refresh());
+    }
+
 }
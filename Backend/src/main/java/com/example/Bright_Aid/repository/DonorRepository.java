@@ -28,19 +28,8 @@ public interface DonorRepository extends JpaRepository<Donor, Integer> {
     BigDecimal calculateTotalDonated(@Param("donorId") Integer donorId);
     
     // Calculate total schools supported for a donor
-    @Query(value = """
-        SELECT COUNT(DISTINCT school_id) FROM (
-            SELECT st.school_id 
-            FROM donations d 
-            JOIN students st ON d.student_id = st.student_id 
-            WHERE d.donor_id = :donorId AND d.student_id IS NOT NULL
-            UNION
-            SELECT sp.school_id 
-            FROM donations d 
-            JOIN school_projects sp ON d.project_id = sp.project_id 
-            WHERE d.donor_id = :donorId AND d.project_id IS NOT NULL
-        ) AS unique_schools
-        """, nativeQuery = true)
+    @Query(value = "SELECT COUNT(DISTINCT school_id) FROM donation_ledger " +
+           "WHERE donor_id = :donorId AND source = 'DONOR' AND school_id IS NOT NULL", nativeQuery = true)
     Integer calculateTotalSchoolsSupported(@Param("donorId") Integer donorId);
     
     // Calculate total students sponsored for a donor
@@ -0,0 +1,20 @@
+package com.example.Bright_Aid.repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Half-open calendar month [start, end) for date-range predicates
+ * Queries compare the raw column against both bounds (col >= start AND col < end) instead of
+ * MONTH(col) = MONTH(CURDATE()), which keeps them index range scans and respects the year
+ */
+public record MonthWindow(LocalDateTime start, LocalDateTime end) {
+
+    public static MonthWindow of(YearMonth month) {
+        return new MonthWindow(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    public static MonthWindow current() {
+        return of(YearMonth.now());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.Bright_Aid.repository;
+
+import com.example.Bright_Aid.Entity.NgoDonationTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NgoDonationTotalsRepository extends JpaRepository<NgoDonationTotals, Integer> {
+}
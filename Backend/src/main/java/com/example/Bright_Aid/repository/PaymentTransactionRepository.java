@@ -1,8 +1,16 @@
 package com.example.Bright_Aid.repository;
 
 import com.example.Bright_Aid.Entity.PaymentTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -10,4 +18,65 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     
     Optional<PaymentTransaction> findByTransactionReference(String transactionReference);
     Optional<PaymentTransaction> findBySessionKey(String sessionKey);
-}
\ No newline at end of file
+
+    // Keyset page of the admin listing, newest first; projection avoids loading donor/NGO entities
+    @Query("SELECT pt.transactionId, d.donorId, n.ngoId, pt.transactionReference, pt.amount, pt.currency, " +
+           "pt.transactionType, pt.paymentMethod, pt.status, pt.gatewayResponseCode, pt.gatewayResponseMessage, " +
+           "pt.customerName, pt.customerEmail, pt.customerPhone, pt.targetProjectId, pt.targetStudentId, " +
+           "pt.purpose, pt.initiatedAt, pt.completedAt " +
+           "FROM PaymentTransaction pt LEFT JOIN pt.donor d LEFT JOIN pt.ngo n " +
+           "WHERE (:cursor IS NULL OR pt.transactionId < :cursor) " +
+           "AND (:status IS NULL OR pt.status = :status) " +
+           "AND (:paymentMethod IS NULL OR pt.paymentMethod = :paymentMethod) " +
+           "AND (:donorId IS NULL OR d.donorId = :donorId) " +
+           "AND (:ngoId IS NULL OR n.ngoId = :ngoId) " +
+           "AND (:fromDate IS NULL OR pt.initiatedAt >= :fromDate) " +
+           "AND (:toDate IS NULL OR pt.initiatedAt < :toDate) " +
+           "ORDER BY pt.transactionId DESC")
+    List<Object[]> findPage(@Param("cursor") Integer cursor,
+                            @Param("status") PaymentTransaction.TransactionStatus status,
+                            @Param("paymentMethod") PaymentTransaction.PaymentMethod paymentMethod,
+                            @Param("donorId") Integer donorId,
+                            @Param("ngoId") Integer ngoId,
+                            @Param("fromDate") LocalDateTime fromDate,
+                            @Param("toDate") LocalDateTime toDate,
+                            Pageable pageable);
+
+    @Query("SELECT pt.transactionId FROM PaymentTransaction pt WHERE pt.transactionReference = :transactionReference")
+    Optional<Integer> findTransactionIdByTransactionReference(@Param("transactionReference") String transactionReference);
+
+    // Conditional status transition used to claim a callback exactly once
+    // Returns 0 when the transaction is already past one of the expected source statuses
+    @Modifying
+    @Query("UPDATE PaymentTransaction pt SET pt.status = :newStatus, pt.completedAt = :completedAt, " +
+           "pt.bankTransactionId = :bankTransactionId, pt.cardType = :cardType, pt.cardNo = :cardNo, " +
+           "pt.gatewayResponseCode = :gatewayResponseCode, pt.gatewayResponseMessage = :gatewayResponseMessage, " +
+           "pt.updatedAt = :updatedAt " +
+           "WHERE pt.transactionReference = :transactionReference AND pt.status IN :fromStatuses")
+    int transitionStatus(@Param("transactionReference") String transactionReference,
+                         @Param("fromStatuses") Collection<PaymentTransaction.TransactionStatus> fromStatuses,
+                         @Param("newStatus") PaymentTransaction.TransactionStatus newStatus,
+                         @Param("completedAt") LocalDateTime completedAt,
+                         @Param("bankTransactionId") String bankTransactionId,
+                         @Param("cardType") String cardType,
+                         @Param("cardNo") String cardNo,
+                         @Param("gatewayResponseCode") String gatewayResponseCode,
+                         @Param("gatewayResponseMessage") String gatewayResponseMessage,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Claims settlement of a successful transaction; 0 when it is already settled or no longer SUCCESS
+    @Modifying
+    @Query("UPDATE PaymentTransaction pt SET pt.settledAt = :settledAt " +
+           "WHERE pt.transactionId = :transactionId AND pt.status = :status AND pt.settledAt IS NULL")
+    int markSettled(@Param("transactionId") Integer transactionId,
+                    @Param("status") PaymentTransaction.TransactionStatus status,
+                    @Param("settledAt") LocalDateTime settledAt);
+
+    // Successful transactions whose settlement has not committed, oldest first (idx_payment_transactions_unsettled)
+    @Query("SELECT pt.transactionId FROM PaymentTransaction pt " +
+           "WHERE pt.status = :status AND pt.settledAt IS NULL AND pt.completedAt < :completedBefore " +
+           "ORDER BY pt.transactionId")
+    List<Integer> findUnsettledIds(@Param("status") PaymentTransaction.TransactionStatus status,
+                                   @Param("completedBefore") LocalDateTime completedBefore,
+                                   Pageable pageable);
+}
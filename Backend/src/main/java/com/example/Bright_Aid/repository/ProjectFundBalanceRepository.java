@@ -0,0 +1,26 @@
+package com.example.Bright_Aid.repository;
+
+import com.example.Bright_Aid.Entity.ProjectFundBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProjectFundBalanceRepository extends JpaRepository<ProjectFundBalance, ProjectFundBalance.BalanceId> {
+
+    // Donations of a project with funds left, read from project_fund_balances by (project_id, remaining_amount)
+    // Returns: source_donation_id, donor_name, amount, utilized_amount, remaining_amount, donated_at, source
+    @Query(value = "SELECT b.source_donation_id, " +
+           "CASE WHEN b.source = 'DONOR' THEN COALESCE(donor.donor_name, 'Anonymous') " +
+           "  ELSE COALESCE(n.ngo_name, 'NGO') END AS donor_name, " +
+           "b.amount, b.utilized_amount, b.remaining_amount, b.donated_at, b.source " +
+           "FROM project_fund_balances b " +
+           "LEFT JOIN donors donor ON b.donor_id = donor.donor_id " +
+           "LEFT JOIN ngos n ON b.ngo_id = n.ngo_id " +
+           "WHERE b.project_id = :projectId AND b.remaining_amount > 0 " +
+           "ORDER BY b.remaining_amount DESC, b.donated_at DESC", nativeQuery = true)
+    List<Object[]> findAvailableByProject(@Param("projectId") Integer projectId);
+}
@@ -0,0 +1,13 @@
+package com.example.Bright_Aid.repository;
+
+import com.example.Bright_Aid.Entity.RecurringDonationSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecurringDonationScheduleRepository extends JpaRepository<RecurringDonationSchedule, Integer> {
+
+    List<RecurringDonationSchedule> findByDonorDonorId(Integer donorId);
+}
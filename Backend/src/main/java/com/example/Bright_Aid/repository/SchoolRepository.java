@@ -14,8 +14,6 @@ public interface SchoolRepository extends JpaRepository<School, Integer> {
 
     Optional<School> findByRegistrationNumber(String registrationNumber);
 
-    List<School> findBySchoolNameContainingIgnoreCase(String name);
-
     List<School> findByStatus(School.SchoolStatus status);
 
     List<School> findByVerificationStatus(School.VerificationStatus verificationStatus);
@@ -40,21 +38,4 @@ public interface SchoolRepository extends JpaRepository<School, Integer> {
     Optional<School> findByUser_UserId(Integer userId);
 
     boolean existsByRegistrationNumber(String registrationNumber);
-
-    // AI FIX: Calculate total funds received from all donation sources using native SQL
-    @Query(value = """
-        SELECT COALESCE(
-            (SELECT SUM(d.amount) FROM donations d 
-             JOIN school_projects sp ON d.project_id = sp.project_id 
-             WHERE sp.school_id = :schoolId AND d.payment_status = 'COMPLETED') +
-            (SELECT SUM(npd.amount) FROM ngo_project_donations npd 
-             JOIN school_projects sp ON npd.project_id = sp.project_id 
-             WHERE sp.school_id = :schoolId AND npd.payment_status = 'COMPLETED') +
-            (SELECT SUM(nsd.amount) FROM ngo_student_donations nsd 
-             JOIN students s ON nsd.student_id = s.student_id 
-             WHERE s.school_id = :schoolId AND nsd.payment_status = 'COMPLETED'),
-            0.0
-        ) as total_funds
-        """, nativeQuery = true)
-    Double getTotalFundsReceivedBySchool(@Param("schoolId") Integer schoolId);
 }
\ No newline at end of file
@@ -11,12 +11,29 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Integer> {
 
+    // Listing columns, read as one row per student without loading the entity or its predictions
+    // Mapped by StudentService.toListDto; keep the order in sync
+    String LIST_COLUMNS = "SELECT s.studentId, s.school.schoolId, s.studentName, s.studentIdNumber, s.gender, " +
+           "s.dateOfBirth, s.fatherName, s.fatherAlive, s.fatherOccupation, s.motherName, s.motherAlive, " +
+           "s.motherOccupation, s.guardianPhone, s.address, s.classLevel, s.familyMonthlyIncome, s.hasScholarship, " +
+           "s.latestRiskStatus, s.latestAttendanceRate, s.profileImage ";
+
+    // Copies each student's most recent prediction onto the student row; NULLs once none remain
+    String LATEST_RISK_UPDATE = "UPDATE students s SET " +
+           "s.latest_risk_status = (SELECT p.risk_status FROM dropout_predictions p WHERE p.student_id = s.student_id " +
+           "  ORDER BY p.last_calculated DESC, p.prediction_id DESC LIMIT 1), " +
+           "s.latest_attendance_rate = (SELECT p.attendance_rate FROM dropout_predictions p WHERE p.student_id = s.student_id " +
+           "  ORDER BY p.last_calculated DESC, p.prediction_id DESC LIMIT 1), " +
+           "s.latest_risk_calculated_at = (SELECT MAX(p.last_calculated) FROM dropout_predictions p WHERE p.student_id = s.student_id) ";
+
     // Find all students by school
     List<Student> findBySchool(School school);
 
@@ -35,10 +52,6 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
     // Find by unique student ID number
     Optional<Student> findByStudentIdNumber(String studentIdNumber);
 
-    // Example custom query: search by partial name
-    @Query("SELECT s FROM Student s WHERE s.studentName LIKE %:name%")
-    List<Student> searchByName(@Param("name") String name);
-
     // ✅ New: Find students by profile image URL
     Optional<Student> findByProfileImage(String profileImage);
 
@@ -49,9 +62,27 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
     @Query(value = "SELECT COUNT(*) FROM students WHERE school_id = :schoolId", nativeQuery = true)
     Long countStudentsBySchoolId(@Param("schoolId") Integer schoolId);
 
-    // Find students sponsored by a specific donor
-    @Query("SELECT DISTINCT d.student FROM Donation d WHERE d.donor.donorId = :donorId AND d.student IS NOT NULL")
-    List<Student> findStudentsSponsoredByDonor(@Param("donorId") Integer donorId);
+    @Query(LIST_COLUMNS + "FROM Student s ORDER BY s.studentId")
+    List<Object[]> findAllListRows();
+
+    // Students sponsored by a specific donor, as listing rows
+    @Query(LIST_COLUMNS + "FROM Student s WHERE s.studentId IN " +
+           "(SELECT d.student.studentId FROM Donation d WHERE d.donor.donorId = :donorId AND d.student IS NOT NULL) " +
+           "ORDER BY s.studentId")
+    List<Object[]> findListRowsSponsoredByDonor(@Param("donorId") Integer donorId);
+
+    @Modifying
+    @Query(value = LATEST_RISK_UPDATE + "WHERE s.student_id IN (:studentIds)", nativeQuery = true)
+    int refreshLatestRisk(@Param("studentIds") Collection<Integer> studentIds);
+
+    @Modifying
+    @Query(value = LATEST_RISK_UPDATE, nativeQuery = true)
+    int refreshAllLatestRisk();
+
+    // Students with predictions but no snapshot yet, i.e. rows that predate the latest_risk columns
+    @Query(value = "SELECT COUNT(*) FROM students s WHERE s.latest_risk_calculated_at IS NULL " +
+           "AND EXISTS (SELECT 1 FROM dropout_predictions p WHERE p.student_id = s.student_id)", nativeQuery = true)
+    long countMissingLatestRisk();
 
     // Native query to get students sponsored by donor with school info
     @Query(value = """
@@ -76,13 +107,12 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
         """, nativeQuery = true)
     List<Object[]> findSponsoredStudentsWithSchoolByDonorId(@Param("donorId") Integer donorId);
     
-    // Find high-risk student without scholarship for sponsorship using dropout predictions
+    // Find high-risk student without scholarship for sponsorship using the latest dropout prediction
     // Excludes students who received any completed sponsorship donations
     @Query(value = """
         SELECT s.* FROM students s 
-        LEFT JOIN dropout_predictions dp ON s.student_id = dp.student_id 
         WHERE s.has_scholarship = false 
-        AND dp.risk_status = 'HIGH'
+        AND s.latest_risk_status = 'HIGH'
         AND s.student_id NOT IN (
             SELECT DISTINCT d.student_id 
             FROM donations d 
@@ -129,9 +159,8 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
     // Excludes students who received any completed sponsorship donations
     @Query(value = """
         SELECT s.* FROM students s 
-        LEFT JOIN dropout_predictions dp ON s.student_id = dp.student_id 
         WHERE s.has_scholarship = false 
-        AND (dp.risk_status = 'HIGH' OR s.family_monthly_income < 15000)
+        AND (s.latest_risk_status = 'HIGH' OR s.family_monthly_income < 15000)
         AND s.student_id NOT IN (
             SELECT DISTINCT d.student_id 
             FROM donations d 
@@ -146,13 +175,15 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
             AND nsd.payment_status = 'COMPLETED'
         )
         ORDER BY 
-            CASE WHEN dp.risk_status = 'HIGH' THEN 1 ELSE 2 END,
+            CASE WHEN s.latest_risk_status = 'HIGH' THEN 1 ELSE 2 END,
             s.family_monthly_income ASC 
         LIMIT :limit
         """, nativeQuery = true)
     List<Student> findHighRiskStudentsForSponsorship(@Param("limit") int limit);
 
-    // Update scholarship status for students who received donations in current month
+    // Recompute scholarship status for every student from sponsorships completed in [monthStart, nextMonthStart)
+    // Full-table repair only; completed donations and the month rollover use the targeted updates below.
+    // Donor donations count only with the STUDENT_SPONSORSHIP purpose, like ScholarshipStatusSubscriber
     @Modifying
     @Query(value = """
         UPDATE students 
@@ -162,22 +193,89 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
                     SELECT d.student_id 
                     FROM donations d 
                     WHERE d.student_id IS NOT NULL 
+                    AND d.purpose = 'STUDENT_SPONSORSHIP'
                     AND d.payment_status = 'COMPLETED'
-                    AND MONTH(d.payment_completed_at) = MONTH(CURRENT_DATE)
-                    AND YEAR(d.payment_completed_at) = YEAR(CURRENT_DATE)
+                    AND d.payment_completed_at >= :monthStart
+                    AND d.payment_completed_at < :nextMonthStart
                     UNION
                     SELECT nsd.student_id 
                     FROM ngo_student_donations nsd 
                     WHERE nsd.student_id IS NOT NULL 
                     AND nsd.payment_status = 'COMPLETED'
-                    AND MONTH(nsd.payment_completed_at) = MONTH(CURRENT_DATE)
-                    AND YEAR(nsd.payment_completed_at) = YEAR(CURRENT_DATE)
+                    AND nsd.payment_completed_at >= :monthStart
+                    AND nsd.payment_completed_at < :nextMonthStart
                 ) AS current_month_donations
             ) THEN 1 
             ELSE 0 
         END
         """, nativeQuery = true)
-    void updateScholarshipStatus();
+    void updateScholarshipStatus(@Param("monthStart") LocalDateTime monthStart,
+                                 @Param("nextMonthStart") LocalDateTime nextMonthStart);
+
+    default void updateScholarshipStatus(MonthWindow month) {
+        updateScholarshipStatus(month.start(), month.end());
+    }
+
+    // Mark the given students as scholarship holders; rows that already hold one are not rewritten
+    @Modifying
+    @Query(value = """
+        UPDATE students 
+        SET has_scholarship = 1 
+        WHERE student_id IN (:studentIds) 
+        AND has_scholarship = 0
+        """, nativeQuery = true)
+    int markScholarshipHolders(@Param("studentIds") Collection<Integer> studentIds);
+
+    // Month rollover: clear holders with no completed sponsorship since monthStart from either source
+    @Modifying
+    @Query(value = """
+        UPDATE students s 
+        SET s.has_scholarship = 0 
+        WHERE s.has_scholarship = 1 
+        AND NOT EXISTS (
+            SELECT 1 FROM donations d 
+            WHERE d.student_id = s.student_id 
+            AND d.purpose = 'STUDENT_SPONSORSHIP' 
+            AND d.payment_status = 'COMPLETED' 
+            AND d.payment_completed_at >= :monthStart
+        ) 
+        AND NOT EXISTS (
+            SELECT 1 FROM ngo_student_donations nsd 
+            WHERE nsd.student_id = s.student_id 
+            AND nsd.payment_status = 'COMPLETED' 
+            AND nsd.payment_completed_at >= :monthStart
+        )
+        """, nativeQuery = true)
+    int resetLapsedScholarships(@Param("monthStart") LocalDateTime monthStart);
+
+    default int resetLapsedScholarships(MonthWindow month) {
+        return resetLapsedScholarships(month.start());
+    }
+
+    // Clear the given holders once no completed sponsorship in [monthStart, nextMonthStart) is left in the ledger,
+    // e.g. after their sponsoring donation was deleted, un-completed or moved to another student
+    @Modifying
+    @Query(value = """
+        UPDATE students s 
+        SET s.has_scholarship = 0 
+        WHERE s.student_id IN (:studentIds) 
+        AND s.has_scholarship = 1 
+        AND NOT EXISTS (
+            SELECT 1 FROM donation_ledger l 
+            WHERE l.student_id = s.student_id 
+            AND l.purpose = 'STUDENT_SPONSORSHIP' 
+            AND l.payment_status = 'COMPLETED' 
+            AND l.payment_completed_at >= :monthStart 
+            AND l.payment_completed_at < :nextMonthStart
+        )
+        """, nativeQuery = true)
+    int clearLapsedHolders(@Param("studentIds") Collection<Integer> studentIds,
+                           @Param("monthStart") LocalDateTime monthStart,
+                           @Param("nextMonthStart") LocalDateTime nextMonthStart);
+
+    default int clearLapsedHolders(Collection<Integer> studentIds, MonthWindow month) {
+        return clearLapsedHolders(studentIds, month.start(), month.end());
+    }
 
     // One-time fix: Update scholarship status for all students with any completed donations
     @Modifying
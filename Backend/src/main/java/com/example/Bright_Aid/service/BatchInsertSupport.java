@@ -0,0 +1,107 @@
+package com.example.Bright_Aid.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Shared chunked batch inserts for the bulk imports
+ * A chunk is inserted in one transaction; if it fails, its rows are retried one by one in their own
+ * transactions, so a bad row only costs its chunk a row-by-row retry instead of failing the whole file
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchInsertSupport {
+
+    @FunctionalInterface
+    public interface RowSetter<T> {
+        void setValues(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Run insert for the whole chunk, falling back to one row at a time; failed rows are reported
+     * by index with their root cause. Returns the indexes of the inserted rows
+     */
+    public <T> List<Integer> insertChunk(String label, List<T> rows, Consumer<List<T>> insert,
+                                         BiConsumer<Integer, String> rowFailed) {
+        List<Integer> inserted = new ArrayList<>(rows.size());
+        if (rows.isEmpty()) {
+            return inserted;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert.accept(rows));
+            for (int i = 0; i < rows.size(); i++) {
+                inserted.add(i);
+            }
+            return inserted;
+        } catch (RuntimeException e) {
+            log.warn("{} chunk of {} rows failed, retrying row by row: {}", label, rows.size(), e.getMessage());
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            List<T> single = Collections.singletonList(rows.get(i));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert.accept(single));
+                inserted.add(i);
+            } catch (RuntimeException e) {
+                rowFailed.accept(i, rootMessage(e));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * One JDBC batch INSERT; returns the generated ids in row order
+     */
+    public <T> List<Integer> batchInsert(String sql, List<T> rows, RowSetter<T> setter) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, rows.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != rows.size()) {
+            throw new RuntimeException("Expected " + rows.size() + " generated ids, got " + generated.size());
+        }
+        List<Integer> ids = new ArrayList<>(generated.size());
+        for (Map<String, Object> key : generated) {
+            ids.add(((Number) key.values().iterator().next()).intValue());
+        }
+        return ids;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
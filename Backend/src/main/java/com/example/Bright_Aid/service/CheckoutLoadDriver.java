@@ -0,0 +1,193 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.config.QueryCountInspector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load driver for the checkout path, only active with the "loadtest" profile
+ * Fires initiate requests at a fixed rate against the stub gateway, lets the stub callbacks drive
+ * status update, settlement and gamification, and reports per-stage latency and query counts
+ * The run only ends once the outbox relay has also drained, so its lag is part of the end-to-end figure
+ */
+@Service
+@Profile("loadtest")
+@Slf4j
+public class CheckoutLoadDriver {
+
+    private static final int MAX_WORKERS = 64;
+
+    private final PaymentTransactionService paymentTransactionService;
+    private final PaymentSettlementService paymentSettlementService;
+    private final SslCommerzStubService stubService;
+    private final StageMetrics stageMetrics;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong initiated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile Map<String, Object> runConfig = Map.of();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public CheckoutLoadDriver(PaymentTransactionService paymentTransactionService,
+                              PaymentSettlementService paymentSettlementService,
+                              SslCommerzStubService stubService,
+                              StageMetrics stageMetrics,
+                              JdbcTemplate jdbcTemplate) {
+        this.paymentTransactionService = paymentTransactionService;
+        this.paymentSettlementService = paymentSettlementService;
+        this.stubService = stubService;
+        this.stageMetrics = stageMetrics;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Start a run in the background; returns false when a run is already in progress
+     */
+    public boolean start(Integer donorId, Integer ngoId, double targetRps, int durationSeconds, BigDecimal amount,
+                         Integer projectId, Integer studentId, int drainSeconds) {
+        if (donorId == null && ngoId == null) {
+            throw new RuntimeException("Either donorId or ngoId must be provided");
+        }
+        if (targetRps <= 0 || durationSeconds <= 0) {
+            throw new RuntimeException("targetRps and durationSeconds must be positive");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        stageMetrics.reset();
+        stubService.reset();
+        issued.set(0);
+        initiated.set(0);
+        rejected.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("donorId", donorId);
+        config.put("ngoId", ngoId);
+        config.put("targetRps", targetRps);
+        config.put("durationSeconds", durationSeconds);
+        config.put("amount", amount);
+        config.put("projectId", projectId);
+        config.put("studentId", studentId);
+        runConfig = config;
+
+        Thread runner = new Thread(() -> run(donorId, ngoId, targetRps, durationSeconds, amount, projectId, studentId, drainSeconds),
+                "checkout-load-driver");
+        runner.setDaemon(true);
+        runner.start();
+        return true;
+    }
+
+    /**
+     * Progress of the current or last run with per-stage p50/p99 latency and query counts
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("running", running.get());
+        report.put("config", runConfig);
+        report.put("startedAt", startedAt);
+        report.put("finishedAt", finishedAt);
+        report.put("issued", issued.get());
+        report.put("initiated", initiated.get());
+        report.put("rejected", rejected.get());
+        if (startedAt != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            double seconds = Math.max(0.001, Duration.between(startedAt, end).toMillis() / 1000.0);
+            report.put("achievedRps", issued.get() / seconds);
+        }
+        report.put("stages", stageMetrics.snapshot());
+        report.put("settlement", paymentSettlementService.getStats());
+        report.put("stub", stubService.getStats());
+        report.put("outboxUndelivered", countUndeliveredEvents());
+        return report;
+    }
+
+    private void run(Integer donorId, Integer ngoId, double targetRps, int durationSeconds, BigDecimal amount,
+                     Integer projectId, Integer studentId, int drainSeconds) {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService workers = Executors.newFixedThreadPool(MAX_WORKERS);
+        try {
+            long periodNanos = (long) (1_000_000_000L / targetRps);
+            ScheduledFuture<?> ticks = ticker.scheduleAtFixedRate(() -> {
+                issued.incrementAndGet();
+                workers.execute(() -> initiateOnce(donorId, ngoId, amount, projectId, studentId));
+            }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+            ticker.schedule(() -> ticks.cancel(false), durationSeconds, TimeUnit.SECONDS).get();
+            workers.shutdown();
+            workers.awaitTermination(drainSeconds, TimeUnit.SECONDS);
+
+            // Let the stub callbacks and settlement workers finish the tail of the run,
+            // then wait for the relay to deliver the events settlement wrote to the outbox
+            long deadline = System.currentTimeMillis() + drainSeconds * 1000L;
+            long drainStart = System.nanoTime();
+            while (System.currentTimeMillis() < deadline && !settlementDrained()) {
+                Thread.sleep(250);
+            }
+            long relayStart = System.nanoTime();
+            stageMetrics.record("load.drain.settlement", relayStart - drainStart);
+            while (System.currentTimeMillis() < deadline && countUndeliveredEvents() > 0) {
+                Thread.sleep(250);
+            }
+            stageMetrics.record("load.drain.outboxRelay", System.nanoTime() - relayStart);
+            long undelivered = countUndeliveredEvents();
+            if (undelivered > 0) {
+                log.warn("Checkout load run ended with {} outbox events still undelivered", undelivered);
+            }
+        } catch (Exception e) {
+            log.error("Checkout load run aborted: {}", e.getMessage(), e);
+        } finally {
+            ticker.shutdownNow();
+            workers.shutdownNow();
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void initiateOnce(Integer donorId, Integer ngoId, BigDecimal amount, Integer projectId, Integer studentId) {
+        long start = System.nanoTime();
+        long queriesBefore = QueryCountInspector.current();
+        Map<String, Object> result = paymentTransactionService.initiateSSLCommerzPayment(
+                donorId, ngoId, amount, "Load Test Donation", "Donation", projectId, studentId);
+        stageMetrics.record("load.initiate", System.nanoTime() - start, QueryCountInspector.current() - queriesBefore);
+
+        if ("SUCCESS".equals(result.get("status"))) {
+            initiated.incrementAndGet();
+        } else {
+            rejected.incrementAndGet();
+        }
+    }
+
+    private boolean settlementDrained() {
+        Map<String, Object> stats = paymentSettlementService.getStats();
+        long submitted = ((Number) stats.get("submitted")).longValue();
+        long done = ((Number) stats.get("settled")).longValue() + ((Number) stats.get("failed")).longValue();
+        return ((Number) stats.get("queueDepth")).intValue() == 0 && done >= submitted;
+    }
+
+    private long countUndeliveredEvents() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE status <> 'DONE'", Long.class);
+        return count != null ? count : 0L;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.Bright_Aid.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal RFC 4180 reader for uploaded CSV files: comma separated, double-quoted fields may contain
+ * commas, doubled quotes and line breaks. Records are read one at a time so large files are not buffered.
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private Map<String, Integer> header;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Read the first record as the header; column names are matched case-insensitively
+     */
+    public Map<String, Integer> readHeader() throws IOException {
+        List<String> columns = readRecord();
+        if (columns == null) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            String name = columns.get(i).trim();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            header.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        return header;
+    }
+
+    /**
+     * Value of a named column in a record read after {@link #readHeader()}, or null when absent or blank
+     */
+    public String get(List<String> record, String column) {
+        Integer index = header.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Next record, or null at end of input; blank lines are skipped
+     */
+    public List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) {
+            line = reader.readLine();
+        }
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // Quoted field spans a line break
+            line = reader.readLine();
+            if (line == null) {
+                throw new RuntimeException("Unterminated quoted field in CSV file");
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import com.example.Bright_Aid.Entity.DonorDonationTotals;
+import com.example.Bright_Aid.Entity.NgoDonationTotals;
+import com.example.Bright_Aid.Entity.ProjectDonationTotals;
+import com.example.Bright_Aid.Entity.SchoolDonationTotals;
+import com.example.Bright_Aid.repository.DonorDonationTotalsRepository;
+import com.example.Bright_Aid.repository.NgoDonationTotalsRepository;
+import com.example.Bright_Aid.repository.ProjectDonationTotalsRepository;
+import com.example.Bright_Aid.repository.SchoolDonationTotalsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Materialized completed-donation totals per donor, project, school and NGO
+ * Applied incrementally from the donation-completed outbox (one upsert per key per batch) so dashboard
+ * reads are primary-key lookups; reversal events subtract what their completion added, and rebuild()
+ * recomputes every table from the raw donation tables
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DonationAggregateService {
+
+    public static final String SUBSCRIBER_NAME = "donation-aggregates";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DonorDonationTotalsRepository donorTotalsRepository;
+    private final ProjectDonationTotalsRepository projectTotalsRepository;
+    private final SchoolDonationTotalsRepository schoolTotalsRepository;
+    private final NgoDonationTotalsRepository ngoTotalsRepository;
+
+    // ===================== READS =====================
+
+    public DonorDonationTotals getDonorTotals(Integer donorId) {
+        return donorTotalsRepository.findById(donorId).orElseGet(() -> DonorDonationTotals.builder()
+                .donorId(donorId).totalDonated(BigDecimal.ZERO).donationCount(0)
+                .studentsSponsored(0).projectsSupported(0).build());
+    }
+
+    public BigDecimal getProjectTotalRaised(Integer projectId) {
+        return projectTotalsRepository.findById(projectId).map(ProjectDonationTotals::getTotalRaised).orElse(BigDecimal.ZERO);
+    }
+
+    public SchoolDonationTotals getSchoolTotals(Integer schoolId) {
+        return schoolTotalsRepository.findById(schoolId).orElseGet(() -> SchoolDonationTotals.builder()
+                .schoolId(schoolId).projectFunds(BigDecimal.ZERO).ngoStudentFunds(BigDecimal.ZERO)
+                .donorStudentFunds(BigDecimal.ZERO).donationCount(0).build());
+    }
+
+    public BigDecimal getNgoTotalDonated(Integer ngoId) {
+        return ngoTotalsRepository.findById(ngoId).map(NgoDonationTotals::getTotalDonated).orElse(BigDecimal.ZERO);
+    }
+
+    // ===================== INCREMENTAL =====================
+
+    /**
+     * Add a batch of completed donations to the totals and subtract reversed ones; runs in the outbox
+     * delivery transaction, so each event is applied exactly once
+     */
+    @Transactional
+    public void applyCompleted(List<DonationCompletedEvent> events) {
+        Map<Integer, Delta> donors = new LinkedHashMap<>();
+        Map<Integer, Delta> projects = new LinkedHashMap<>();
+        Map<Integer, Delta> ngos = new LinkedHashMap<>();
+        Map<Integer, Delta> ngoStudents = new LinkedHashMap<>();
+        Map<Integer, Delta> donorStudents = new LinkedHashMap<>();
+
+        for (DonationCompletedEvent event : events) {
+            BigDecimal amount = event.getAmount() != null ? event.getAmount() : BigDecimal.ZERO;
+            int sign = event.isReversal() ? -1 : 1;
+            if (event.getDonorId() != null) {
+                Delta donor = donors.computeIfAbsent(event.getDonorId(), id -> new Delta());
+                donor.add(amount, sign);
+                if (event.getStudentId() != null) {
+                    donor.newStudents += updateTarget(event, "STUDENT", "student_id", event.getStudentId());
+                }
+                if (event.getProjectId() != null) {
+                    donor.newProjects += updateTarget(event, "PROJECT", "project_id", event.getProjectId());
+                }
+            }
+            if (event.getNgoId() != null) {
+                ngos.computeIfAbsent(event.getNgoId(), id -> new Delta()).add(amount, sign);
+            }
+            // A donation counts towards its school once: through the project if it has one, otherwise the student
+            if (event.getProjectId() != null) {
+                projects.computeIfAbsent(event.getProjectId(), id -> new Delta()).add(amount, sign);
+            } else if (event.getStudentId() != null) {
+                Map<Integer, Delta> students = DonationCompletedEvent.SOURCE_NGO_STUDENT.equals(event.getSource())
+                        ? ngoStudents : donorStudents;
+                students.computeIfAbsent(event.getStudentId(), id -> new Delta()).add(amount, sign);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!donors.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO donor_donation_totals (donor_id, total_donated, donation_count, students_sponsored, projects_supported, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                    "total_donated = total_donated + VALUES(total_donated), donation_count = donation_count + VALUES(donation_count), " +
+                    "students_sponsored = students_sponsored + VALUES(students_sponsored), " +
+                    "projects_supported = projects_supported + VALUES(projects_supported), updated_at = VALUES(updated_at)",
+                    rows(donors, d -> new Object[]{d.amount, d.count, d.newStudents, d.newProjects, now}));
+        }
+        if (!projects.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO project_donation_totals (project_id, total_raised, donation_count, updated_at) VALUES (?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE total_raised = total_raised + VALUES(total_raised), " +
+                    "donation_count = donation_count + VALUES(donation_count), updated_at = VALUES(updated_at)",
+                    rows(projects, d -> new Object[]{d.amount, d.count, now}));
+            upsertSchool("SELECT sp.school_id, ?, 0, 0, ?, ? FROM school_projects sp WHERE sp.project_id = ?", projects, now);
+        }
+        if (!ngoStudents.isEmpty()) {
+            upsertSchool("SELECT s.school_id, 0, ?, 0, ?, ? FROM students s WHERE s.student_id = ?", ngoStudents, now);
+        }
+        if (!donorStudents.isEmpty()) {
+            upsertSchool("SELECT s.school_id, 0, 0, ?, ?, ? FROM students s WHERE s.student_id = ?", donorStudents, now);
+        }
+        if (!ngos.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO ngo_donation_totals (ngo_id, total_donated, donation_count, updated_at) VALUES (?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE total_donated = total_donated + VALUES(total_donated), " +
+                    "donation_count = donation_count + VALUES(donation_count), updated_at = VALUES(updated_at)",
+                    rows(ngos, d -> new Object[]{d.amount, d.count, now}));
+        }
+    }
+
+    // ===================== REBUILD =====================
+
+    /**
+     * Recompute every aggregate table from the raw donation tables, archives included
+     * Locks the undelivered tail of the outbox for the duration, so no completion is counted twice:
+     * events already committed are marked delivered to the aggregates subscriber, newer ones wait for the rebuild
+     */
+    @Transactional
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        Long firstOpen = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MIN(event_id), (SELECT COALESCE(MAX(event_id), 0) + 1 FROM outbox_events)) " +
+                "FROM outbox_events WHERE status <> 'DONE'", Long.class);
+        jdbcTemplate.query("SELECT event_id FROM outbox_events WHERE event_id >= ? FOR UPDATE", rs -> { }, firstOpen);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(
+                "INSERT IGNORE INTO outbox_deliveries (event_id, subscriber, delivered_at) " +
+                "SELECT event_id, ?, ? FROM outbox_events WHERE event_id >= ? AND status <> 'DONE'",
+                SUBSCRIBER_NAME, now, firstOpen);
+
+        jdbcTemplate.update("DELETE FROM donor_supported_targets");
+        jdbcTemplate.update(
+                "INSERT INTO donor_supported_targets (donor_id, target_type, target_id) " +
+                "SELECT DISTINCT donor_id, 'STUDENT', student_id FROM " + DonationArchiveService.ALL_DONATIONS + " d " +
+                "WHERE payment_status = 'COMPLETED' AND student_id IS NOT NULL " +
+                "UNION " +
+                "SELECT DISTINCT donor_id, 'PROJECT', project_id FROM " + DonationArchiveService.ALL_DONATIONS + " d " +
+                "WHERE payment_status = 'COMPLETED' AND project_id IS NOT NULL");
+
+        jdbcTemplate.update("DELETE FROM donor_donation_totals");
+        int donors = jdbcTemplate.update(
+                "INSERT INTO donor_donation_totals (donor_id, total_donated, donation_count, students_sponsored, projects_supported, updated_at) " +
+                "SELECT d.donor_id, SUM(d.amount), COUNT(*), " +
+                "  (SELECT COUNT(*) FROM donor_supported_targets t WHERE t.donor_id = d.donor_id AND t.target_type = 'STUDENT'), " +
+                "  (SELECT COUNT(*) FROM donor_supported_targets t WHERE t.donor_id = d.donor_id AND t.target_type = 'PROJECT'), ? " +
+                "FROM " + DonationArchiveService.ALL_DONATIONS + " d WHERE d.payment_status = 'COMPLETED' GROUP BY d.donor_id", now);
+
+        jdbcTemplate.update("DELETE FROM project_donation_totals");
+        int projects = jdbcTemplate.update(
+                "INSERT INTO project_donation_totals (project_id, total_raised, donation_count, updated_at) " +
+                "SELECT project_id, SUM(amount), COUNT(*), ? FROM (" +
+                "  SELECT d.project_id, d.amount FROM " + DonationArchiveService.ALL_DONATIONS + " d " +
+                "  WHERE d.project_id IS NOT NULL AND d.payment_status = 'COMPLETED' " +
+                "  UNION ALL " +
+                "  SELECT npd.project_id, npd.amount FROM " + DonationArchiveService.ALL_NGO_PROJECT_DONATIONS + " npd " +
+                "  WHERE npd.payment_status = 'COMPLETED' " +
+                ") AS all_donations GROUP BY project_id", now);
+
+        jdbcTemplate.update("DELETE FROM school_donation_totals");
+        int schools = jdbcTemplate.update(
+                "INSERT INTO school_donation_totals (school_id, project_funds, ngo_student_funds, donor_student_funds, donation_count, updated_at) " +
+                "SELECT school_id, SUM(project_funds), SUM(ngo_student_funds), SUM(donor_student_funds), COUNT(*), ? FROM (" +
+                "  SELECT sp.school_id, d.amount AS project_funds, 0 AS ngo_student_funds, 0 AS donor_student_funds " +
+                "  FROM " + DonationArchiveService.ALL_DONATIONS + " d JOIN school_projects sp ON d.project_id = sp.project_id " +
+                "  WHERE d.payment_status = 'COMPLETED' " +
+                "  UNION ALL " +
+                "  SELECT sp.school_id, npd.amount, 0, 0 " +
+                "  FROM " + DonationArchiveService.ALL_NGO_PROJECT_DONATIONS + " npd JOIN school_projects sp ON npd.project_id = sp.project_id " +
+                "  WHERE npd.payment_status = 'COMPLETED' " +
+                "  UNION ALL " +
+                "  SELECT s.school_id, 0, nsd.amount, 0 " +
+                "  FROM " + DonationArchiveService.ALL_NGO_STUDENT_DONATIONS + " nsd JOIN students s ON nsd.student_id = s.student_id " +
+                "  WHERE nsd.payment_status = 'COMPLETED' " +
+                "  UNION ALL " +
+                "  SELECT s.school_id, 0, 0, d.amount " +
+                "  FROM " + DonationArchiveService.ALL_DONATIONS + " d JOIN students s ON d.student_id = s.student_id " +
+                "  WHERE d.project_id IS NULL AND d.payment_status = 'COMPLETED' " +
+                ") AS school_donations GROUP BY school_id", now);
+
+        jdbcTemplate.update("DELETE FROM ngo_donation_totals");
+        int ngos = jdbcTemplate.update(
+                "INSERT INTO ngo_donation_totals (ngo_id, total_donated, donation_count, updated_at) " +
+                "SELECT ngo_id, SUM(amount), COUNT(*), ? FROM (" +
+                "  SELECT ngo_id, amount FROM " + DonationArchiveService.ALL_NGO_STUDENT_DONATIONS + " nsd " +
+                "  WHERE ngo_id IS NOT NULL AND payment_status = 'COMPLETED' " +
+                "  UNION ALL " +
+                "  SELECT ngo_id, amount FROM " + DonationArchiveService.ALL_NGO_PROJECT_DONATIONS + " npd " +
+                "  WHERE ngo_id IS NOT NULL AND payment_status = 'COMPLETED' " +
+                ") AS ngo_donations GROUP BY ngo_id", now);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("donors", donors);
+        result.put("projects", projects);
+        result.put("schools", schools);
+        result.put("ngos", ngos);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        log.info("Rebuilt donation aggregates: {}", result);
+        return result;
+    }
+
+    // ===================== HELPERS =====================
+
+    // +1 the first time a donor completes a donation for this student / project, -1 when a reversal
+    // leaves the donor with no completed donation for it in the ledger, 0 otherwise
+    private int updateTarget(DonationCompletedEvent event, String targetType, String ledgerColumn, Integer targetId) {
+        if (!event.isReversal()) {
+            return jdbcTemplate.update(
+                    "INSERT IGNORE INTO donor_supported_targets (donor_id, target_type, target_id) VALUES (?, ?, ?)",
+                    event.getDonorId(), targetType, targetId) > 0 ? 1 : 0;
+        }
+        return jdbcTemplate.update(
+                "DELETE FROM donor_supported_targets WHERE donor_id = ? AND target_type = ? AND target_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM donation_ledger l WHERE l.source = 'DONOR' AND l.donor_id = ? " +
+                "AND l." + ledgerColumn + " = ? AND l.payment_status = 'COMPLETED')",
+                event.getDonorId(), targetType, targetId, event.getDonorId(), targetId) > 0 ? -1 : 0;
+    }
+
+    // The school is resolved in SQL from the project / student the delta is keyed by
+    private void upsertSchool(String select, Map<Integer, Delta> deltas, Timestamp now) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO school_donation_totals (school_id, project_funds, ngo_student_funds, donor_student_funds, donation_count, updated_at) " +
+                select + " ON DUPLICATE KEY UPDATE " +
+                "project_funds = project_funds + VALUES(project_funds), " +
+                "ngo_student_funds = ngo_student_funds + VALUES(ngo_student_funds), " +
+                "donor_student_funds = donor_student_funds + VALUES(donor_student_funds), " +
+                "donation_count = donation_count + VALUES(donation_count), updated_at = VALUES(updated_at)",
+                deltas.entrySet().stream()
+                        .map(e -> new Object[]{e.getValue().amount, e.getValue().count, now, e.getKey()})
+                        .toList());
+    }
+
+    // Key first, then the delta columns
+    private List<Object[]> rows(Map<Integer, Delta> deltas, Function<Delta, Object[]> columns) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            Object[] values = columns.apply(delta);
+            Object[] row = new Object[values.length + 1];
+            row[0] = key;
+            System.arraycopy(values, 0, row, 1, values.length);
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    private static class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private int count;
+        private int newStudents;
+        private int newProjects;
+
+        private void add(BigDecimal value, int sign) {
+            amount = sign < 0 ? amount.subtract(value) : amount.add(value);
+            count += sign;
+        }
+    }
+}
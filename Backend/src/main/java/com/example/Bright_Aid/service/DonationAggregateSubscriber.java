@@ -0,0 +1,28 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Adds completed donations to the donor / project / school / NGO aggregate tables and subtracts reversals
+// Runs before NGO gamification, whose points are computed from ngo_donation_totals
+@Component
+@Order(3)
+@RequiredArgsConstructor
+public class DonationAggregateSubscriber implements DonationCompletedSubscriber {
+
+    private final DonationAggregateService donationAggregateService;
+
+    @Override
+    public String name() {
+        return DonationAggregateService.SUBSCRIBER_NAME;
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        donationAggregateService.applyCompleted(events);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.repository.MonthWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hot/cold split for the donation and payment tables
+ * Settled rows older than the retention window are moved, month-aligned and in small batches, into
+ * *_archive tables with the same layout, so the hot tables only hold recent history. Rows still
+ * referenced from a hot table (utilized donations, donations with funds left to allocate, transactions
+ * of hot donations) stay put.
+ * donation_ledger and the aggregate tables keep archived donations, so reports are unaffected;
+ * history endpoints read the archives only when asked to.
+ */
+@Service
+@Slf4j
+public class DonationArchiveService {
+
+    public static final String DONATIONS_ARCHIVE = "donations_archive";
+    public static final String NGO_STUDENT_DONATIONS_ARCHIVE = "ngo_student_donations_archive";
+    public static final String NGO_PROJECT_DONATIONS_ARCHIVE = "ngo_project_donations_archive";
+    public static final String PAYMENT_TRANSACTIONS_ARCHIVE = "payment_transactions_archive";
+
+    // Hot + archived rows, for the few full recomputations that must see all history
+    public static final String ALL_DONATIONS =
+            "(SELECT donation_id, donor_id, project_id, student_id, amount, payment_status FROM donations " +
+            "UNION ALL SELECT donation_id, donor_id, project_id, student_id, amount, payment_status FROM " + DONATIONS_ARCHIVE + ")";
+    public static final String ALL_NGO_STUDENT_DONATIONS =
+            "(SELECT ngo_id, student_id, amount, payment_status FROM ngo_student_donations " +
+            "UNION ALL SELECT ngo_id, student_id, amount, payment_status FROM " + NGO_STUDENT_DONATIONS_ARCHIVE + ")";
+    public static final String ALL_NGO_PROJECT_DONATIONS =
+            "(SELECT ngo_id, project_id, amount, payment_status FROM ngo_project_donations " +
+            "UNION ALL SELECT ngo_id, project_id, amount, payment_status FROM " + NGO_PROJECT_DONATIONS_ARCHIVE + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${donation.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${donation.archive.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${donation.archive.batch-size:1000}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public DonationArchiveService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${donation.archive.cron:0 30 2 2 * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Move settled rows from before the retention window into the archive tables
+     * Donations go first, so the payment transactions they referenced become movable in the same run
+     */
+    public Map<String, Object> archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Donation archival is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            ensureArchiveTables();
+            LocalDateTime cutoff = MonthWindow.of(YearMonth.now().minusMonths(retentionMonths)).start();
+            Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("cutoff", cutoff.toString());
+            result.put("donations", moveTable("donations", DONATIONS_ARCHIVE, "donation_id",
+                    "SELECT d.donation_id FROM donations d WHERE d.donation_id > ? AND d.effective_date < ? " +
+                    "AND d.payment_status <> 'PENDING' " +
+                    "AND NOT EXISTS (SELECT 1 FROM fund_utilization fu WHERE fu.donation_id = d.donation_id) " +
+                    "AND NOT EXISTS (SELECT 1 FROM project_fund_balances b WHERE b.source = 'DONOR' " +
+                    "AND b.source_donation_id = d.donation_id AND b.remaining_amount > 0) " +
+                    "ORDER BY d.donation_id LIMIT ? FOR UPDATE", cutoffTs));
+            result.put("ngoStudentDonations", moveTable("ngo_student_donations", NGO_STUDENT_DONATIONS_ARCHIVE, "student_donation_id",
+                    "SELECT n.student_donation_id FROM ngo_student_donations n WHERE n.student_donation_id > ? " +
+                    "AND COALESCE(n.donated_at, n.created_at) < ? AND n.payment_status <> 'PENDING' " +
+                    "ORDER BY n.student_donation_id LIMIT ? FOR UPDATE", cutoffTs));
+            result.put("ngoProjectDonations", moveTable("ngo_project_donations", NGO_PROJECT_DONATIONS_ARCHIVE, "project_donation_id",
+                    "SELECT n.project_donation_id FROM ngo_project_donations n WHERE n.project_donation_id > ? " +
+                    "AND COALESCE(n.donated_at, n.created_at) < ? AND n.payment_status <> 'PENDING' " +
+                    "AND NOT EXISTS (SELECT 1 FROM fund_utilization fu WHERE fu.ngo_project_donation_id = n.project_donation_id) " +
+                    "AND NOT EXISTS (SELECT 1 FROM project_fund_balances b WHERE b.source = 'NGO_PROJECT' " +
+                    "AND b.source_donation_id = n.project_donation_id AND b.remaining_amount > 0) " +
+                    "ORDER BY n.project_donation_id LIMIT ? FOR UPDATE", cutoffTs));
+            result.put("paymentTransactions", moveTable("payment_transactions", PAYMENT_TRANSACTIONS_ARCHIVE, "transaction_id",
+                    "SELECT t.transaction_id FROM payment_transactions t WHERE t.transaction_id > ? AND t.created_at < ? " +
+                    "AND t.status <> 'PENDING' " +
+                    "AND NOT EXISTS (SELECT 1 FROM donations d WHERE d.transaction_id = t.transaction_id) " +
+                    "ORDER BY t.transaction_id LIMIT ? FOR UPDATE", cutoffTs));
+            result.put("durationMs", System.currentTimeMillis() - start);
+            lastRun = result;
+            log.info("Donation archival: {}", result);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retentionMonths", retentionMonths);
+        stats.put("running", running.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    // Archive tables are created from the live layout when missing (CREATE TABLE ... LIKE copies indexes, not foreign keys)
+    // Runs once the schema update has created the live tables, so reads that union the archives never miss them
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureArchiveTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DONATIONS_ARCHIVE + " LIKE donations");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + NGO_STUDENT_DONATIONS_ARCHIVE + " LIKE ngo_student_donations");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + NGO_PROJECT_DONATIONS_ARCHIVE + " LIKE ngo_project_donations");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PAYMENT_TRANSACTIONS_ARCHIVE + " LIKE payment_transactions");
+    }
+
+    /**
+     * Copy-then-delete one batch per transaction, walking the primary key so each batch is an index range
+     */
+    private int moveTable(String table, String archive, String idColumn, String selectBatch, Timestamp cutoff) {
+        List<String> columns = columns(archive);
+        Set<String> missing = new LinkedHashSet<>(columns(table));
+        missing.removeAll(columns);
+        if (!missing.isEmpty()) {
+            // Copying would silently drop these columns; the archive needs the same ALTER as the live table first
+            log.warn("Skipping archival of {}: {} lacks columns {}", table, archive, missing);
+            return 0;
+        }
+        String columnList = String.join(", ", columns);
+
+        int moved = 0;
+        int[] lastId = {0};
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<Integer> ids = jdbcTemplate.queryForList(selectBatch, Integer.class, lastId[0], cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                Object[] args = ids.toArray();
+                jdbcTemplate.update("INSERT INTO " + archive + " (" + columnList + ") SELECT " + columnList +
+                        " FROM " + table + " WHERE " + idColumn + " IN (" + in + ")", args);
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE " + idColumn + " IN (" + in + ")", args);
+                lastId[0] = ids.get(ids.size() - 1);
+                return ids.size();
+            });
+            if (batch == null || batch == 0) {
+                return moved;
+            }
+            moved += batch;
+        }
+    }
+
+    private List<String> columns(String table) {
+        return new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? " +
+                "ORDER BY ordinal_position", String.class, table));
+    }
+}
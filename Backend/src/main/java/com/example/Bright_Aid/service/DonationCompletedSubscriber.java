@@ -0,0 +1,20 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+
+import java.util.List;
+
+/**
+ * Receives batches of completed donations from the outbox relay
+ * A batch is delivered inside one transaction together with the subscriber's delivery markers,
+ * so an event is applied once per subscriber; throwing rolls the batch back and it is retried
+ * event by event. Subscribers run in @Order order.
+ * Events flagged as reversal withdraw an earlier completion and must not be treated as new donations.
+ */
+public interface DonationCompletedSubscriber {
+
+    // Stable name used for delivery tracking; must not change once events have been delivered
+    String name();
+
+    void onDonationsCompleted(List<DonationCompletedEvent> events);
+}
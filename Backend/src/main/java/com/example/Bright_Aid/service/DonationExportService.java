@@ -0,0 +1,226 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
+import com.example.Bright_Aid.repository.DonationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streaming CSV / NDJSON exports of donation reports
+ * Rows are read from a forward-only MySQL streaming result set and written straight to the response,
+ * so memory stays constant however many donations a school or donor has. Each running export holds a
+ * pooled connection for its whole duration, so at most donation.export.max-concurrent run at once and
+ * further requests get 429 instead of starving the request paths of connections
+ */
+@Service
+@Slf4j
+public class DonationExportService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+
+    public DonationExportService(DataSource dataSource, ObjectMapper objectMapper,
+                                 @Value("${donation.export.max-concurrent:2}") int maxConcurrent) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J only streams row by row (instead of buffering the whole result) with this fetch size
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * All donations received by a school from every source, newest first, read from donation_ledger
+     */
+    public StreamingResponseBody exportSchoolDonations(Integer schoolId, DonationLedgerEntry.Source source,
+                                                       LocalDate fromDate, LocalDate toDate, Format format) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT l.source_donation_id AS donation_id, l.source, l.amount, l.payment_status, l.donated_at, " +
+                "CASE l.source " +
+                "  WHEN 'DONOR' THEN COALESCE(pt.transaction_reference, CONCAT('DON', LPAD(l.source_donation_id, 6, '0'))) " +
+                "  WHEN 'NGO_STUDENT' THEN CONCAT('NGOS', LPAD(l.source_donation_id, 6, '0')) " +
+                "  ELSE CONCAT('NGOP', LPAD(l.source_donation_id, 6, '0')) " +
+                "END AS transaction_ref, " +
+                "CASE WHEN l.source = 'DONOR' THEN COALESCE(donor.donor_name, 'Anonymous Donor') " +
+                "  ELSE COALESCE(n.ngo_name, 'NGO Donor') END AS donor_name, " +
+                "sp.project_title, s.student_name, l.donation_type, l.purpose " +
+                "FROM donation_ledger l " +
+                "LEFT JOIN payment_transactions pt ON l.source = 'DONOR' AND l.transaction_id = pt.transaction_id " +
+                "LEFT JOIN donors donor ON l.donor_id = donor.donor_id " +
+                "LEFT JOIN ngos n ON l.ngo_id = n.ngo_id " +
+                "LEFT JOIN students s ON l.student_id = s.student_id " +
+                "LEFT JOIN school_projects sp ON l.project_id = sp.project_id " +
+                "WHERE l.school_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(schoolId);
+        // Date bounds stay on the (school_id, donated_at) index range
+        if (fromDate != null) {
+            sql.append(" AND l.donated_at >= ?");
+            args.add(Timestamp.valueOf(fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            sql.append(" AND l.donated_at < ?");
+            args.add(Timestamp.valueOf(toDate.plusDays(1).atStartOfDay()));
+        }
+        if (source != null) {
+            sql.append(" AND l.source = ?");
+            args.add(source.name());
+        }
+        sql.append(" ORDER BY l.donated_at DESC");
+        return stream(sql.toString(), args.toArray(), format);
+    }
+
+    /**
+     * A donor's full donation history, newest first, in donor-history order; archived donations on request
+     */
+    public StreamingResponseBody exportDonorDonations(Integer donorId, Format format, boolean includeArchived) {
+        if (includeArchived) {
+            return stream("(" + DonationRepository.DONOR_HISTORY_SELECT + "WHERE d.donor_id = ?) UNION ALL (" +
+                    DonationRepository.ARCHIVED_DONOR_HISTORY_SELECT + "WHERE d.donor_id = ?) " +
+                    "ORDER BY effective_date DESC, donation_id DESC",
+                    new Object[]{donorId, donorId}, format);
+        }
+        return stream(DonationRepository.DONOR_HISTORY_SELECT +
+                "WHERE d.donor_id = ? ORDER BY d.effective_date DESC, d.donation_id DESC",
+                new Object[]{donorId}, format);
+    }
+
+    // A full pool is refused on the request thread; the permit itself is taken and released inside the body,
+    // so a body that never runs (executor rejection, aborted request, failed response) holds nothing.
+    // If the last permit is taken in between, the body fails with 429 before anything is written.
+    private StreamingResponseBody stream(String sql, Object[] args, Format format) {
+        if (permits.availablePermits() == 0) {
+            throw tooManyExports();
+        }
+        return outputStream -> {
+            if (!permits.tryAcquire()) {
+                throw tooManyExports();
+            }
+            try {
+                write(outputStream, sql, args, format);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private static ResponseStatusException tooManyExports() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many donation exports running, try again shortly");
+    }
+
+    private void write(OutputStream outputStream, String sql, Object[] args, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        long start = System.currentTimeMillis();
+        long[] rows = {0};
+        try {
+            streamingJdbcTemplate.query(sql, rs -> {
+                try {
+                    if (rows[0] == 0 && format == Format.CSV) {
+                        writeCsvHeader(writer, rs.getMetaData());
+                    }
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, rs);
+                    } else {
+                        writeJsonRow(writer, rs);
+                    }
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args);
+        } catch (UncheckedIOException e) {
+            // Client went away mid-download; the statement is closed by JdbcTemplate
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} donation rows as {} in {} ms", rows[0], format, System.currentTimeMillis() - start);
+    }
+
+    private void writeCsvHeader(Writer writer, ResultSetMetaData meta) throws SQLException, IOException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            writer.write(meta.getColumnLabel(i));
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(Writer writer, ResultSet rs) throws SQLException, IOException {
+        int columns = rs.getMetaData().getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            Object value = rs.getObject(i);
+            if (value != null) {
+                writer.write(csvEscape(format(value)));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private void writeJsonRow(Writer writer, ResultSet rs) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            Object value = rs.getObject(i);
+            // Numbers and booleans stay JSON numbers / booleans; only dates are rendered as text
+            row.put(meta.getColumnLabel(i), value == null || value instanceof Number || value instanceof Boolean
+                    ? value : format(value));
+        }
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import com.example.Bright_Aid.Dto.DonationImportResultDto;
+import com.example.Bright_Aid.Dto.DonationImportRowDto;
+import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.Donor;
+import com.example.Bright_Aid.Entity.SchoolProject;
+import com.example.Bright_Aid.Entity.Student;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of offline (cash / cheque) donor donations
+ * Donor, project and student references are resolved with one IN query per entity type, rows are
+ * inserted with JDBC batches in chunks, and each chunk commits on its own so a bad row only costs
+ * its chunk a row-by-row retry instead of rolling back the whole file.
+ */
+@Service
+@Slf4j
+public class DonationImportService {
+
+    private static final String INSERT_DONATION =
+            "INSERT INTO donations (donor_id, project_id, student_id, amount, donation_type, payment_status, purpose, " +
+            "donor_message, is_anonymous, donated_at, payment_completed_at, effective_date, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Keeps IN lists well below packet and placeholder limits
+    private static final int LOOKUP_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BatchInsertSupport batchInsertSupport;
+    private final DonationLedgerService donationLedgerService;
+    private final OutboxService outboxService;
+
+    @Value("${donation.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${donation.import.max-rows:20000}")
+    private int maxRows;
+
+    public DonationImportService(JdbcTemplate jdbcTemplate,
+                                 BatchInsertSupport batchInsertSupport,
+                                 DonationLedgerService donationLedgerService,
+                                 OutboxService outboxService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchInsertSupport = batchInsertSupport;
+        this.donationLedgerService = donationLedgerService;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * Parse a CSV upload with a header row; columns: donorId, projectId, studentId, amount, donationType,
+     * purpose, paymentStatus, donorMessage, isAnonymous, donatedAt (ISO date or date-time)
+     */
+    public DonationImportResultDto importCsv(Reader csv) {
+        List<DonationImportRowDto> rows = new ArrayList<>();
+        List<DonationImportResultDto.RowError> errors = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(csv)) {
+            reader.readHeader();
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                if (rows.size() >= maxRows) {
+                    throw new RuntimeException("Import is limited to " + maxRows + " rows per file");
+                }
+                try {
+                    rows.add(parseCsvRow(reader, record));
+                } catch (RuntimeException e) {
+                    errors.add(new DonationImportResultDto.RowError(rows.size() + 1, e.getMessage()));
+                    rows.add(null);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read CSV file: " + e.getMessage(), e);
+        }
+        return importRows(rows, errors);
+    }
+
+    public DonationImportResultDto importRows(List<DonationImportRowDto> rows) {
+        if (rows.size() > maxRows) {
+            throw new RuntimeException("Import is limited to " + maxRows + " rows per request");
+        }
+        return importRows(rows, new ArrayList<>());
+    }
+
+    // Null entries are rows that already failed to parse and are recorded in errors
+    private DonationImportResultDto importRows(List<DonationImportRowDto> rows, List<DonationImportResultDto.RowError> errors) {
+        long start = System.currentTimeMillis();
+
+        Set<Integer> donorIds = existingIds("donors", "donor_id",
+                rows.stream().filter(Objects::nonNull).map(DonationImportRowDto::getDonorId).collect(Collectors.toSet()));
+        Set<Integer> projectIds = existingIds("school_projects", "project_id",
+                rows.stream().filter(Objects::nonNull).map(DonationImportRowDto::getProjectId).collect(Collectors.toSet()));
+        Set<Integer> studentIds = existingIds("students", "student_id",
+                rows.stream().filter(Objects::nonNull).map(DonationImportRowDto::getStudentId).collect(Collectors.toSet()));
+
+        List<Donation> pending = new ArrayList<>(Math.min(rows.size(), batchSize));
+        List<Integer> pendingRows = new ArrayList<>(Math.min(rows.size(), batchSize));
+        int imported = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            DonationImportRowDto row = rows.get(i);
+            if (row == null) {
+                continue;
+            }
+            String error = validate(row, donorIds, projectIds, studentIds);
+            if (error != null) {
+                errors.add(new DonationImportResultDto.RowError(i + 1, error));
+                continue;
+            }
+            pending.add(toDonation(row));
+            pendingRows.add(i + 1);
+            if (pending.size() == batchSize) {
+                imported += insertChunk(pending, pendingRows, errors);
+                pending.clear();
+                pendingRows.clear();
+            }
+        }
+        if (!pending.isEmpty()) {
+            imported += insertChunk(pending, pendingRows, errors);
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+        long duration = System.currentTimeMillis() - start;
+        log.info("Donation import: {} rows, {} imported, {} failed in {} ms", rows.size(), imported, errors.size(), duration);
+        return DonationImportResultDto.builder()
+                .totalRows(rows.size())
+                .imported(imported)
+                .failed(errors.size())
+                .errors(errors)
+                .durationMs(duration)
+                .build();
+    }
+
+    // Chunk first, then row by row on failure (BatchInsertSupport)
+    private int insertChunk(List<Donation> donations, List<Integer> rowNumbers, List<DonationImportResultDto.RowError> errors) {
+        return batchInsertSupport.insertChunk("Donation import", donations, this::insert,
+                (i, message) -> errors.add(new DonationImportResultDto.RowError(rowNumbers.get(i), message))).size();
+    }
+
+    private void insert(List<Donation> donations) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> ids = batchInsertSupport.batchInsert(INSERT_DONATION, donations, (ps, donation) -> {
+            ps.setInt(1, donation.getDonor().getDonorId());
+            setNullableInt(ps, 2, donation.getProject() != null ? donation.getProject().getProjectId() : null);
+            setNullableInt(ps, 3, donation.getStudent() != null ? donation.getStudent().getStudentId() : null);
+            ps.setBigDecimal(4, donation.getAmount());
+            ps.setString(5, donation.getDonationType().name());
+            ps.setString(6, donation.getPaymentStatus().name());
+            ps.setString(7, donation.getPurpose().name());
+            ps.setString(8, donation.getDonorMessage());
+            ps.setBoolean(9, donation.getIsAnonymous());
+            ps.setTimestamp(10, Timestamp.valueOf(donation.getDonatedAt()));
+            ps.setTimestamp(11, donation.getPaymentCompletedAt() != null
+                    ? Timestamp.valueOf(donation.getPaymentCompletedAt()) : null);
+            ps.setTimestamp(12, Timestamp.valueOf(donation.getDonatedAt()));
+            ps.setTimestamp(13, now);
+            ps.setTimestamp(14, now);
+        });
+
+        List<DonationCompletedEvent> completed = new ArrayList<>();
+        for (int i = 0; i < donations.size(); i++) {
+            Donation donation = donations.get(i);
+            donation.setDonationId(ids.get(i));
+            if (donation.getPaymentStatus() == Donation.PaymentStatus.COMPLETED) {
+                completed.add(DonationCompletedEvent.builder()
+                        .source(DonationCompletedEvent.SOURCE_DONOR)
+                        .donationId(donation.getDonationId())
+                        .donorId(donation.getDonor().getDonorId())
+                        .studentId(donation.getStudent() != null ? donation.getStudent().getStudentId() : null)
+                        .projectId(donation.getProject() != null ? donation.getProject().getProjectId() : null)
+                        .amount(donation.getAmount())
+                        .purpose(donation.getPurpose().name())
+                        .completedAt(donation.getPaymentCompletedAt())
+                        .build());
+            }
+        }
+        donationLedgerService.recordDonorDonations(donations);
+        outboxService.publishDonationsCompleted(completed);
+    }
+
+    private String validate(DonationImportRowDto row, Set<Integer> donorIds, Set<Integer> projectIds, Set<Integer> studentIds) {
+        if (row.getDonorId() == null) {
+            return "donorId is required";
+        }
+        if (!donorIds.contains(row.getDonorId())) {
+            return "Donor not found: " + row.getDonorId();
+        }
+        if (row.getAmount() == null || row.getAmount().signum() <= 0) {
+            return "amount must be greater than zero";
+        }
+        if (row.getProjectId() != null && row.getStudentId() != null) {
+            return "A donation targets either a project or a student, not both";
+        }
+        if (row.getProjectId() != null && !projectIds.contains(row.getProjectId())) {
+            return "Project not found: " + row.getProjectId();
+        }
+        if (row.getStudentId() != null && !studentIds.contains(row.getStudentId())) {
+            return "Student not found: " + row.getStudentId();
+        }
+        if (row.getDonatedAt() != null && row.getDonatedAt().isAfter(LocalDateTime.now())) {
+            return "donatedAt is in the future";
+        }
+        return null;
+    }
+
+    private Donation toDonation(DonationImportRowDto row) {
+        Donation.PaymentStatus status = row.getPaymentStatus() != null ? row.getPaymentStatus() : Donation.PaymentStatus.COMPLETED;
+        LocalDateTime donatedAt = row.getDonatedAt() != null ? row.getDonatedAt() : LocalDateTime.now();
+        Donation.DonationPurpose purpose = row.getPurpose();
+        if (purpose == null) {
+            purpose = row.getProjectId() != null ? Donation.DonationPurpose.SCHOOL_PROJECT
+                    : row.getStudentId() != null ? Donation.DonationPurpose.STUDENT_SPONSORSHIP
+                    : Donation.DonationPurpose.GENERAL_SUPPORT;
+        }
+        return Donation.builder()
+                .donor(Donor.builder().donorId(row.getDonorId()).build())
+                .project(row.getProjectId() != null ? SchoolProject.builder().projectId(row.getProjectId()).build() : null)
+                .student(row.getStudentId() != null ? Student.builder().studentId(row.getStudentId()).build() : null)
+                .amount(row.getAmount())
+                .donationType(row.getDonationType() != null ? row.getDonationType() : Donation.DonationType.ONE_TIME)
+                .paymentStatus(status)
+                .purpose(purpose)
+                .donorMessage(row.getDonorMessage())
+                .isAnonymous(row.getIsAnonymous() != null ? row.getIsAnonymous() : false)
+                .donatedAt(donatedAt)
+                .paymentCompletedAt(status == Donation.PaymentStatus.COMPLETED ? donatedAt : null)
+                .build();
+    }
+
+    private DonationImportRowDto parseCsvRow(CsvReader reader, List<String> record) {
+        String donatedAt = reader.get(record, "donatedAt");
+        String isAnonymous = reader.get(record, "isAnonymous");
+        return DonationImportRowDto.builder()
+                .donorId(parseInt(reader.get(record, "donorId"), "donorId"))
+                .projectId(parseInt(reader.get(record, "projectId"), "projectId"))
+                .studentId(parseInt(reader.get(record, "studentId"), "studentId"))
+                .amount(parseAmount(reader.get(record, "amount")))
+                .donationType(parseEnum(Donation.DonationType.class, reader.get(record, "donationType"), "donationType"))
+                .purpose(parseEnum(Donation.DonationPurpose.class, reader.get(record, "purpose"), "purpose"))
+                .paymentStatus(parseEnum(Donation.PaymentStatus.class, reader.get(record, "paymentStatus"), "paymentStatus"))
+                .donorMessage(reader.get(record, "donorMessage"))
+                .isAnonymous(isAnonymous != null ? Boolean.parseBoolean(isAnonymous) : null)
+                .donatedAt(donatedAt == null ? null
+                        : donatedAt.length() == 10 ? LocalDate.parse(donatedAt).atStartOfDay() : LocalDateTime.parse(donatedAt))
+                .build();
+    }
+
+    // Ids among the given ones that exist in the table, one IN query per chunk
+    private Set<Integer> existingIds(String table, String idColumn, Set<Integer> ids) {
+        ids.remove(null);
+        Set<Integer> existing = new HashSet<>();
+        List<Integer> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK) {
+            Collection<Integer> chunk = all.subList(from, Math.min(from + LOOKUP_CHUNK, all.size()));
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT " + idColumn + " FROM " + table + " WHERE " + idColumn + " IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    Integer.class, chunk.toArray()));
+        }
+        return existing;
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static Integer parseInt(String value, String column) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(column + " is not a number: " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("amount is not a number: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String column) {
+        try {
+            return value != null ? Enum.valueOf(type, value.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown " + column + ": " + value);
+        }
+    }
+}
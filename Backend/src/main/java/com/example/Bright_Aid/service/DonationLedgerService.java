@@ -0,0 +1,244 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
+import com.example.Bright_Aid.Entity.NgoProjectDonations;
+import com.example.Bright_Aid.Entity.NgoStudentDonations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the unified donation_ledger
+ * Every donor, NGO student and NGO project donation write upserts its ledger row in the same
+ * transaction, keyed by (source, source_donation_id); the school is resolved once at write time.
+ * Project fund balances are re-synced from the new row in that same transaction, and a write that deletes,
+ * un-completes or edits a completed donation publishes a reversal of the values counted so far
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DonationLedgerService {
+
+    private static final String UPSERT =
+            "INSERT INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id, " +
+            "transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, " +
+            "COALESCE((SELECT sp.school_id FROM school_projects sp WHERE sp.project_id = ?), " +
+            "(SELECT s.school_id FROM students s WHERE s.student_id = ?)), " +
+            "?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE donor_id = VALUES(donor_id), ngo_id = VALUES(ngo_id), student_id = VALUES(student_id), " +
+            "project_id = VALUES(project_id), school_id = VALUES(school_id), transaction_id = VALUES(transaction_id), " +
+            "amount = VALUES(amount), payment_status = VALUES(payment_status), donation_type = VALUES(donation_type), " +
+            "purpose = VALUES(purpose), donated_at = VALUES(donated_at), " +
+            "payment_completed_at = VALUES(payment_completed_at), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProjectFundBalanceService projectFundBalanceService;
+    private final OutboxService outboxService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDonorDonation(Donation donation) {
+        DonationCompletedEvent previous = lockCompleted(DonationLedgerEntry.Source.DONOR, donation.getDonationId());
+        jdbcTemplate.update(UPSERT, donorDonationArgs(donation));
+        projectFundBalanceService.syncWithLedger(DonationLedgerEntry.Source.DONOR, donation.getDonationId());
+        publishReversal(previous);
+    }
+
+    // Batched variant for bulk imports; one round trip per JDBC batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDonorDonations(List<Donation> donations) {
+        if (donations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, donations.stream().map(this::donorDonationArgs).collect(Collectors.toList()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordNgoStudentDonation(NgoStudentDonations donation) {
+        DonationCompletedEvent previous = lockCompleted(DonationLedgerEntry.Source.NGO_STUDENT, donation.getStudentDonationId());
+        upsert(DonationLedgerEntry.Source.NGO_STUDENT, donation.getStudentDonationId(),
+                null, donation.getNgoId(), donation.getStudentId(), null, donation.getTransactionId(),
+                donation.getAmount(), name(donation.getPaymentStatus()), name(donation.getDonationType()),
+                Donation.DonationPurpose.STUDENT_SPONSORSHIP.name(),
+                donation.getDonatedAt() != null ? donation.getDonatedAt() : donation.getCreatedAt(),
+                donation.getPaymentCompletedAt());
+        publishReversal(previous);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordNgoProjectDonation(NgoProjectDonations donation) {
+        DonationCompletedEvent previous = lockCompleted(DonationLedgerEntry.Source.NGO_PROJECT, donation.getProjectDonationId());
+        upsert(DonationLedgerEntry.Source.NGO_PROJECT, donation.getProjectDonationId(),
+                null, donation.getNgoId(), null, donation.getProjectId(), donation.getTransactionId(),
+                donation.getAmount(), name(donation.getPaymentStatus()), name(donation.getDonationType()),
+                Donation.DonationPurpose.SCHOOL_PROJECT.name(),
+                donation.getDonatedAt() != null ? donation.getDonatedAt() : donation.getCreatedAt(),
+                donation.getPaymentCompletedAt());
+        projectFundBalanceService.syncWithLedger(DonationLedgerEntry.Source.NGO_PROJECT, donation.getProjectDonationId());
+        publishReversal(previous);
+    }
+
+    // The ledger mirrors the source tables, so a deleted donation leaves the reports as well
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(DonationLedgerEntry.Source source, Integer sourceDonationId) {
+        DonationCompletedEvent previous = lockCompleted(source, sourceDonationId);
+        jdbcTemplate.update("DELETE FROM donation_ledger WHERE source = ? AND source_donation_id = ?",
+                source.name(), sourceDonationId);
+        projectFundBalanceService.syncWithLedger(source, sourceDonationId);
+        publishReversal(previous);
+    }
+
+    /**
+     * Copy every existing donation into the ledger; idempotent, rows already present are refreshed
+     */
+    @Transactional
+    public Map<String, Object> backfill() {
+        long start = System.currentTimeMillis();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String onDuplicate = " ON DUPLICATE KEY UPDATE donor_id = VALUES(donor_id), ngo_id = VALUES(ngo_id), " +
+                "student_id = VALUES(student_id), project_id = VALUES(project_id), school_id = VALUES(school_id), " +
+                "transaction_id = VALUES(transaction_id), amount = VALUES(amount), payment_status = VALUES(payment_status), " +
+                "donation_type = VALUES(donation_type), purpose = VALUES(purpose), donated_at = VALUES(donated_at), " +
+                "payment_completed_at = VALUES(payment_completed_at), updated_at = VALUES(updated_at)";
+
+        int donor = jdbcTemplate.update(
+                "INSERT INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id, " +
+                "transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at) " +
+                "SELECT 'DONOR', d.donation_id, d.donor_id, NULL, d.student_id, d.project_id, COALESCE(sp.school_id, s.school_id), " +
+                "d.transaction_id, d.amount, d.payment_status, d.donation_type, d.purpose, COALESCE(d.donated_at, d.created_at), " +
+                "d.payment_completed_at, ?, ? " +
+                "FROM donations d " +
+                "LEFT JOIN school_projects sp ON d.project_id = sp.project_id " +
+                "LEFT JOIN students s ON d.student_id = s.student_id" + onDuplicate, now, now);
+
+        int ngoStudent = jdbcTemplate.update(
+                "INSERT INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id, " +
+                "transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at) " +
+                "SELECT 'NGO_STUDENT', nsd.student_donation_id, NULL, nsd.ngo_id, nsd.student_id, NULL, s.school_id, " +
+                "nsd.transaction_id, nsd.amount, nsd.payment_status, nsd.donation_type, 'STUDENT_SPONSORSHIP', " +
+                "COALESCE(nsd.donated_at, nsd.created_at, ?), nsd.payment_completed_at, ?, ? " +
+                "FROM ngo_student_donations nsd " +
+                "LEFT JOIN students s ON nsd.student_id = s.student_id" + onDuplicate, now, now, now);
+
+        int ngoProject = jdbcTemplate.update(
+                "INSERT INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id, " +
+                "transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at) " +
+                "SELECT 'NGO_PROJECT', npd.project_donation_id, NULL, npd.ngo_id, NULL, npd.project_id, sp.school_id, " +
+                "npd.transaction_id, npd.amount, npd.payment_status, npd.donation_type, 'SCHOOL_PROJECT', " +
+                "COALESCE(npd.donated_at, npd.created_at, ?), npd.payment_completed_at, ?, ? " +
+                "FROM ngo_project_donations npd " +
+                "LEFT JOIN school_projects sp ON npd.project_id = sp.project_id" + onDuplicate, now, now, now);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("donor", donor);
+        result.put("ngoStudent", ngoStudent);
+        result.put("ngoProject", ngoProject);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        log.info("Donation ledger backfill: {}", result);
+        return result;
+    }
+
+    // Only rows that are already COMPLETED are locked, so inserting a new donation takes no gap lock
+    private DonationCompletedEvent lockCompleted(DonationLedgerEntry.Source source, Integer sourceDonationId) {
+        if (sourceDonationId == null || findCompleted(source, sourceDonationId, "") == null) {
+            return null;
+        }
+        return findCompleted(source, sourceDonationId, " FOR UPDATE");
+    }
+
+    /**
+     * Withdraw what the outbox subscribers counted for a completed donation once its row changed;
+     * a donation still completed with a new amount or target is re-published with the new values
+     */
+    private void publishReversal(DonationCompletedEvent previous) {
+        if (previous == null) {
+            return;
+        }
+        DonationCompletedEvent current = findCompleted(
+                DonationLedgerEntry.Source.valueOf(previous.getSource()), previous.getDonationId(), "");
+        if (current != null && Objects.equals(previous.getDonorId(), current.getDonorId())
+                && Objects.equals(previous.getNgoId(), current.getNgoId())
+                && Objects.equals(previous.getStudentId(), current.getStudentId())
+                && Objects.equals(previous.getProjectId(), current.getProjectId())
+                && previous.getAmount().compareTo(current.getAmount()) == 0) {
+            return;
+        }
+        previous.setReversal(true);
+        outboxService.publishDonationCompleted(previous);
+        if (current != null) {
+            outboxService.publishDonationCompleted(current);
+        }
+    }
+
+    private DonationCompletedEvent findCompleted(DonationLedgerEntry.Source source, Integer sourceDonationId, String lock) {
+        return jdbcTemplate.query(
+                "SELECT donor_id, ngo_id, student_id, project_id, transaction_id, amount, purpose, payment_completed_at " +
+                "FROM donation_ledger WHERE source = ? AND source_donation_id = ? AND payment_status = 'COMPLETED'" + lock,
+                rs -> rs.next() ? DonationCompletedEvent.builder()
+                        .source(source.name())
+                        .donationId(sourceDonationId)
+                        .donorId(rs.getObject("donor_id", Integer.class))
+                        .ngoId(rs.getObject("ngo_id", Integer.class))
+                        .studentId(rs.getObject("student_id", Integer.class))
+                        .projectId(rs.getObject("project_id", Integer.class))
+                        .transactionId(rs.getObject("transaction_id", Integer.class))
+                        .amount(rs.getBigDecimal("amount"))
+                        .purpose(rs.getString("purpose"))
+                        .completedAt(rs.getTimestamp("payment_completed_at") != null
+                                ? rs.getTimestamp("payment_completed_at").toLocalDateTime() : LocalDateTime.now())
+                        .build() : null,
+                source.name(), sourceDonationId);
+    }
+
+    private Object[] donorDonationArgs(Donation donation) {
+        return upsertArgs(DonationLedgerEntry.Source.DONOR, donation.getDonationId(),
+                donation.getDonor() != null ? donation.getDonor().getDonorId() : null, null,
+                donation.getStudent() != null ? donation.getStudent().getStudentId() : null,
+                donation.getProject() != null ? donation.getProject().getProjectId() : null,
+                donation.getTransaction() != null ? donation.getTransaction().getTransactionId() : null,
+                donation.getAmount(), name(donation.getPaymentStatus()), name(donation.getDonationType()),
+                name(donation.getPurpose()),
+                donation.getDonatedAt() != null ? donation.getDonatedAt() : donation.getCreatedAt(),
+                donation.getPaymentCompletedAt());
+    }
+
+    private void upsert(DonationLedgerEntry.Source source, Integer sourceDonationId, Integer donorId, Integer ngoId,
+                        Integer studentId, Integer projectId, Integer transactionId, BigDecimal amount,
+                        String paymentStatus, String donationType, String purpose,
+                        LocalDateTime donatedAt, LocalDateTime paymentCompletedAt) {
+        jdbcTemplate.update(UPSERT, upsertArgs(source, sourceDonationId, donorId, ngoId, studentId, projectId,
+                transactionId, amount, paymentStatus, donationType, purpose, donatedAt, paymentCompletedAt));
+    }
+
+    private Object[] upsertArgs(DonationLedgerEntry.Source source, Integer sourceDonationId, Integer donorId, Integer ngoId,
+                                Integer studentId, Integer projectId, Integer transactionId, BigDecimal amount,
+                                String paymentStatus, String donationType, String purpose,
+                                LocalDateTime donatedAt, LocalDateTime paymentCompletedAt) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return new Object[]{
+                source.name(), sourceDonationId, donorId, ngoId, studentId, projectId,
+                projectId, studentId,
+                transactionId, amount, paymentStatus, donationType, purpose,
+                donatedAt != null ? Timestamp.valueOf(donatedAt) : now,
+                paymentCompletedAt != null ? Timestamp.valueOf(paymentCompletedAt) : null,
+                now, now};
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
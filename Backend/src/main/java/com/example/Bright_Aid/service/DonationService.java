@@ -1,6 +1,8 @@
 package com.example.Bright_Aid.service;
 
 import com.example.Bright_Aid.Entity.*;
+import com.example.Bright_Aid.Dto.CursorPageDto;
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
 import com.example.Bright_Aid.Dto.DonationDto;
 import com.example.Bright_Aid.repository.*;
 import org.springframework.stereotype.Service;
@@ -22,32 +24,29 @@ public class DonationService {
     private final SchoolProjectRepository schoolProjectRepository;
     private final StudentRepository studentRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
-    private final NgoGamificationService ngoGamificationService;
     private final NgoStudentDonationsRepository ngoStudentDonationsRepository;
     private final NgoProjectDonationsRepository ngoProjectDonationsRepository;
-    private final StudentService studentService;
-    private final ScholarshipStatusService scholarshipStatusService;
+    private final OutboxService outboxService;
+    private final DonationLedgerService donationLedgerService;
 
     public DonationService(DonationRepository donationRepository,
                            DonorRepository donorRepository,
                            SchoolProjectRepository schoolProjectRepository,
                            StudentRepository studentRepository,
                            PaymentTransactionRepository paymentTransactionRepository,
-                           NgoGamificationService ngoGamificationService,
                            NgoStudentDonationsRepository ngoStudentDonationsRepository,
                            NgoProjectDonationsRepository ngoProjectDonationsRepository,
-                           StudentService studentService,
-                           ScholarshipStatusService scholarshipStatusService) {
+                           OutboxService outboxService,
+                           DonationLedgerService donationLedgerService) {
         this.donationRepository = donationRepository;
         this.donorRepository = donorRepository;
         this.schoolProjectRepository = schoolProjectRepository;
         this.studentRepository = studentRepository;
         this.paymentTransactionRepository = paymentTransactionRepository;
-        this.ngoGamificationService = ngoGamificationService;
         this.ngoStudentDonationsRepository = ngoStudentDonationsRepository;
         this.ngoProjectDonationsRepository = ngoProjectDonationsRepository;
-        this.studentService = studentService;
-        this.scholarshipStatusService = scholarshipStatusService;
+        this.outboxService = outboxService;
+        this.donationLedgerService = donationLedgerService;
     }
 
     // Create or update Donation
@@ -74,6 +73,7 @@ public class DonationService {
         }
 
         Donation donation;
+        Donation.PaymentStatus previousStatus = null;
         if (donationDto.getDonationId() != null && donationDto.getDonationId() > 0) {
             // Try to update existing donation, create new if not found
             donation = donationRepository.findById(donationDto.getDonationId())
@@ -81,6 +81,7 @@ public class DonationService {
             
             if (donation != null) {
                 // Update existing donation
+                previousStatus = donation.getPaymentStatus();
                 donation.setDonor(donor);
                 donation.setProject(project);
                 donation.setStudent(student);
@@ -138,23 +139,10 @@ public class DonationService {
         }
 
         Donation saved = donationRepository.save(donation);
+        donationLedgerService.recordDonorDonation(saved);
         
-        // Mark student as sponsored if this is a completed student sponsorship
-        if (saved.getPaymentStatus() == Donation.PaymentStatus.COMPLETED && 
-            saved.getStudent() != null && 
-            saved.getPurpose() == Donation.DonationPurpose.STUDENT_SPONSORSHIP) {
-            try {
-                System.out.println("Marking student " + saved.getStudent().getStudentId() + " as sponsored after completed donation");
-                studentService.markStudentAsSponsored(saved.getStudent().getStudentId());
-                // Update scholarship status for all students after donation completion
-                scholarshipStatusService.updateScholarshipStatus();
-            } catch (Exception e) {
-                System.err.println("Failed to mark student as sponsored: " + e.getMessage());
-            }
-        }
-        
-        // Update NGO gamification if this is an NGO donation
-        updateNgoGamificationIfNeeded(saved);
+        // Scholarship status, points and other side effects run from the outbox
+        publishIfCompleted(previousStatus, saved);
         
         return mapToDto(saved);
     }
@@ -179,6 +167,7 @@ public class DonationService {
             throw new RuntimeException("Donation not found");
         }
         donationRepository.deleteById(donationId);
+        donationLedgerService.remove(DonationLedgerEntry.Source.DONOR, donationId);
     }
 
     // Update payment status
@@ -186,31 +175,16 @@ public class DonationService {
         Donation donation = donationRepository.findById(donationId)
                 .orElseThrow(() -> new RuntimeException("Donation not found"));
 
+        Donation.PaymentStatus previousStatus = donation.getPaymentStatus();
         donation.setPaymentStatus(paymentStatus);
         if (paymentStatus == Donation.PaymentStatus.COMPLETED) {
             donation.setPaymentCompletedAt(LocalDateTime.now());
         }
 
         Donation saved = donationRepository.save(donation);
+        donationLedgerService.recordDonorDonation(saved);
         
-        // Mark student as sponsored if this is a completed student sponsorship
-        if (paymentStatus == Donation.PaymentStatus.COMPLETED && 
-            saved.getStudent() != null && 
-            saved.getPurpose() == Donation.DonationPurpose.STUDENT_SPONSORSHIP) {
-            try {
-                System.out.println("Marking student " + saved.getStudent().getStudentId() + " as sponsored after payment completion");
-                studentService.markStudentAsSponsored(saved.getStudent().getStudentId());
-                // Update scholarship status for all students after payment completion
-                scholarshipStatusService.updateScholarshipStatus();
-            } catch (Exception e) {
-                System.err.println("Failed to mark student as sponsored: " + e.getMessage());
-            }
-        }
-        
-        // Update NGO gamification if payment completed
-        if (paymentStatus == Donation.PaymentStatus.COMPLETED) {
-            updateNgoGamificationIfNeeded(saved);
-        }
+        publishIfCompleted(previousStatus, saved);
         
         return mapToDto(saved);
     }
@@ -234,12 +208,57 @@ public class DonationService {
 
     // Get donations by donor ID with transaction details and proper ordering (recent first)
     public List<DonationDto> getDonationsByDonorWithDetails(Integer donorId) {
-        List<Object[]> results = donationRepository.findDonationsByDonorWithDetailsOrderByDateDesc(donorId);
+        return getDonationsByDonorWithDetails(donorId, false);
+    }
+
+    // includeArchived also reads donations moved to donations_archive by the archival job
+    public List<DonationDto> getDonationsByDonorWithDetails(Integer donorId, boolean includeArchived) {
+        List<Object[]> results = includeArchived
+                ? donationRepository.findDonationsByDonorWithDetailsIncludingArchive(donorId)
+                : donationRepository.findDonationsByDonorWithDetailsOrderByDateDesc(donorId);
         return results.stream()
                 .map(this::mapResultToDto)
                 .collect(Collectors.toList());
     }
 
+    // Cursor-paginated donor history (recent first); the cursor is "<effective_date>_<donation_id>" of the last row
+    public CursorPageDto<DonationDto> getDonorHistory(Integer donorId, String cursor, int size, boolean includeArchived) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        List<Object[]> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = includeArchived
+                    ? donationRepository.findDonorHistoryFirstPageIncludingArchive(donorId, pageSize + 1)
+                    : donationRepository.findDonorHistoryFirstPage(donorId, pageSize + 1);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            LocalDateTime cursorDate;
+            Integer cursorId;
+            try {
+                cursorDate = LocalDateTime.parse(cursor.substring(0, separator));
+                cursorId = Integer.valueOf(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+            rows = includeArchived
+                    ? donationRepository.findDonorHistoryAfterIncludingArchive(donorId, cursorDate, cursorId, pageSize + 1)
+                    : donationRepository.findDonorHistoryAfter(donorId, cursorDate, cursorId, pageSize + 1);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Object[]> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = page.get(page.size() - 1);
+            nextCursor = ((java.sql.Timestamp) last[18]).toLocalDateTime() + "_" + last[0];
+        }
+        return CursorPageDto.<DonationDto>builder()
+                .items(page.stream().map(this::mapResultToDto).collect(Collectors.toList()))
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     // Map Donation entity to DTO
     private DonationDto mapToDto(Donation donation) {
         return DonationDto.builder()
@@ -319,11 +338,23 @@ public class DonationService {
         return donationRepository.getTotalDonationByDonorForProject(donorId, projectId);
     }
     
-    // Update NGO gamification if this donation is from an NGO
-    private void updateNgoGamificationIfNeeded(Donation donation) {
-        // NGO donations are handled separately through NgoStudentDonationsService and NgoProjectDonationsService
-        // This method is kept for potential future use but currently not needed
-        // since NGO donations don't go through the main donations table directly
+    // Only the transition into COMPLETED is published, so repeated saves do not re-trigger side effects
+    private void publishIfCompleted(Donation.PaymentStatus previousStatus, Donation donation) {
+        if (donation.getPaymentStatus() != Donation.PaymentStatus.COMPLETED
+                || previousStatus == Donation.PaymentStatus.COMPLETED) {
+            return;
+        }
+        outboxService.publishDonationCompleted(DonationCompletedEvent.builder()
+                .source(DonationCompletedEvent.SOURCE_DONOR)
+                .donationId(donation.getDonationId())
+                .donorId(donation.getDonor().getDonorId())
+                .studentId(donation.getStudent() != null ? donation.getStudent().getStudentId() : null)
+                .projectId(donation.getProject() != null ? donation.getProject().getProjectId() : null)
+                .transactionId(donation.getTransaction() != null ? donation.getTransaction().getTransactionId() : null)
+                .amount(donation.getAmount())
+                .purpose(donation.getPurpose() != null ? donation.getPurpose().name() : null)
+                .completedAt(donation.getPaymentCompletedAt() != null ? donation.getPaymentCompletedAt() : LocalDateTime.now())
+                .build());
     }
 
     // Get all donations from all sources (donors + NGOs) for a specific school
@@ -334,30 +365,6 @@ public class DonationService {
                 .collect(Collectors.toList());
     }
 
-    // Get school reporting statistics using existing methods
-    public Map<String, Object> getSchoolReportingStats(Integer schoolId) {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Get basic donation statistics from existing methods
-        List<DonationDto> allDonations = getAllDonationsBySchool(schoolId);
-        double totalReceived = allDonations.stream()
-                .filter(d -> d.getPaymentStatus() == Donation.PaymentStatus.COMPLETED)
-                .mapToDouble(d -> d.getAmount().doubleValue())
-                .sum();
-        
-        stats.put("totalReceived", totalReceived);
-        stats.put("totalDonations", allDonations.size());
-        stats.put("completedAmount", totalReceived);
-        
-        // Basic placeholder values for other stats
-        stats.put("totalStudents", 0);
-        stats.put("highRiskStudents", 0);
-        stats.put("totalProjects", 0);
-        stats.put("purposeBreakdown", new HashMap<String, Double>());
-        
-        return stats;
-    }
-
     // Map all sources donation native query result to DTO
     private DonationDto mapAllSourcesDonationResultToDto(Object[] result) {
         return DonationDto.builder()
@@ -375,28 +382,6 @@ public class DonationService {
                 .build();
     }
 
-    // Get available donations for a project with remaining amounts calculated dynamically
-    public List<com.example.Bright_Aid.Dto.AvailableDonationDto> getAvailableDonationsForProject(Integer projectId) {
-        List<Object[]> results = donationRepository.findAvailableDonationsForProject(projectId);
-        return results.stream()
-                .map(this::mapToAvailableDonationDto)
-                .collect(Collectors.toList());
-    }
-
-    // Map native query result to AvailableDonationDto
-    // Query returns: donation_id, donor_name, amount, utilized_amount, remaining_amount, donated_at, source
-    private com.example.Bright_Aid.Dto.AvailableDonationDto mapToAvailableDonationDto(Object[] result) {
-        return com.example.Bright_Aid.Dto.AvailableDonationDto.builder()
-                .donationId((Integer) result[0])
-                .donorName((String) result[1])
-                .amount(result[2] != null ? new BigDecimal(result[2].toString()) : BigDecimal.ZERO)
-                .utilizedAmount(result[3] != null ? new BigDecimal(result[3].toString()) : BigDecimal.ZERO)
-                .remainingAmount(result[4] != null ? new BigDecimal(result[4].toString()) : BigDecimal.ZERO)
-                .donatedAt(result[5] != null ? ((java.sql.Timestamp) result[5]).toLocalDateTime() : null)
-                .source((String) result[6])
-                .build();
-    }
-
     // AI FIX: Get all donations for a specific project (for analytics)
     public List<DonationDto> getDonationsByProject(Integer projectId) {
         List<Donation> donations = donationRepository.findAll();
@@ -2,10 +2,10 @@ package com.example.Bright_Aid.service;
 
 import com.example.Bright_Aid.Dto.DonorGamificationDto;
 import com.example.Bright_Aid.Entity.Donor;
+import com.example.Bright_Aid.Entity.DonorDonationTotals;
 import com.example.Bright_Aid.Entity.DonorGamification;
 import com.example.Bright_Aid.repository.DonorGamificationRepository;
 import com.example.Bright_Aid.repository.DonorRepository;
-import com.example.Bright_Aid.repository.DonationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,7 +24,7 @@ public class DonorGamificationService {
 
     private final DonorGamificationRepository donorGamificationRepository;
     private final DonorRepository donorRepository;
-    private final DonationRepository donationRepository;
+    private final DonationAggregateService donationAggregateService;
 
     public List<DonorGamificationDto> getAllDonorGamification() {
         return donorGamificationRepository.findAll().stream()
@@ -100,24 +100,19 @@ public class DonorGamificationService {
     public Map<String, Object> getDonorStats(Integer donorId) {
         Map<String, Object> stats = new java.util.HashMap<>();
         
-        // Get actual donation statistics from donations table
-        BigDecimal totalDonated = donationRepository.getTotalDonatedByDonor(donorId);
-        stats.put("totalDonated", totalDonated != null ? totalDonated.doubleValue() : 0.0);
+        // Completed-donation totals are read from the donor_donation_totals aggregate
+        DonorDonationTotals totals = donationAggregateService.getDonorTotals(donorId);
+        stats.put("totalDonated", totals.getTotalDonated().doubleValue());
         
         // Get unique schools count
         Integer uniqueSchools = getUniqueSchoolsCountByDonor(donorId);
         stats.put("totalSchoolsSupported", uniqueSchools != null ? uniqueSchools : 0);
         
         // Count unique students sponsored (distinct students only, excluding duplicates)
-        Long studentsSponsored = donationRepository.countDistinctStudentsByDonorAndPaymentStatus(
-            donorId, com.example.Bright_Aid.Entity.Donation.PaymentStatus.COMPLETED);
-        System.out.println("DEBUG: Unique students sponsored for donor " + donorId + ": " + studentsSponsored);
-        stats.put("totalStudentsSponsored", studentsSponsored != null ? studentsSponsored.intValue() : 0);
+        stats.put("totalStudentsSponsored", totals.getStudentsSponsored());
         
         // Count distinct projects donated to (unique projects only)
-        Long projectsDonated = donationRepository.countDistinctProjectsByDonorAndPaymentStatus(
-            donorId, com.example.Bright_Aid.Entity.Donation.PaymentStatus.COMPLETED);
-        stats.put("totalProjectsDonated", projectsDonated != null ? projectsDonated.intValue() : 0);
+        stats.put("totalProjectsDonated", totals.getProjectsSupported());
         
         // Get gamification data if exists
         DonorGamification gamification = donorGamificationRepository.findByDonorDonorId(donorId)
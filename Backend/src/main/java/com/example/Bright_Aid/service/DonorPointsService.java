@@ -0,0 +1,105 @@
+package com.example.Bright_Aid.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Donor points awarding
+ * Every award is appended to donor_points_ledger (unique per transaction) and added to
+ * donor_gamification.total_points with an atomic increment, so concurrent settlements for the
+ * same donor never lose updates; badges are only rewritten when a threshold is crossed
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DonorPointsService {
+
+    // Automatic Point System: 1 BDT = 5 Points (৳100 = 500 points)
+    private static final int POINTS_PER_BDT = 5;
+
+    private static final int[] BADGE_THRESHOLDS = {500, 2500, 5000, 10000, 25000, 50000};
+    private static final String[] BADGE_NAMES = {
+            "First Donor",        // ৳100
+            "Generous Heart",     // ৳500
+            "Education Champion", // ৳1,000
+            "School Builder",     // ৳2,000
+            "Community Hero",     // ৳5,000
+            "BrightAid Legend"    // ৳10,000
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Award points for a settled payment; returns false when this transaction was already credited
+     */
+    @Transactional
+    public boolean awardPointsForDonation(Integer donorId, Integer transactionId, BigDecimal amount) {
+        // Convert to int first, then multiply by 5 for exact calculation
+        int points = amount.intValue() * POINTS_PER_BDT;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int inserted = jdbcTemplate.update(
+                "INSERT IGNORE INTO donor_points_ledger (donor_id, transaction_id, points, amount, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)",
+                donorId, transactionId, points, amount, now);
+        if (inserted == 0) {
+            log.info("Points for transaction {} already awarded, skipping", transactionId);
+            return false;
+        }
+
+        jdbcTemplate.update(
+                "INSERT INTO donor_gamification (donor_id, total_points, impact_score, badges_earned, last_updated) " +
+                "VALUES (?, ?, 0, JSON_ARRAY(), ?) " +
+                "ON DUPLICATE KEY UPDATE total_points = total_points + VALUES(total_points), last_updated = VALUES(last_updated)",
+                donorId, points, now);
+
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT total_points FROM donor_gamification WHERE donor_id = ?", Integer.class, donorId);
+        if (total != null && crossesThreshold(total - points, total)) {
+            updateBadges(donorId, total);
+        }
+        return true;
+    }
+
+    public List<String> calculateBadges(int totalPoints) {
+        List<String> badges = new ArrayList<>();
+        for (int i = 0; i < BADGE_THRESHOLDS.length; i++) {
+            if (totalPoints >= BADGE_THRESHOLDS[i]) {
+                badges.add(BADGE_NAMES[i]);
+            }
+        }
+        return badges;
+    }
+
+    private boolean crossesThreshold(int previousTotal, int newTotal) {
+        for (int threshold : BADGE_THRESHOLDS) {
+            if (previousTotal < threshold && newTotal >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Recomputed from the committed total, so concurrent crossings converge on the same badge list
+    private void updateBadges(Integer donorId, int total) {
+        try {
+            jdbcTemplate.update(
+                    "UPDATE donor_gamification SET badges_earned = CAST(? AS JSON) WHERE donor_id = ?",
+                    objectMapper.writeValueAsString(calculateBadges(total)), donorId);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialise badges for donor " + donorId, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Awards donor points for completed donations that were paid through a payment transaction
+// Reversals are skipped: points already earned are not clawed back
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class DonorPointsSubscriber implements DonationCompletedSubscriber {
+
+    private final DonorPointsService donorPointsService;
+
+    @Override
+    public String name() {
+        return "donor-points";
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        for (DonationCompletedEvent event : events) {
+            if (!event.isReversal() && DonationCompletedEvent.SOURCE_DONOR.equals(event.getSource())
+                    && event.getDonorId() != null && event.getTransactionId() != null) {
+                donorPointsService.awardPointsForDonation(event.getDonorId(), event.getTransactionId(), event.getAmount());
+            }
+        }
+    }
+}
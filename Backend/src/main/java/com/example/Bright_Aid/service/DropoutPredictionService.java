@@ -6,7 +6,11 @@ import com.example.Bright_Aid.Entity.Student;
 import com.example.Bright_Aid.repository.DropoutPredictionRepository;
 import com.example.Bright_Aid.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,12 +18,15 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DropoutPredictionService {
 
     private final DropoutPredictionRepository repository;
     private final StudentRepository studentRepository;
+    private final SponsorshipMatchingService sponsorshipMatchingService;
 
     // Create prediction with automatic risk calculation using native query
+    @Transactional
     public DropoutPredictionDto createPrediction(Integer studentId, Double attendanceRate) {
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found with id: " + studentId));
@@ -35,7 +42,11 @@ public class DropoutPredictionService {
                 .lastCalculated(LocalDateTime.now())
                 .build();
         
-        return DropoutPredictionDto.fromEntity(repository.save(prediction));
+        DropoutPredictionDto saved = DropoutPredictionDto.fromEntity(repository.saveAndFlush(prediction));
+        studentRepository.refreshLatestRisk(List.of(studentId));
+        // A new prediction can move the student in the sponsorship ranking
+        sponsorshipMatchingService.refreshStudents(List.of(studentId));
+        return saved;
     }
 
     // Get all predictions
@@ -62,6 +73,7 @@ public class DropoutPredictionService {
     }
 
     // Update prediction
+    @Transactional
     public DropoutPredictionDto updatePrediction(Integer id, Double attendanceRate) {
         DropoutPrediction prediction = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Prediction not found with id: " + id));
@@ -74,14 +86,30 @@ public class DropoutPredictionService {
         prediction.setRiskStatus(riskStatus);
         prediction.setLastCalculated(LocalDateTime.now());
         
-        return DropoutPredictionDto.fromEntity(repository.save(prediction));
+        DropoutPredictionDto saved = DropoutPredictionDto.fromEntity(repository.saveAndFlush(prediction));
+        studentRepository.refreshLatestRisk(List.of(prediction.getStudent().getStudentId()));
+        sponsorshipMatchingService.refreshStudents(List.of(prediction.getStudent().getStudentId()));
+        return saved;
     }
 
     // Delete prediction
+    @Transactional
     public void deletePrediction(Integer id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Prediction not found with id: " + id);
+        DropoutPrediction prediction = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Prediction not found with id: " + id));
+        repository.delete(prediction);
+        repository.flush();
+        studentRepository.refreshLatestRisk(List.of(prediction.getStudent().getStudentId()));
+        sponsorshipMatchingService.refreshStudents(List.of(prediction.getStudent().getStudentId()));
+    }
+
+    // Backfill the latest-risk snapshot for students whose predictions predate the snapshot columns
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillLatestRisk() {
+        if (studentRepository.countMissingLatestRisk() > 0) {
+            int updated = studentRepository.refreshAllLatestRisk();
+            log.info("Backfilled latest risk snapshot for {} students", updated);
         }
-        repository.deleteById(id);
     }
-}
\ No newline at end of file
+}
@@ -7,10 +7,10 @@ import com.example.Bright_Aid.Dto.CreateTransparencyDto;
 import com.example.Bright_Aid.Entity.FundUtilization;
 import com.example.Bright_Aid.Entity.FundTransparency;
 import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
 import com.example.Bright_Aid.Entity.SchoolProject;
 import com.example.Bright_Aid.repository.FundUtilizationRepository;
 import com.example.Bright_Aid.repository.FundTransparencyRepository;
-import com.example.Bright_Aid.repository.DonationRepository;
 import com.example.Bright_Aid.repository.SchoolProjectRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -25,10 +25,10 @@ public class FundUtilizationService {
 
     private final FundUtilizationRepository fundUtilizationRepository;
     private final FundTransparencyRepository fundTransparencyRepository;
-    private final DonationRepository donationRepository;
     private final SchoolProjectRepository schoolProjectRepository;
     private final DonationService donationService;
     private final SchoolProjectService schoolProjectService;
+    private final ProjectFundBalanceService projectFundBalanceService;
 
     public List<FundUtilizationDto> getFundUtilizationByDonor(Integer donorId) {
         List<FundUtilization> utilizations = fundUtilizationRepository.findByDonorId(donorId);
@@ -98,10 +98,16 @@ public class FundUtilizationService {
             // Set project reference using builder to avoid loading full entity
             utilization.setProject(SchoolProject.builder().projectId(dto.getProjectId()).build());
             
-            // FIX: Only set donation relationship if donationId is valid
+            // Draw from the chosen donation's balance; fails instead of over-drawing under concurrent allocations
             if (dto.getDonationId() != null && dto.getDonationId() > 0) {
-                if (donationRepository.existsById(dto.getDonationId())) {
+                DonationLedgerEntry.Source source = dto.getDonationSource() != null
+                        ? DonationLedgerEntry.Source.valueOf(dto.getDonationSource().toUpperCase())
+                        : DonationLedgerEntry.Source.DONOR;
+                projectFundBalanceService.consume(source, dto.getDonationId(), dto.getProjectId(), dto.getAmountUsed());
+                if (source == DonationLedgerEntry.Source.DONOR) {
                     utilization.setDonation(Donation.builder().donationId(dto.getDonationId()).build());
+                } else {
+                    utilization.setNgoProjectDonationId(dto.getDonationId());
                 }
             }
             
@@ -131,7 +137,10 @@ public class FundUtilizationService {
     private FundUtilizationDto convertToBasicDto(FundUtilization utilization) {
         return FundUtilizationDto.builder()
                 .utilizationId(utilization.getUtilizationId())
-                .donationId(utilization.getDonation() != null ? utilization.getDonation().getDonationId() : null)
+                .donationId(utilization.getDonation() != null ? utilization.getDonation().getDonationId()
+                        : utilization.getNgoProjectDonationId())
+                .donationSource(utilization.getDonation() != null ? DonationLedgerEntry.Source.DONOR.name()
+                        : utilization.getNgoProjectDonationId() != null ? DonationLedgerEntry.Source.NGO_PROJECT.name() : null)
                 .projectId(utilization.getProject() != null ? utilization.getProject().getProjectId() : null)
                 .amountUsed(utilization.getAmountUsed())
                 .specificPurpose(utilization.getSpecificPurpose())
@@ -149,7 +158,10 @@ public class FundUtilizationService {
     private FundUtilizationDto convertToDto(FundUtilization utilization) {
         FundUtilizationDto dto = FundUtilizationDto.builder()
                 .utilizationId(utilization.getUtilizationId())
-                .donationId(utilization.getDonation() != null ? utilization.getDonation().getDonationId() : null)
+                .donationId(utilization.getDonation() != null ? utilization.getDonation().getDonationId()
+                        : utilization.getNgoProjectDonationId())
+                .donationSource(utilization.getDonation() != null ? DonationLedgerEntry.Source.DONOR.name()
+                        : utilization.getNgoProjectDonationId() != null ? DonationLedgerEntry.Source.NGO_PROJECT.name() : null)
                 .projectId(utilization.getProject() != null ? utilization.getProject().getProjectId() : null)
                 .amountUsed(utilization.getAmountUsed())
                 .specificPurpose(utilization.getSpecificPurpose())
@@ -216,6 +228,7 @@ public class FundUtilizationService {
     }
     
     // Method to create sample fund utilization data for testing
+    @Transactional
     public void createSampleFundUtilizationData() {
         try {
             // Get some existing donations and projects to create sample utilizations
@@ -249,6 +262,8 @@ public class FundUtilizationService {
                     utilization.setDonation(Donation.builder().donationId(donation.getDonationId()).build());
                     utilization.setProject(SchoolProject.builder().projectId(donation.getProjectId()).build());
                     
+                    projectFundBalanceService.consume(DonationLedgerEntry.Source.DONOR, donation.getDonationId(),
+                            donation.getProjectId(), utilization.getAmountUsed());
                     fundUtilizationRepository.save(utilization);
                 }
             }
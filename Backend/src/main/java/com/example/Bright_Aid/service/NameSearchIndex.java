@@ -0,0 +1,325 @@
+package com.example.Bright_Aid.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram index over person and school names
+ * Names are transliterated from Bangla script to Latin and folded phonetically (aspirates, vowel
+ * variants, doubled letters), so "রহিম", "Raheem" and "Rahim" index the same way. Each folded token is
+ * indexed by its trigrams and its one- and two-letter prefixes; a query token matches a name token
+ * exactly, as a prefix, or by trigram similarity, and every query token has to match.
+ */
+public class NameSearchIndex {
+
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Hit(Integer id, double score) {
+    }
+
+    public record Result(int total, List<Hit> hits) {
+    }
+
+    private record Doc(String name, List<String> tokens, Integer group) {
+    }
+
+    /**
+     * Add or replace a document; group is an optional filter key (e.g. a student's school)
+     */
+    public void put(Integer id, String name, Integer group) {
+        Doc doc = new Doc(name, tokens(name), group);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            docs.put(id, doc);
+            for (String key : keys(doc.tokens())) {
+                postings.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked matches for a query: best similarity first, then shorter names, then lower ids
+     */
+    public Result search(String query, Integer group, int offset, int limit) {
+        List<String> queryTokens = tokens(query);
+        if (queryTokens.isEmpty()) {
+            return new Result(0, List.of());
+        }
+        // The longest token is the most selective one to draw candidates from
+        String driver = queryTokens.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+
+        List<Hit> hits = new ArrayList<>();
+        Map<Integer, String> names = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Integer id : candidates(driver)) {
+                Doc doc = docs.get(id);
+                if (doc == null || (group != null && !group.equals(doc.group()))) {
+                    continue;
+                }
+                double score = score(queryTokens, doc.tokens());
+                if (score > 0) {
+                    hits.add(new Hit(id, score));
+                    names.put(id, doc.name());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingInt(hit -> names.get(hit.id()).length())
+                .thenComparing(Hit::id));
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new Result(hits.size(), List.copyOf(hits.subList(from, to)));
+    }
+
+    private void removeLocked(Integer id) {
+        Doc previous = docs.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String key : keys(previous.tokens())) {
+            Set<Integer> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    // Caller holds the read lock
+    private Set<Integer> candidates(String token) {
+        if (token.length() <= 2) {
+            return postings.getOrDefault("p:" + token, Set.of());
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (String gram : grams("^" + token)) {
+            ids.addAll(postings.getOrDefault(gram, Set.of()));
+        }
+        return ids;
+    }
+
+    // Mean of the best match of each query token, or 0 when any query token matches nothing
+    private static double score(List<String> queryTokens, List<String> docTokens) {
+        double total = 0;
+        for (String queryToken : queryTokens) {
+            double best = 0;
+            for (String docToken : docTokens) {
+                best = Math.max(best, similarity(queryToken, docToken));
+            }
+            if (best < MIN_SIMILARITY) {
+                return 0;
+            }
+            total += best;
+        }
+        return total / queryTokens.size();
+    }
+
+    private static double similarity(String query, String token) {
+        if (token.equals(query)) {
+            return 1.0;
+        }
+        if (token.startsWith(query)) {
+            return 0.9;
+        }
+        if (query.length() <= 2) {
+            return 0;
+        }
+        double whole = dice(grams("^" + query + "$"), grams("^" + token + "$"));
+        // A misspelt prefix of a longer name, e.g. while the user is still typing
+        double prefix = token.length() > query.length()
+                ? 0.8 * dice(grams("^" + query), grams("^" + token.substring(0, query.length())))
+                : 0;
+        return Math.max(whole, prefix);
+    }
+
+    private static double dice(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String gram : a) {
+            if (b.contains(gram)) {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (a.size() + b.size());
+    }
+
+    private static Set<String> keys(List<String> tokens) {
+        Set<String> keys = new HashSet<>();
+        for (String token : tokens) {
+            keys.addAll(grams("^" + token + "$"));
+            keys.add("p:" + token.substring(0, 1));
+            if (token.length() > 1) {
+                keys.add("p:" + token.substring(0, 2));
+            }
+        }
+        return keys;
+    }
+
+    private static Set<String> grams(String padded) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Folded search tokens of a name or query
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : transliterate(text).split("[^a-z0-9]+")) {
+            String folded = fold(word);
+            if (!folded.isEmpty()) {
+                tokens.add(folded);
+            }
+        }
+        return tokens;
+    }
+
+    // Bangla script to Latin, Latin diacritics stripped, lower case
+    static String transliterate(String text) {
+        // NFC keeps Bangla vowel signs such as ো whole; Latin letters are decomposed one by one below
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFC);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (c < 0x0980 || c > 0x09FF) {
+                for (char part : Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFKD).toCharArray()) {
+                    if (Character.getType(part) != Character.NON_SPACING_MARK) {
+                        out.append(Character.toLowerCase(part));
+                    }
+                }
+                continue;
+            }
+            char next = i + 1 < decomposed.length() ? decomposed.charAt(i + 1) : 0;
+            String consonant = BANGLA_CONSONANTS.get(c);
+            if (consonant != null) {
+                if (next == '়') { // nukta: ড় ঢ় য়
+                    consonant = c == 'ড' ? "r" : c == 'ঢ' ? "rh" : c == 'য' ? "y" : consonant;
+                    i++;
+                    next = i + 1 < decomposed.length() ? decomposed.charAt(i + 1) : 0;
+                }
+                out.append(consonant);
+                // Inherent vowel, except before a vowel sign or virama and at the end of a word
+                if (!BANGLA_VOWEL_SIGNS.containsKey(next) && next != '্' && isBanglaLetter(next)) {
+                    out.append('a');
+                }
+                continue;
+            }
+            String vowel = BANGLA_VOWELS.getOrDefault(c, BANGLA_VOWEL_SIGNS.get(c));
+            if (vowel != null) {
+                out.append(vowel);
+            } else if (c == 'ং') {
+                out.append("ng");
+            } else if (c == 'ঃ') {
+                out.append('h');
+            } else if (c >= '০' && c <= '৯') {
+                out.append((char) ('0' + (c - '০')));
+            }
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Phonetic folding so common romanizations of one name collapse to one spelling
+    static String fold(String word) {
+        StringBuilder out = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            char next = i + 1 < word.length() ? word.charAt(i + 1) : 0;
+            if (c == 's' && next == 'c' && i + 2 < word.length() && word.charAt(i + 2) == 'h') {
+                out.append('s');
+                c = 'k'; // "school", "scholarship"
+                i += 2;
+            } else if (next == 'h' && "kgcjtdpbsr".indexOf(c) >= 0) {
+                i++; // aspirated / digraph: kh gh ch jh th dh ph bh sh rh
+                c = c == 'p' ? 'f' : c;
+            } else if (c == 'c') {
+                c = next == 'e' || next == 'i' || next == 'y' ? 's' : 'k';
+            }
+            switch (c) {
+                case 'e', 'y' -> c = 'i';
+                case 'o', 'w' -> c = 'u';
+                case 'q' -> c = 'k';
+                case 'z' -> c = 'j';
+                case 'v' -> c = 'b';
+                default -> { }
+            }
+            if (out.length() == 0 || out.charAt(out.length() - 1) != c) {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isBanglaLetter(char c) {
+        return BANGLA_CONSONANTS.containsKey(c) || BANGLA_VOWELS.containsKey(c)
+                || BANGLA_VOWEL_SIGNS.containsKey(c) || c == '়' || c == 'ং' || c == 'ঁ';
+    }
+
+    private static final Map<Character, String> BANGLA_CONSONANTS = Map.ofEntries(
+            Map.entry('ক', "k"), Map.entry('খ', "kh"), Map.entry('গ', "g"), Map.entry('ঘ', "gh"),
+            Map.entry('ঙ', "ng"), Map.entry('চ', "ch"), Map.entry('ছ', "chh"), Map.entry('জ', "j"),
+            Map.entry('ঝ', "jh"), Map.entry('ঞ', "n"), Map.entry('ট', "t"), Map.entry('ঠ', "th"),
+            Map.entry('ড', "d"), Map.entry('ঢ', "dh"), Map.entry('ণ', "n"), Map.entry('ত', "t"),
+            Map.entry('থ', "th"), Map.entry('দ', "d"), Map.entry('ধ', "dh"), Map.entry('ন', "n"),
+            Map.entry('প', "p"), Map.entry('ফ', "f"), Map.entry('ব', "b"), Map.entry('ভ', "bh"),
+            Map.entry('ম', "m"), Map.entry('য', "j"), Map.entry('র', "r"), Map.entry('ল', "l"),
+            Map.entry('শ', "sh"), Map.entry('ষ', "sh"), Map.entry('স', "s"), Map.entry('হ', "h"),
+            Map.entry('ৎ', "t"), Map.entry('ড়', "r"), Map.entry('ঢ়', "rh"), Map.entry('য়', "y"));
+
+    private static final Map<Character, String> BANGLA_VOWELS = Map.ofEntries(
+            Map.entry('অ', "a"), Map.entry('আ', "a"), Map.entry('ই', "i"), Map.entry('ঈ', "i"),
+            Map.entry('উ', "u"), Map.entry('ঊ', "u"), Map.entry('ঋ', "ri"), Map.entry('এ', "e"),
+            Map.entry('ঐ', "oi"), Map.entry('ও', "o"), Map.entry('ঔ', "ou"));
+
+    private static final Map<Character, String> BANGLA_VOWEL_SIGNS = Map.ofEntries(
+            Map.entry('া', "a"), Map.entry('ি', "i"), Map.entry('ী', "i"), Map.entry('ু', "u"),
+            Map.entry('ূ', "u"), Map.entry('ৃ', "ri"), Map.entry('ে', "e"), Map.entry('ৈ', "oi"),
+            Map.entry('ো', "o"), Map.entry('ৌ', "ou"));
+}
@@ -17,10 +17,13 @@ public class NgoGamificationService {
 
     private final NgoGamificationRepository repository;
     private final NgoRepository ngoRepository;
+    private final DonationAggregateService donationAggregateService;
 
-    public NgoGamificationService(NgoGamificationRepository repository, NgoRepository ngoRepository) {
+    public NgoGamificationService(NgoGamificationRepository repository, NgoRepository ngoRepository,
+                                  DonationAggregateService donationAggregateService) {
         this.repository = repository;
         this.ngoRepository = ngoRepository;
+        this.donationAggregateService = donationAggregateService;
     }
 
 
@@ -138,8 +141,8 @@ public class NgoGamificationService {
             }
         } catch (Exception e) {
             System.err.println("Error updating gamification for NGO " + ngoId + ": " + e.getMessage());
-            e.printStackTrace();
-            // Don't rethrow to avoid breaking donation flow
+            // Rethrow so the outbox relay retries instead of losing the update
+            throw new RuntimeException("Failed to update gamification for NGO " + ngoId, e);
         }
     }
     
@@ -226,7 +229,7 @@ public class NgoGamificationService {
             // Get actual stats from NGO repository using native queries
             System.out.println("Executing native queries for NGO " + ngoId + "...");
             
-            Long totalDonated = ngoRepository.getTotalDonatedByNgo(ngoId);
+            Long totalDonated = donationAggregateService.getNgoTotalDonated(ngoId).longValue();
             Long studentsHelped = ngoRepository.getStudentsHelpedByNgo(ngoId);
             Long schoolsReached = ngoRepository.getSchoolsReachedByNgo(ngoId);
             
@@ -0,0 +1,36 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Recalculates NGO gamification once per NGO per outbox batch, after the aggregates subscriber
+// has added the batch to ngo_donation_totals; reversals trigger the same recalculation
+@Component
+@Order(4)
+@RequiredArgsConstructor
+public class NgoGamificationSubscriber implements DonationCompletedSubscriber {
+
+    private final NgoGamificationService gamificationService;
+
+    @Override
+    public String name() {
+        return "ngo-gamification";
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        Set<Integer> ngoIds = new LinkedHashSet<>();
+        for (DonationCompletedEvent event : events) {
+            if (event.getNgoId() != null) {
+                ngoIds.add(event.getNgoId());
+            }
+        }
+        ngoIds.forEach(gamificationService::updateGamificationAfterDonation);
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.Bright_Aid.service;
 
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
 import com.example.Bright_Aid.Entity.NgoProjectDonations;
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
 import com.example.Bright_Aid.Dto.NgoProjectDonationsDTO;
 import com.example.Bright_Aid.repository.NgoProjectDonationsRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,40 +16,39 @@ import java.util.stream.Collectors;
 public class NgoProjectDonationsService {
 
     private final NgoProjectDonationsRepository repository;
-    private final NgoGamificationService gamificationService;
+    private final OutboxService outboxService;
+    private final DonationLedgerService donationLedgerService;
 
     public NgoProjectDonationsService(NgoProjectDonationsRepository repository,
-                                     NgoGamificationService gamificationService) {
+                                     OutboxService outboxService,
+                                     DonationLedgerService donationLedgerService) {
         this.repository = repository;
-        this.gamificationService = gamificationService;
+        this.outboxService = outboxService;
+        this.donationLedgerService = donationLedgerService;
     }
 
     // ===================== CREATE =====================
+    @Transactional
     public NgoProjectDonationsDTO create(NgoProjectDonationsDTO dto) {
         NgoProjectDonations entity = mapToEntity(dto);
         entity.setCreatedAt(LocalDateTime.now());
         entity.setUpdatedAt(LocalDateTime.now());
 
         NgoProjectDonations saved = repository.save(entity);
+        donationLedgerService.recordNgoProjectDonation(saved);
         
-        // Update gamification data after successful donation
-        try {
-            System.out.println("Project donation created successfully for NGO " + dto.getNgoId() + ", updating gamification...");
-            gamificationService.updateGamificationAfterDonation(dto.getNgoId());
-            System.out.println("Gamification update completed for NGO " + dto.getNgoId());
-        } catch (Exception e) {
-            // Log error but don't fail the donation
-            System.err.println("Failed to update gamification for NGO " + dto.getNgoId() + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Gamification and other side effects run from the outbox
+        publishIfCompleted(null, saved);
         
         return mapToDTO(saved);
     }
 
     // ===================== UPDATE =====================
+    @Transactional
     public NgoProjectDonationsDTO update(Integer id, NgoProjectDonationsDTO dto) {
         NgoProjectDonations entity = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Donation not found"));
+        NgoProjectDonations.PaymentStatus previousStatus = entity.getPaymentStatus();
 
         entity.setAmount(dto.getAmount());
         entity.setDonatedAt(dto.getDonatedAt());
@@ -60,21 +62,31 @@ public class NgoProjectDonationsService {
         entity.setUpdatedAt(LocalDateTime.now());
 
         NgoProjectDonations updated = repository.save(entity);
+        donationLedgerService.recordNgoProjectDonation(updated);
         
-        // Update gamification data after successful update
-        try {
-            System.out.println("Project donation updated successfully for NGO " + dto.getNgoId() + ", updating gamification...");
-            gamificationService.updateGamificationAfterDonation(dto.getNgoId());
-            System.out.println("Gamification update completed for NGO " + dto.getNgoId());
-        } catch (Exception e) {
-            // Log error but don't fail the update
-            System.err.println("Failed to update gamification for NGO " + dto.getNgoId() + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        publishIfCompleted(previousStatus, updated);
         
         return mapToDTO(updated);
     }
 
+    // Only the transition into COMPLETED is published, so edits of a completed donation do not re-trigger side effects
+    private void publishIfCompleted(NgoProjectDonations.PaymentStatus previousStatus, NgoProjectDonations donation) {
+        if (donation.getPaymentStatus() != NgoProjectDonations.PaymentStatus.COMPLETED
+                || previousStatus == NgoProjectDonations.PaymentStatus.COMPLETED) {
+            return;
+        }
+        outboxService.publishDonationCompleted(DonationCompletedEvent.builder()
+                .source(DonationCompletedEvent.SOURCE_NGO_PROJECT)
+                .donationId(donation.getProjectDonationId())
+                .ngoId(donation.getNgoId())
+                .projectId(donation.getProjectId())
+                .transactionId(donation.getTransactionId())
+                .amount(donation.getAmount())
+                .purpose("NGO_PROJECT")
+                .completedAt(donation.getPaymentCompletedAt() != null ? donation.getPaymentCompletedAt() : LocalDateTime.now())
+                .build());
+    }
+
     // ===================== GET BY ID =====================
     public NgoProjectDonationsDTO getById(Integer id) {
         NgoProjectDonations entity = repository.findById(id)
@@ -105,8 +117,10 @@ public class NgoProjectDonationsService {
     }
 
     // ===================== DELETE =====================
+    @Transactional
     public void delete(Integer id) {
         repository.deleteById(id);
+        donationLedgerService.remove(DonationLedgerEntry.Source.NGO_PROJECT, id);
     }
 
     // ===================== MAPPER METHODS =====================
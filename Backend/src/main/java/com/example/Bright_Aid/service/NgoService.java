@@ -31,6 +31,7 @@ public class NgoService {
     private final NgoRepository ngoRepository;
     private final UserRepository userRepository;
     private final NgoGamificationService ngoGamificationService;
+    private final DonationAggregateService donationAggregateService;
     // private final AdminRepository adminRepository;
 
     @Transactional
@@ -255,7 +256,7 @@ public class NgoService {
             }
             
             // Use native queries to count data directly from database
-            Long totalDonated = ngoRepository.getTotalDonatedByNgo(ngoId);
+            Long totalDonated = donationAggregateService.getNgoTotalDonated(ngoId).longValue();
             Long studentsHelped = ngoRepository.getStudentsHelpedByNgo(ngoId);
             Long schoolProjectsCount = ngoRepository.getSchoolProjectsCount();
             Long schoolsReached = ngoRepository.getSchoolsReachedByNgo(ngoId);
@@ -1,9 +1,12 @@
 package com.example.Bright_Aid.service;
 
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
 import com.example.Bright_Aid.Entity.NgoStudentDonations;
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
 import com.example.Bright_Aid.Dto.NgoStudentDonationsDTO;
 import com.example.Bright_Aid.repository.NgoStudentDonationsRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,58 +16,39 @@ import java.util.stream.Collectors;
 public class NgoStudentDonationsService {
 
     private final NgoStudentDonationsRepository repository;
-    private final NgoGamificationService gamificationService;
-    private final StudentService studentService;
-    private final ScholarshipStatusService scholarshipStatusService;
-
-    public NgoStudentDonationsService(NgoStudentDonationsRepository repository, 
-                                     NgoGamificationService gamificationService,
-                                     StudentService studentService,
-                                     ScholarshipStatusService scholarshipStatusService) {
+    private final OutboxService outboxService;
+    private final DonationLedgerService donationLedgerService;
+
+    public NgoStudentDonationsService(NgoStudentDonationsRepository repository,
+                                     OutboxService outboxService,
+                                     DonationLedgerService donationLedgerService) {
         this.repository = repository;
-        this.gamificationService = gamificationService;
-        this.studentService = studentService;
-        this.scholarshipStatusService = scholarshipStatusService;
+        this.outboxService = outboxService;
+        this.donationLedgerService = donationLedgerService;
     }
 
     // ===================== CREATE =====================
+    @Transactional
     public NgoStudentDonationsDTO create(NgoStudentDonationsDTO dto) {
         NgoStudentDonations entity = mapToEntity(dto);
         entity.setCreatedAt(LocalDateTime.now());
         entity.setUpdatedAt(LocalDateTime.now());
 
         NgoStudentDonations saved = repository.save(entity);
+        donationLedgerService.recordNgoStudentDonation(saved);
         
-        // Mark student as sponsored if payment is completed
-        if (dto.getPaymentStatus() != null && "COMPLETED".equals(dto.getPaymentStatus()) && dto.getStudentId() != null) {
-            try {
-                System.out.println("Marking student " + dto.getStudentId() + " as sponsored after completed donation");
-                studentService.markStudentAsSponsored(dto.getStudentId());
-                // Update scholarship status for all students after NGO donation completion
-                scholarshipStatusService.updateScholarshipStatus();
-            } catch (Exception e) {
-                System.err.println("Failed to mark student " + dto.getStudentId() + " as sponsored: " + e.getMessage());
-            }
-        }
-        
-        // Update gamification data after successful donation
-        try {
-            System.out.println("Student donation created successfully for NGO " + dto.getNgoId() + ", updating gamification...");
-            gamificationService.updateGamificationAfterDonation(dto.getNgoId());
-            System.out.println("Gamification update completed for NGO " + dto.getNgoId());
-        } catch (Exception e) {
-            // Log error but don't fail the donation
-            System.err.println("Failed to update gamification for NGO " + dto.getNgoId() + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Sponsorship, scholarship status and gamification updates run from the outbox
+        publishIfCompleted(null, saved);
         
         return mapToDTO(saved);
     }
 
     // ===================== UPDATE =====================
+    @Transactional
     public NgoStudentDonationsDTO update(Integer id, NgoStudentDonationsDTO dto) {
         NgoStudentDonations entity = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Donation not found"));
+        NgoStudentDonations.PaymentStatus previousStatus = entity.getPaymentStatus();
 
         entity.setAmount(dto.getAmount());
         entity.setDonatedAt(dto.getDonatedAt());
@@ -79,33 +63,31 @@ public class NgoStudentDonationsService {
         entity.setUpdatedAt(LocalDateTime.now());
 
         NgoStudentDonations updated = repository.save(entity);
+        donationLedgerService.recordNgoStudentDonation(updated);
         
-        // Mark student as sponsored if payment is completed
-        if (dto.getPaymentStatus() != null && "COMPLETED".equals(dto.getPaymentStatus()) && dto.getStudentId() != null) {
-            try {
-                System.out.println("Marking student " + dto.getStudentId() + " as sponsored after updated donation");
-                studentService.markStudentAsSponsored(dto.getStudentId());
-                // Update scholarship status for all students after NGO donation update
-                scholarshipStatusService.updateScholarshipStatus();
-            } catch (Exception e) {
-                System.err.println("Failed to mark student " + dto.getStudentId() + " as sponsored: " + e.getMessage());
-            }
-        }
-        
-        // Update gamification data after successful update
-        try {
-            System.out.println("Student donation updated successfully for NGO " + dto.getNgoId() + ", updating gamification...");
-            gamificationService.updateGamificationAfterDonation(dto.getNgoId());
-            System.out.println("Gamification update completed for NGO " + dto.getNgoId());
-        } catch (Exception e) {
-            // Log error but don't fail the update
-            System.err.println("Failed to update gamification for NGO " + dto.getNgoId() + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        publishIfCompleted(previousStatus, updated);
         
         return mapToDTO(updated);
     }
 
+    // Only the transition into COMPLETED is published, so edits of a completed donation do not re-trigger side effects
+    private void publishIfCompleted(NgoStudentDonations.PaymentStatus previousStatus, NgoStudentDonations donation) {
+        if (donation.getPaymentStatus() != NgoStudentDonations.PaymentStatus.COMPLETED
+                || previousStatus == NgoStudentDonations.PaymentStatus.COMPLETED) {
+            return;
+        }
+        outboxService.publishDonationCompleted(DonationCompletedEvent.builder()
+                .source(DonationCompletedEvent.SOURCE_NGO_STUDENT)
+                .donationId(donation.getStudentDonationId())
+                .ngoId(donation.getNgoId())
+                .studentId(donation.getStudentId())
+                .transactionId(donation.getTransactionId())
+                .amount(donation.getAmount())
+                .purpose("STUDENT_SPONSORSHIP")
+                .completedAt(donation.getPaymentCompletedAt() != null ? donation.getPaymentCompletedAt() : LocalDateTime.now())
+                .build());
+    }
+
     // ===================== GET BY ID =====================
     public NgoStudentDonationsDTO getById(Integer id) {
         NgoStudentDonations entity = repository.findById(id)
@@ -131,8 +113,10 @@ public class NgoStudentDonationsService {
     }
 
     // ===================== DELETE =====================
+    @Transactional
     public void delete(Integer id) {
         repository.deleteById(id);
+        donationLedgerService.remove(DonationLedgerEntry.Source.NGO_STUDENT, id);
     }
 
     // ===================== MAPPER METHODS =====================
@@ -0,0 +1,353 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for donation-completed side effects
+ * Request paths only insert an outbox row in their own transaction; the relay claims pending rows in
+ * batches, hands them to every DonationCompletedSubscriber and retries failures with backoff until
+ * they succeed or are parked as FAILED for inspection
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO outbox_events (event_type, source, source_id, payload, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<DonationCompletedSubscriber> subscribers;
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${outbox.relay.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds;
+
+    @Value("${outbox.retention-days:30}")
+    private int retentionDays;
+
+    private final AtomicBoolean relaying = new AtomicBoolean(false);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+
+    public OutboxService(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ObjectMapper objectMapper,
+                         List<DonationCompletedSubscriber> subscribers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.subscribers = subscribers;
+    }
+
+    /**
+     * Record a completed donation; must be called inside the transaction that completed it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishDonationCompleted(DonationCompletedEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialise outbox event for donation " + event.getDonationId(), e);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_EVENT, typeOf(event), event.getSource(), event.getDonationId(), payload, now, now);
+        published.incrementAndGet();
+    }
+
+    /**
+     * Batched variant of {@link #publishDonationCompleted} for bulk imports
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishDonationsCompleted(List<DonationCompletedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DonationCompletedEvent event : events) {
+            try {
+                rows.add(new Object[]{typeOf(event), event.getSource(), event.getDonationId(),
+                        objectMapper.writeValueAsString(event), now, now});
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialise outbox event for donation " + event.getDonationId(), e);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        published.addAndGet(events.size());
+    }
+
+    // spring.task.scheduling.pool.size keeps a scheduler thread free for the relay while long jobs run
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void scheduledRelay() {
+        if (enabled) {
+            relay();
+        }
+    }
+
+    /**
+     * Dispatch pending events until the backlog is drained or the per-run batch limit is reached
+     */
+    public int relay() {
+        if (!relaying.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            releaseStaleClaims();
+            int total = 0;
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int count = dispatchBatch();
+                total += count;
+                if (count < batchSize) {
+                    break;
+                }
+            }
+            return total;
+        } finally {
+            relaying.set(false);
+        }
+    }
+
+    /**
+     * Put parked (FAILED) events back in the queue, e.g. after fixing the cause
+     */
+    public int retryFailed() {
+        return jdbcTemplate.update(
+                "UPDATE outbox_events SET status = 'PENDING', attempts = 0, next_attempt_at = ? WHERE status = 'FAILED'",
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) AS cnt FROM outbox_events GROUP BY status",
+                rs -> {
+                    byStatus.put(rs.getString("status"), rs.getLong("cnt"));
+                });
+        stats.put("byStatus", byStatus);
+        stats.put("oldestPendingCreatedAt", jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM outbox_events WHERE status = 'PENDING'", LocalDateTime.class));
+        stats.put("subscribers", subscribers.stream().map(DonationCompletedSubscriber::name).collect(Collectors.toList()));
+        stats.put("published", published.get());
+        stats.put("dispatched", dispatched.get());
+        stats.put("retried", retried.get());
+        stats.put("parked", parked.get());
+        return stats;
+    }
+
+    // Delivered events are only kept for a retention window; deleted in chunks to keep transactions short
+    @Scheduled(cron = "${outbox.purge.cron:0 30 3 * * *}")
+    public void purgeDelivered() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int deleted;
+        do {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT event_id FROM outbox_events WHERE status = 'DONE' AND processed_at < ? ORDER BY event_id LIMIT 1000",
+                    Long.class, cutoff);
+            if (ids.isEmpty()) {
+                break;
+            }
+            String in = placeholders(ids.size());
+            deleted = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM outbox_deliveries WHERE event_id IN (" + in + ")", ids.toArray());
+                return jdbcTemplate.update("DELETE FROM outbox_events WHERE event_id IN (" + in + ")", ids.toArray());
+            });
+        } while (deleted == 1000);
+    }
+
+    // Claims held by a relay that died are handed back after the claim timeout
+    private void releaseStaleClaims() {
+        int released = jdbcTemplate.update(
+                "UPDATE outbox_events SET status = 'PENDING' WHERE status = 'PROCESSING' AND claimed_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(claimTimeoutSeconds)));
+        if (released > 0) {
+            log.warn("Released {} stale outbox claims", released);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<DonationCompletedEvent> events = transactionTemplate.execute(status -> claimBatch());
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        for (DonationCompletedSubscriber subscriber : subscribers) {
+            deliver(subscriber, events, failures);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> done = new ArrayList<>();
+        List<Object[]> retry = new ArrayList<>();
+        for (DonationCompletedEvent event : events) {
+            String error = failures.get(event.getEventId());
+            if (error == null) {
+                done.add(new Object[]{now, event.getEventId()});
+            } else {
+                retry.add(new Object[]{error.length() > 1000 ? error.substring(0, 1000) : error, event.getEventId()});
+            }
+        }
+
+        if (!done.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE outbox_events SET status = 'DONE', processed_at = ?, claimed_at = NULL WHERE event_id = ?", done);
+            dispatched.addAndGet(done.size());
+        }
+        if (!retry.isEmpty()) {
+            // Exponential backoff; events that keep failing are parked as FAILED rather than dropped
+            jdbcTemplate.batchUpdate(
+                    "UPDATE outbox_events SET attempts = attempts + 1, last_error = ?, claimed_at = NULL, " +
+                    "status = IF(attempts >= " + maxAttempts + ", 'FAILED', 'PENDING'), " +
+                    "next_attempt_at = DATE_ADD(NOW(), INTERVAL " + retryBackoffSeconds + " * POW(2, LEAST(attempts - 1, 10)) SECOND) " +
+                    "WHERE event_id = ?", retry);
+            retried.addAndGet(retry.size());
+            parked.addAndGet(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM outbox_events WHERE status = 'FAILED' AND event_id IN (" + placeholders(retry.size()) + ")",
+                    Long.class, retry.stream().map(row -> row[1]).toArray()));
+            log.warn("{} outbox events failed and were rescheduled: {}", retry.size(), failures);
+        }
+        return events.size();
+    }
+
+    private List<DonationCompletedEvent> claimBatch() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT event_id, payload FROM outbox_events " +
+                "WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+                "ORDER BY event_id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new Object[]{rs.getLong("event_id"), rs.getString("payload")},
+                now, batchSize);
+
+        List<DonationCompletedEvent> events = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            DonationCompletedEvent event = readEvent((Long) row[0], (String) row[1]);
+            if (event != null) {
+                events.add(event);
+            } else {
+                // A payload that cannot be parsed will never succeed; park it instead of blocking the queue
+                jdbcTemplate.update("UPDATE outbox_events SET status = 'FAILED', last_error = 'Unreadable payload' WHERE event_id = ?", row[0]);
+                parked.incrementAndGet();
+            }
+        }
+        if (events.isEmpty()) {
+            return events;
+        }
+        List<Object> ids = events.stream().map(DonationCompletedEvent::getEventId).collect(Collectors.toList());
+        List<Object> args = new ArrayList<>();
+        args.add(now);
+        args.addAll(ids);
+        jdbcTemplate.update("UPDATE outbox_events SET status = 'PROCESSING', claimed_at = ? WHERE event_id IN ("
+                + placeholders(ids.size()) + ")", args.toArray());
+        return events;
+    }
+
+    // Deliver the batch to one subscriber; on failure fall back to single events to isolate the bad ones
+    private void deliver(DonationCompletedSubscriber subscriber, List<DonationCompletedEvent> events, Map<Long, String> failures) {
+        Set<Long> delivered = deliveredTo(subscriber, events);
+        List<DonationCompletedEvent> pending = events.stream()
+                .filter(event -> !delivered.contains(event.getEventId()))
+                .collect(Collectors.toList());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            deliverInTransaction(subscriber, pending);
+            return;
+        } catch (Exception e) {
+            if (pending.size() == 1) {
+                failures.merge(pending.get(0).getEventId(), subscriber.name() + ": " + e.getMessage(), (a, b) -> a + "; " + b);
+                return;
+            }
+            log.warn("Outbox batch delivery to {} failed, retrying events individually: {}", subscriber.name(), e.getMessage());
+        }
+
+        for (DonationCompletedEvent event : pending) {
+            try {
+                deliverInTransaction(subscriber, Collections.singletonList(event));
+            } catch (Exception e) {
+                failures.merge(event.getEventId(), subscriber.name() + ": " + e.getMessage(), (a, b) -> a + "; " + b);
+            }
+        }
+    }
+
+    private void deliverInTransaction(DonationCompletedSubscriber subscriber, List<DonationCompletedEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> {
+            subscriber.onDonationsCompleted(events);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO outbox_deliveries (event_id, subscriber, delivered_at) VALUES (?, ?, ?)",
+                    events.stream().map(event -> new Object[]{event.getEventId(), subscriber.name(), now}).collect(Collectors.toList()));
+        });
+    }
+
+    private Set<Long> deliveredTo(DonationCompletedSubscriber subscriber, List<DonationCompletedEvent> events) {
+        List<Object> args = new ArrayList<>();
+        args.add(subscriber.name());
+        events.forEach(event -> args.add(event.getEventId()));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_id FROM outbox_deliveries WHERE subscriber = ? AND event_id IN (" + placeholders(events.size()) + ")",
+                Long.class, args.toArray()));
+    }
+
+    private static String typeOf(DonationCompletedEvent event) {
+        return event.isReversal() ? DonationCompletedEvent.REVERSED_TYPE : DonationCompletedEvent.TYPE;
+    }
+
+    private DonationCompletedEvent readEvent(long eventId, String payload) {
+        try {
+            DonationCompletedEvent event = objectMapper.readValue(payload, DonationCompletedEvent.class);
+            event.setEventId(eventId);
+            return event;
+        } catch (JsonProcessingException e) {
+            log.error("Unreadable outbox payload for event {}: {}", eventId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Entity.PaymentTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconciles transactions left PENDING by abandoned browser flows
+ * Pages through stale PENDING rows by transaction_id, validates each page against the gateway
+ * with bounded concurrency and applies the resulting status changes as one JDBC batch. Rows expired
+ * within the recheck window are validated again, so a bank payment that completes late still settles.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationService {
+
+    private static final String PENDING = PaymentTransaction.TransactionStatus.PENDING.name();
+    private static final String EXPIRED = PaymentTransaction.TransactionStatus.EXPIRED.name();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SslCommerzGatewayClient gatewayClient;
+    private final PaymentSettlementService paymentSettlementService;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${payment.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.reconciliation.stale-after-minutes:30}")
+    private long staleAfterMinutes;
+
+    @Value("${payment.reconciliation.expire-after-hours:24}")
+    private long expireAfterHours;
+
+    @Value("${payment.reconciliation.recheck-expired-hours:72}")
+    private long recheckExpiredHours;
+
+    @Value("${payment.reconciliation.page-size:100}")
+    private int pageSize;
+
+    @Value("${payment.reconciliation.max-pages-per-run:50}")
+    private int maxPagesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalScanned = new AtomicLong();
+    private final AtomicLong totalSettled = new AtomicLong();
+    private final AtomicLong totalFailed = new AtomicLong();
+    private final AtomicLong totalCancelled = new AtomicLong();
+    private final AtomicLong totalExpired = new AtomicLong();
+    private final AtomicLong totalUnchanged = new AtomicLong();
+    private final AtomicLong totalErrors = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public PaymentReconciliationService(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        SslCommerzGatewayClient gatewayClient,
+                                        PaymentSettlementService paymentSettlementService,
+                                        @Qualifier("paymentReconciliationExecutor") ThreadPoolTaskExecutor executor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.gatewayClient = gatewayClient;
+        this.paymentSettlementService = paymentSettlementService;
+        this.executor = executor;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:300000}",
+               initialDelayString = "${payment.reconciliation.interval-ms:300000}")
+    public void scheduledReconciliation() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Run one reconciliation pass; returns the summary of the run, or of the run already in progress
+     */
+    public Map<String, Object> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Payment reconciliation already running, skipping");
+            return lastRun;
+        }
+        try {
+            return runPass();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Lifetime counters, the last run summary and the current backlog of stale PENDING transactions
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("backlog", countBacklog(LocalDateTime.now().minusMinutes(staleAfterMinutes)));
+        stats.put("scanned", totalScanned.get());
+        stats.put("settled", totalSettled.get());
+        stats.put("failed", totalFailed.get());
+        stats.put("cancelled", totalCancelled.get());
+        stats.put("expired", totalExpired.get());
+        stats.put("unchanged", totalUnchanged.get());
+        stats.put("errors", totalErrors.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    private Map<String, Object> runPass() {
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime staleBefore = startedAt.minusMinutes(staleAfterMinutes);
+        LocalDateTime expireBefore = startedAt.minusHours(expireAfterHours);
+
+        long scanned = 0;
+        long updated = 0;
+        int pages = 0;
+
+        // Stale PENDING rows first, then recently EXPIRED rows, which may only turn into a success
+        for (String status : List.of(PENDING, EXPIRED)) {
+            LocalDateTime initiatedAfter = status.equals(PENDING) ? null : startedAt.minusHours(expireAfterHours + recheckExpiredHours);
+            int lastId = 0;
+            while (pages < maxPagesPerRun) {
+                List<StaleTransaction> page = findPage(status, lastId, initiatedAfter, staleBefore);
+                if (page.isEmpty()) {
+                    break;
+                }
+                pages++;
+                scanned += page.size();
+                lastId = page.get(page.size() - 1).transactionId;
+
+                List<Outcome> outcomes = validatePage(page, expireBefore);
+                updated += applyOutcomes(outcomes);
+
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        totalScanned.addAndGet(scanned);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startedAt", startedAt);
+        summary.put("pages", pages);
+        summary.put("scanned", scanned);
+        summary.put("updated", updated);
+        summary.put("durationSeconds", seconds);
+        summary.put("throughputPerSecond", seconds > 0 ? scanned / seconds : 0.0);
+        summary.put("remainingBacklog", countBacklog(staleBefore));
+        lastRun = summary;
+
+        if (scanned > 0) {
+            log.info("Payment reconciliation scanned {} transactions in {} pages, updated {} ({} s)",
+                    scanned, pages, updated, String.format("%.2f", seconds));
+        }
+        return summary;
+    }
+
+    // Keyset page over stale rows of one status, served by the (status, transaction_id) index
+    private List<StaleTransaction> findPage(String status, int afterId, LocalDateTime initiatedAfter, LocalDateTime staleBefore) {
+        List<Object> args = new ArrayList<>(List.of(status, afterId, Timestamp.valueOf(staleBefore)));
+        if (initiatedAfter != null) {
+            args.add(Timestamp.valueOf(initiatedAfter));
+        }
+        args.add(pageSize);
+        return jdbcTemplate.query(
+                "SELECT transaction_id, transaction_reference, initiated_at FROM payment_transactions " +
+                "WHERE status = ? AND transaction_id > ? AND initiated_at < ? " +
+                (initiatedAfter != null ? "AND initiated_at >= ? " : "") +
+                "ORDER BY transaction_id LIMIT ?",
+                (rs, rowNum) -> new StaleTransaction(
+                        rs.getInt("transaction_id"),
+                        rs.getString("transaction_reference"),
+                        rs.getTimestamp("initiated_at") != null ? rs.getTimestamp("initiated_at").toLocalDateTime() : null,
+                        PaymentTransaction.TransactionStatus.valueOf(status)),
+                args.toArray());
+    }
+
+    private long countBacklog(LocalDateTime staleBefore) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payment_transactions WHERE status = ? AND initiated_at < ?",
+                Long.class, PENDING, Timestamp.valueOf(staleBefore));
+        return count != null ? count : 0;
+    }
+
+    // Validate a page against the gateway on the bounded reconciliation pool
+    private List<Outcome> validatePage(List<StaleTransaction> page, LocalDateTime expireBefore) {
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>(page.size());
+        for (StaleTransaction transaction : page) {
+            futures.add(CompletableFuture.supplyAsync(() -> validate(transaction, expireBefore), executor));
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(page.size());
+        for (CompletableFuture<Outcome> future : futures) {
+            Outcome outcome = future.join();
+            if (outcome != null) {
+                outcomes.add(outcome);
+            }
+        }
+        return outcomes;
+    }
+
+    private Outcome validate(StaleTransaction transaction, LocalDateTime expireBefore) {
+        boolean expired = transaction.initiatedAt == null || transaction.initiatedAt.isBefore(expireBefore);
+        boolean recheck = transaction.status == PaymentTransaction.TransactionStatus.EXPIRED;
+        try {
+            Map<String, Object> response = gatewayClient.queryByTransactionReference(transaction.transactionReference);
+            Map<String, Object> element = firstElement(response);
+            String gatewayStatus = element != null && element.get("status") != null
+                    ? element.get("status").toString().toUpperCase() : null;
+
+            if ("VALID".equals(gatewayStatus) || "VALIDATED".equals(gatewayStatus)) {
+                return new Outcome(transaction, PaymentTransaction.TransactionStatus.SUCCESS, element);
+            }
+            if (!recheck && "FAILED".equals(gatewayStatus)) {
+                return new Outcome(transaction, PaymentTransaction.TransactionStatus.FAILED, element);
+            }
+            if (!recheck && "CANCELLED".equals(gatewayStatus)) {
+                return new Outcome(transaction, PaymentTransaction.TransactionStatus.CANCELLED, element);
+            }
+            // No session found, UNATTEMPTED, EXPIRED or still PENDING at the gateway
+            if (!recheck && expired) {
+                return new Outcome(transaction, PaymentTransaction.TransactionStatus.EXPIRED, element);
+            }
+            totalUnchanged.incrementAndGet();
+            return null;
+        } catch (Exception e) {
+            // Leave the row as it is; it is picked up again on the next run
+            totalErrors.incrementAndGet();
+            log.warn("Reconciliation lookup failed for {}: {}", transaction.transactionReference, e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> firstElement(Map<String, Object> response) {
+        Object elements = response != null ? response.get("element") : null;
+        if (elements instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof Map) {
+            return (Map<String, Object>) list.get(0);
+        }
+        return null;
+    }
+
+    // One batched UPDATE per page; the status guard keeps callbacks that arrived meanwhile authoritative
+    private long applyOutcomes(List<Outcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return 0;
+        }
+        // Truncated to the column precision so the confirmation query can match it exactly
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        int[][] results = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                "UPDATE payment_transactions SET status = ?, completed_at = ?, bank_transaction_id = ?, " +
+                "card_type = ?, card_no = ?, gateway_response_code = ?, updated_at = ? " +
+                "WHERE transaction_id = ? AND status = ?",
+                outcomes,
+                outcomes.size(),
+                (ps, outcome) -> {
+                    boolean success = outcome.status == PaymentTransaction.TransactionStatus.SUCCESS;
+                    ps.setString(1, outcome.status.name());
+                    ps.setTimestamp(2, success ? now : null);
+                    ps.setString(3, outcome.value("bank_tran_id"));
+                    ps.setString(4, outcome.value("card_type"));
+                    ps.setString(5, outcome.value("card_no"));
+                    ps.setString(6, outcome.value("status"));
+                    ps.setTimestamp(7, now);
+                    ps.setInt(8, outcome.transactionId());
+                    ps.setString(9, outcome.transaction.status.name());
+                }));
+
+        long applied = 0;
+        Map<Integer, Outcome> unconfirmed = new LinkedHashMap<>();
+        int index = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                Outcome outcome = outcomes.get(index++);
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    // Rewritten batches report no row counts; the rows actually changed are confirmed below
+                    unconfirmed.put(outcome.transactionId(), outcome);
+                } else if (count > 0) {
+                    applied += countApplied(outcome);
+                }
+            }
+        }
+
+        if (!unconfirmed.isEmpty()) {
+            // A row this batch changed carries the batch timestamp and the outcome's status;
+            // one a callback claimed first does not
+            String placeholders = String.join(",", Collections.nCopies(unconfirmed.size(), "?"));
+            List<Object> args = new ArrayList<>(unconfirmed.keySet());
+            args.add(now);
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT transaction_id, status FROM payment_transactions WHERE transaction_id IN (" + placeholders + ") " +
+                    "AND updated_at = ?",
+                    (rs, rowNum) -> new Object[]{rs.getInt("transaction_id"), rs.getString("status")},
+                    args.toArray());
+            for (Object[] row : rows) {
+                Outcome outcome = unconfirmed.get((Integer) row[0]);
+                if (outcome.status.name().equals(row[1])) {
+                    applied += countApplied(outcome);
+                }
+            }
+        }
+        return applied;
+    }
+
+    private int countApplied(Outcome outcome) {
+        countOutcome(outcome.status);
+        if (outcome.status == PaymentTransaction.TransactionStatus.SUCCESS) {
+            paymentSettlementService.submit(outcome.transactionId());
+        }
+        return 1;
+    }
+
+    private void countOutcome(PaymentTransaction.TransactionStatus status) {
+        switch (status) {
+            case SUCCESS -> totalSettled.incrementAndGet();
+            case FAILED -> totalFailed.incrementAndGet();
+            case CANCELLED -> totalCancelled.incrementAndGet();
+            case EXPIRED -> totalExpired.incrementAndGet();
+            default -> { }
+        }
+    }
+
+    private record StaleTransaction(int transactionId, String transactionReference, LocalDateTime initiatedAt,
+                                    PaymentTransaction.TransactionStatus status) {
+    }
+
+    private record Outcome(StaleTransaction transaction, PaymentTransaction.TransactionStatus status, Map<String, Object> element) {
+
+        int transactionId() {
+            return transaction.transactionId;
+        }
+
+        String value(String key) {
+            Object value = element != null ? element.get(key) : null;
+            return value != null ? value.toString() : null;
+        }
+    }
+}
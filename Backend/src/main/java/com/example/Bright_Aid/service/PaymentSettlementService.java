@@ -0,0 +1,322 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.config.QueryCountInspector;
+import com.example.Bright_Aid.Dto.DonationDto;
+import com.example.Bright_Aid.Dto.NgoProjectDonationsDTO;
+import com.example.Bright_Aid.Dto.NgoStudentDonationsDTO;
+import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.PaymentTransaction;
+import com.example.Bright_Aid.repository.PaymentTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settlement stage for successful payments
+ * The callback thread only persists the status change; donation records are created here on a
+ * bounded worker pool with retries, and their completion side effects are dispatched by the outbox.
+ * A SUCCESS transaction stays unsettled (settled_at IS NULL) until its donation record commits, so a
+ * task lost to a crash, shutdown or exhausted retries is picked up again by the periodic sweep.
+ */
+@Service
+@Slf4j
+public class PaymentSettlementService {
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final DonationService donationService;
+    private final SponsorshipMatchingService sponsorshipMatchingService;
+    private final NgoProjectDonationsService ngoProjectDonationsService;
+    private final NgoStudentDonationsService ngoStudentDonationsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final StageMetrics stageMetrics;
+
+    @Value("${payment.settlement.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${payment.settlement.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${payment.settlement.sweep-after-seconds:120}")
+    private long sweepAfterSeconds;
+
+    @Value("${payment.settlement.sweep-batch-size:200}")
+    private int sweepBatchSize;
+
+    // Queued or running settlements, so the sweep does not queue a transaction twice
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong swept = new AtomicLong();
+    private final AtomicLong alreadySettled = new AtomicLong();
+    private final AtomicLong settled = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public PaymentSettlementService(PaymentTransactionRepository paymentTransactionRepository,
+                                    DonationService donationService,
+                                    SponsorshipMatchingService sponsorshipMatchingService,
+                                    NgoProjectDonationsService ngoProjectDonationsService,
+                                    NgoStudentDonationsService ngoStudentDonationsService,
+                                    TransactionTemplate transactionTemplate,
+                                    @Qualifier("paymentSettlementExecutor") ThreadPoolTaskExecutor executor,
+                                    StageMetrics stageMetrics) {
+        this.paymentTransactionRepository = paymentTransactionRepository;
+        this.donationService = donationService;
+        this.sponsorshipMatchingService = sponsorshipMatchingService;
+        this.ngoProjectDonationsService = ngoProjectDonationsService;
+        this.ngoStudentDonationsService = ngoStudentDonationsService;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.stageMetrics = stageMetrics;
+    }
+
+    /**
+     * Queue settlement of a successful transaction once the surrounding database transaction commits,
+     * so workers never see a status change that was rolled back
+     */
+    public void submitAfterCommit(Integer transactionId) {
+        TransactionCallbacks.afterCommit(() -> submit(transactionId));
+    }
+
+    /**
+     * Queue settlement of a successful transaction on the worker pool
+     */
+    public void submit(Integer transactionId) {
+        if (!inFlight.add(transactionId)) {
+            return;
+        }
+        submitted.incrementAndGet();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    stageMetrics.record("settlement.queue-wait", System.nanoTime() - enqueuedAt);
+                    settle(transactionId);
+                } finally {
+                    inFlight.remove(transactionId);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected during shutdown; the sweep picks it up after restart
+            inFlight.remove(transactionId);
+            throw e;
+        }
+    }
+
+    /**
+     * Re-queue successful transactions that have gone unsettled for longer than the grace period
+     */
+    @Scheduled(fixedDelayString = "${payment.settlement.sweep-interval-ms:60000}",
+               initialDelayString = "${payment.settlement.sweep-interval-ms:60000}")
+    public void sweepUnsettled() {
+        List<Integer> unsettled = paymentTransactionRepository.findUnsettledIds(
+                PaymentTransaction.TransactionStatus.SUCCESS,
+                LocalDateTime.now().minusSeconds(sweepAfterSeconds),
+                PageRequest.of(0, sweepBatchSize));
+        int queued = 0;
+        for (Integer transactionId : unsettled) {
+            if (!inFlight.contains(transactionId)) {
+                submit(transactionId);
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            swept.addAndGet(queued);
+            log.warn("Re-queued {} unsettled successful transactions", queued);
+        }
+    }
+
+    /**
+     * Create the donation record for a transaction; scholarship, points and gamification follow from
+     * the donation-completed outbox event written in the same transaction
+     */
+    public void settle(Integer transactionId) {
+        long start = System.nanoTime();
+        long queriesBefore = QueryCountInspector.current();
+        boolean donationCreated = runStage("settlement.donation", transactionId, () -> createDonationRecord(transactionId));
+        stageMetrics.record("settlement.total", System.nanoTime() - start, QueryCountInspector.current() - queriesBefore);
+
+        if (donationCreated) {
+            settled.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Queue depth, pool usage, outcome counters and per-stage latency of the settlement pipeline
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", executor.getThreadPoolExecutor().getQueue().size());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("submitted", submitted.get());
+        stats.put("swept", swept.get());
+        stats.put("settled", settled.get());
+        stats.put("alreadySettled", alreadySettled.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("stages", stageMetrics.snapshot());
+        return stats;
+    }
+
+    private boolean runStage(String stage, Integer transactionId, Runnable work) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long start = System.nanoTime();
+            long queriesBefore = QueryCountInspector.current();
+            try {
+                work.run();
+                stageMetrics.record(stage, System.nanoTime() - start, QueryCountInspector.current() - queriesBefore);
+                return true;
+            } catch (Exception e) {
+                stageMetrics.record(stage + ".error", System.nanoTime() - start);
+                if (attempt == maxAttempts) {
+                    log.error("Stage {} failed for transaction {} after {} attempts: {}",
+                            stage, transactionId, attempt, e.getMessage(), e);
+                    return false;
+                }
+                retried.incrementAndGet();
+                log.warn("Stage {} failed for transaction {} (attempt {}/{}), retrying: {}",
+                        stage, transactionId, attempt, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The settled_at claim commits with the donation record, so each transaction is settled exactly once
+    private void createDonationRecord(Integer transactionId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (paymentTransactionRepository.markSettled(transactionId,
+                    PaymentTransaction.TransactionStatus.SUCCESS, LocalDateTime.now()) == 0) {
+                alreadySettled.incrementAndGet();
+                return;
+            }
+            PaymentTransaction transaction = paymentTransactionRepository.findById(transactionId)
+                    .orElseThrow(() -> new RuntimeException("Transaction not found: " + transactionId));
+            if (transaction.getDonor() != null) {
+                createDonationFromTransaction(transaction);
+            } else if (transaction.getNgo() != null) {
+                createNgoDonationFromTransaction(transaction);
+            }
+        });
+    }
+
+    // Create donation record from successful payment transaction
+    private void createDonationFromTransaction(PaymentTransaction transaction) {
+        Integer projectId = transaction.getTargetProjectId();
+        Integer studentId = projectId == null ? transaction.getTargetStudentId() : null;
+        Donation.DonationPurpose purpose = transaction.getPurpose() != null
+                ? transaction.getPurpose() : Donation.DonationPurpose.GENERAL_SUPPORT;
+
+        if (projectId == null && studentId == null && purpose == Donation.DonationPurpose.STUDENT_SPONSORSHIP) {
+            // For general student sponsorship, find a suitable student
+            studentId = findStudentForSponsorship();
+            if (studentId == null) {
+                purpose = Donation.DonationPurpose.GENERAL_SUPPORT;
+            }
+        }
+
+        DonationDto donationDto = DonationDto.builder()
+                .donorId(transaction.getDonor().getDonorId())
+                .projectId(projectId)
+                .studentId(studentId)
+                .amount(transaction.getAmount())
+                .donationType(transaction.getDonationType() != null
+                        ? transaction.getDonationType() : Donation.DonationType.ONE_TIME)
+                .transactionId(transaction.getTransactionId())
+                .paymentStatus(Donation.PaymentStatus.COMPLETED)
+                .purpose(purpose)
+                .donorMessage("Payment via " + transaction.getProductName())
+                .isAnonymous(false)
+                .donatedAt(LocalDateTime.now())
+                .paymentCompletedAt(LocalDateTime.now())
+                .build();
+
+        donationService.saveDonation(donationDto);
+        log.info("Donation record created for transaction: {}{}{}", transaction.getTransactionReference(),
+                projectId != null ? " (Project: " + projectId + ")" : "",
+                studentId != null ? " (Student: " + studentId + ")" : "");
+    }
+
+    // Reserve the best-ranked unsponsored student; the reservation follows the settlement transaction,
+    // so concurrent settlements are matched to different students
+    private Integer findStudentForSponsorship() {
+        return sponsorshipMatchingService.reserveForCurrentTransaction();
+    }
+
+    // Create NGO donation record from successful payment transaction
+    private void createNgoDonationFromTransaction(PaymentTransaction transaction) {
+        Integer projectId = transaction.getTargetProjectId();
+        Integer studentId = projectId == null ? transaction.getTargetStudentId() : null;
+
+        if (projectId == null && studentId == null
+                && transaction.getPurpose() == Donation.DonationPurpose.STUDENT_SPONSORSHIP) {
+            // For general student sponsorship, find a suitable student
+            studentId = findStudentForSponsorship();
+        }
+
+        // Create appropriate NGO donation record
+        if (projectId != null) {
+            createNgoProjectDonation(transaction, projectId);
+        } else if (studentId != null) {
+            createNgoStudentDonation(transaction, studentId);
+        }
+
+        log.info("NGO donation record created for transaction: {}{}{}", transaction.getTransactionReference(),
+                projectId != null ? " (Project: " + projectId + ")" : "",
+                studentId != null ? " (Student: " + studentId + ")" : "");
+    }
+
+    private void createNgoProjectDonation(PaymentTransaction transaction, Integer projectId) {
+        NgoProjectDonationsDTO donationDto = NgoProjectDonationsDTO.builder()
+                .ngoId(transaction.getNgo().getNgoId())
+                .projectId(projectId)
+                .amount(transaction.getAmount())
+                .donationType("ONE_TIME")
+                .paymentStatus("COMPLETED")
+                .transactionId(transaction.getTransactionId())
+                .message("Payment via " + transaction.getProductName())
+                .donatedAt(LocalDateTime.now())
+                .paymentCompletedAt(LocalDateTime.now())
+                .build();
+
+        ngoProjectDonationsService.create(donationDto);
+    }
+
+    private void createNgoStudentDonation(PaymentTransaction transaction, Integer studentId) {
+        NgoStudentDonationsDTO donationDto = NgoStudentDonationsDTO.builder()
+                .ngoId(transaction.getNgo().getNgoId())
+                .studentId(studentId)
+                .amount(transaction.getAmount())
+                .donationType("ONE_TIME")
+                .paymentStatus("COMPLETED")
+                .transactionId(transaction.getTransactionId())
+                .donorMessage("Payment via " + transaction.getProductName())
+                .isAnonymous(false)
+                .donatedAt(LocalDateTime.now())
+                .paymentCompletedAt(LocalDateTime.now())
+                .build();
+
+        ngoStudentDonationsService.create(donationDto);
+    }
+}
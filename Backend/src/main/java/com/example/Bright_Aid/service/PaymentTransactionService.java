@@ -1,27 +1,22 @@
 package com.example.Bright_Aid.service;
 
+import com.example.Bright_Aid.Entity.Donation;
 import com.example.Bright_Aid.Entity.Donor;
-import com.example.Bright_Aid.Entity.DonorGamification;
 import com.example.Bright_Aid.Entity.Ngo;
 import com.example.Bright_Aid.Entity.PaymentTransaction;
-import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.config.QueryCountInspector;
+import com.example.Bright_Aid.Dto.CursorPageDto;
 import com.example.Bright_Aid.Dto.PaymentTransactionDto;
-import com.example.Bright_Aid.Dto.DonationDto;
-import com.example.Bright_Aid.repository.DonorGamificationRepository;
 import com.example.Bright_Aid.repository.DonorRepository;
 import com.example.Bright_Aid.repository.NgoRepository;
 import com.example.Bright_Aid.repository.PaymentTransactionRepository;
-import com.example.Bright_Aid.repository.DonationRepository;
-import com.example.Bright_Aid.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -35,35 +30,10 @@ public class PaymentTransactionService {
     private final PaymentTransactionRepository paymentTransactionRepository;
     private final DonorRepository donorRepository;
     private final NgoRepository ngoRepository;
-    private final DonorGamificationRepository gamificationRepository;
-    private final DonationService donationService;
-    private final StudentService studentService;
-    private final DonationRepository donationRepository;
-    private final StudentRepository studentRepository;
-    private final NgoProjectDonationsService ngoProjectDonationsService;
-    private final NgoStudentDonationsService ngoStudentDonationsService;
-    
-    @Value("${sslcommerz.store.id}")
-    private String storeId;
-    
-    @Value("${sslcommerz.store.password}")
-    private String storePassword;
-    
-    @Value("${sslcommerz.sandbox.url}")
-    private String sandboxUrl;
-    
-    @Value("${sslcommerz.success.url}")
-    private String successUrl;
+    private final PaymentSettlementService paymentSettlementService;
+    private final SslCommerzGatewayClient gatewayClient;
+    private final StageMetrics stageMetrics;
     
-    @Value("${sslcommerz.fail.url}")
-    private String failUrl;
-    
-    @Value("${sslcommerz.cancel.url}")
-    private String cancelUrl;
-    
-    @Value("${sslcommerz.ipn.url}")
-    private String ipnUrl;
-
     // Create
     public PaymentTransactionDto create(PaymentTransactionDto dto) {
         Donor donor = dto.getDonorId() != null 
@@ -87,6 +57,9 @@ public class PaymentTransactionService {
                 .customerName(dto.getCustomerName())
                 .customerEmail(dto.getCustomerEmail())
                 .customerPhone(dto.getCustomerPhone())
+                .targetProjectId(dto.getTargetProjectId())
+                .targetStudentId(dto.getTargetStudentId())
+                .purpose(dto.getPurpose())
                 .initiatedAt(dto.getInitiatedAt())
                 .completedAt(dto.getCompletedAt())
                 .build();
@@ -102,6 +75,32 @@ public class PaymentTransactionService {
                 .collect(Collectors.toList());
     }
 
+    // Keyset-paginated listing with optional filters; fetches one extra row to detect a following page
+    public CursorPageDto<PaymentTransactionDto> getPage(Integer cursor, int size,
+                                                        PaymentTransaction.TransactionStatus status,
+                                                        PaymentTransaction.PaymentMethod paymentMethod,
+                                                        Integer donorId, Integer ngoId,
+                                                        LocalDate fromDate, LocalDate toDate) {
+        int pageSize = Math.max(1, Math.min(size, 200));
+        List<Object[]> rows = paymentTransactionRepository.findPage(cursor, status, paymentMethod, donorId, ngoId,
+                fromDate != null ? fromDate.atStartOfDay() : null,
+                toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PaymentTransactionDto> items = rows.stream()
+                .limit(pageSize)
+                .map(this::mapPageRow)
+                .collect(Collectors.toList());
+
+        return CursorPageDto.<PaymentTransactionDto>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? String.valueOf(items.get(items.size() - 1).getTransactionId()) : null)
+                .build();
+    }
+
     // Get by ID
     public PaymentTransactionDto getById(Integer id) {
         return paymentTransactionRepository.findById(id)
@@ -124,6 +123,9 @@ public class PaymentTransactionService {
         transaction.setCustomerName(dto.getCustomerName());
         transaction.setCustomerEmail(dto.getCustomerEmail());
         transaction.setCustomerPhone(dto.getCustomerPhone());
+        transaction.setTargetProjectId(dto.getTargetProjectId());
+        transaction.setTargetStudentId(dto.getTargetStudentId());
+        transaction.setPurpose(dto.getPurpose());
         transaction.setInitiatedAt(dto.getInitiatedAt());
         transaction.setCompletedAt(dto.getCompletedAt());
 
@@ -152,11 +154,38 @@ public class PaymentTransactionService {
                 .customerName(transaction.getCustomerName())
                 .customerEmail(transaction.getCustomerEmail())
                 .customerPhone(transaction.getCustomerPhone())
+                .targetProjectId(transaction.getTargetProjectId())
+                .targetStudentId(transaction.getTargetStudentId())
+                .purpose(transaction.getPurpose())
                 .initiatedAt(transaction.getInitiatedAt())
                 .completedAt(transaction.getCompletedAt())
                 .build();
     }
     
+    private PaymentTransactionDto mapPageRow(Object[] row) {
+        return PaymentTransactionDto.builder()
+                .transactionId((Integer) row[0])
+                .donorId((Integer) row[1])
+                .ngoId((Integer) row[2])
+                .transactionReference((String) row[3])
+                .amount((BigDecimal) row[4])
+                .currency((String) row[5])
+                .transactionType((PaymentTransaction.TransactionType) row[6])
+                .paymentMethod((PaymentTransaction.PaymentMethod) row[7])
+                .status((PaymentTransaction.TransactionStatus) row[8])
+                .gatewayResponseCode((String) row[9])
+                .gatewayResponseMessage((String) row[10])
+                .customerName((String) row[11])
+                .customerEmail((String) row[12])
+                .customerPhone((String) row[13])
+                .targetProjectId((Integer) row[14])
+                .targetStudentId((Integer) row[15])
+                .purpose((Donation.DonationPurpose) row[16])
+                .initiatedAt((LocalDateTime) row[17])
+                .completedAt((LocalDateTime) row[18])
+                .build();
+    }
+    
     // SSLCommerz Integration Methods
     public Map<String, Object> initiateSSLCommerzPayment(Integer donorId, Integer ngoId, BigDecimal amount, 
                                                         String productName, String productCategory,
@@ -206,89 +235,48 @@ public class PaymentTransactionService {
                     .customerPhone(customerPhone)
                     .productName(productName)
                     .productCategory(productCategory != null ? productCategory : "Donation")
+                    .targetProjectId(projectId)
+                    .targetStudentId(studentId)
+                    .purpose(resolvePurpose(projectId, studentId, productName))
+                    .donationType(Donation.DonationType.ONE_TIME)
                     .sessionKey("") // Initialize with empty string to avoid null constraint
                     .initiatedAt(LocalDateTime.now())
                     .build();
             
-            // Store project/student IDs in transaction for later use
-            if (projectId != null) {
-                transaction.setProductName(productName + " (Project ID: " + projectId + ")");
-            }
-            if (studentId != null) {
-                transaction.setProductName(productName + " (Student ID: " + studentId + ")");
-            }
-            
             PaymentTransaction savedTransaction = paymentTransactionRepository.save(transaction);
             System.out.println("Transaction saved with ID: " + savedTransaction.getTransactionId());
             
-            // Prepare SSLCommerz request
-            MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
-            params.add("store_id", storeId);
-            params.add("store_passwd", storePassword);
-            params.add("total_amount", amount.toString());
-            params.add("currency", "BDT");
-            params.add("tran_id", transactionRef);
-            params.add("success_url", successUrl);
-            params.add("fail_url", failUrl);
-            params.add("cancel_url", cancelUrl);
-            params.add("ipn_url", ipnUrl);
-            params.add("cus_name", customerName);
-            params.add("cus_email", customerEmail);
-            params.add("cus_add1", "Dhaka");
-            params.add("cus_city", "Dhaka");
-            params.add("cus_country", "Bangladesh");
-            params.add("cus_phone", customerPhone != null ? customerPhone : "01700000000");
-            params.add("product_name", productName);
-            params.add("product_category", productCategory != null ? productCategory : "Donation");
-            params.add("product_profile", "general");
-            params.add("shipping_method", "NO");
-            params.add("num_of_item", "1");
-            params.add("product_amount", amount.toString());
-            
-            // Call SSLCommerz API
-            RestTemplate restTemplate = new RestTemplate();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+            // Call SSLCommerz API through the pooled gateway client
+            Map<String, Object> responseBody = gatewayClient.initiateSession(transactionRef, amount,
+                    customerName, customerEmail, customerPhone, productName, productCategory);
             
-            HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(params, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(sandboxUrl, entity, Map.class);
+            String status = (String) responseBody.get("status");
             
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                String status = (String) responseBody.get("status");
+            if ("SUCCESS".equals(status)) {
+                String sessionKey = (String) responseBody.get("sessionkey");
+                String gatewayPageURL = (String) responseBody.get("GatewayPageURL");
                 
-                if ("SUCCESS".equals(status)) {
-                    String sessionKey = (String) responseBody.get("sessionkey");
-                    String gatewayPageURL = (String) responseBody.get("GatewayPageURL");
-                    
-                    // Update transaction with session key
-                    savedTransaction.setSessionKey(sessionKey);
-                    paymentTransactionRepository.save(savedTransaction);
-                    
-                    return Map.of(
-                        "status", "SUCCESS",
-                        "message", "Payment initiated successfully",
-                        "paymentUrl", gatewayPageURL,
-                        "transactionId", savedTransaction.getTransactionId(),
-                        "transactionReference", transactionRef,
-                        "sessionKey", sessionKey
-                    );
-                } else {
-                    // Return SSLCommerz error details
-                    String failedReason = (String) responseBody.get("failedreason");
-                    return Map.of(
-                        "status", "FAILED",
-                        "message", "SSLCommerz Error: " + (failedReason != null ? failedReason : "Unknown error"),
-                        "transactionId", savedTransaction.getTransactionId(),
-                        "sslcommerzResponse", responseBody
-                    );
-                }
+                // Update transaction with session key
+                savedTransaction.setSessionKey(sessionKey);
+                paymentTransactionRepository.save(savedTransaction);
+                
+                return Map.of(
+                    "status", "SUCCESS",
+                    "message", "Payment initiated successfully",
+                    "paymentUrl", gatewayPageURL,
+                    "transactionId", savedTransaction.getTransactionId(),
+                    "transactionReference", transactionRef,
+                    "sessionKey", sessionKey
+                );
             }
             
+            // Return SSLCommerz error details
+            String failedReason = (String) responseBody.get("failedreason");
             return Map.of(
                 "status", "FAILED",
-                "message", "No response from SSLCommerz or HTTP error: " + response.getStatusCode(),
-                "transactionId", savedTransaction.getTransactionId()
+                "message", "SSLCommerz Error: " + (failedReason != null ? failedReason : "Unknown error"),
+                "transactionId", savedTransaction.getTransactionId(),
+                "sslcommerzResponse", responseBody
             );
             
         } catch (Exception e) {
@@ -301,281 +289,82 @@ public class PaymentTransactionService {
         }
     }
     
-    public PaymentTransaction getByTransactionReference(String transactionReference) {
-        return paymentTransactionRepository.findByTransactionReference(transactionReference).orElse(null);
-    }
-    
-    public void updatePaymentStatus(String transactionReference, String status, Map<String, String> additionalData) {
-        PaymentTransaction transaction = paymentTransactionRepository.findByTransactionReference(transactionReference).orElse(null);
-        if (transaction != null) {
-            switch (status.toUpperCase()) {
-                case "VALID":
-                case "VALIDATED":
-                    transaction.setStatus(PaymentTransaction.TransactionStatus.SUCCESS);
-                    transaction.setCompletedAt(LocalDateTime.now());
-                    
-                    // Create donation record for successful payment
-                    if (transaction.getDonor() != null) {
-                        createDonationFromTransaction(transaction);
-                        awardPointsForDonation(transaction.getDonor(), transaction.getAmount());
-                    } else if (transaction.getNgo() != null) {
-                        createNgoDonationFromTransaction(transaction);
-                    }
-                    break;
-                case "FAILED":
-                    transaction.setStatus(PaymentTransaction.TransactionStatus.FAILED);
-                    break;
-                case "CANCELLED":
-                    transaction.setStatus(PaymentTransaction.TransactionStatus.CANCELLED);
-                    break;
-            }
-            
-            if (additionalData != null) {
-                transaction.setBankTransactionId(additionalData.get("bank_tran_id"));
-                transaction.setCardType(additionalData.get("card_type"));
-                transaction.setCardNo(additionalData.get("card_no"));
-                transaction.setGatewayResponseCode(additionalData.get("status"));
-                transaction.setGatewayResponseMessage(additionalData.get("risk_title"));
-            }
-            
-            paymentTransactionRepository.save(transaction);
+    // Payment intent stored with the transaction; a "Student Sponsorship" without a student
+    // is matched to a student at settlement time
+    private Donation.DonationPurpose resolvePurpose(Integer projectId, Integer studentId, String productName) {
+        if (projectId != null) {
+            return Donation.DonationPurpose.SCHOOL_PROJECT;
         }
-    }
-    
-    // Automatic Point System: 1 BDT = 5 Points (৳100 = 500 points)
-    private void awardPointsForDonation(Donor donor, BigDecimal amount) {
-        try {
-            // Convert to int first, then multiply by 5 for exact calculation
-            int pointsToAward = amount.intValue() * 5;
-            
-            DonorGamification gamification = gamificationRepository.findByDonorDonorId(donor.getDonorId())
-                    .orElse(DonorGamification.builder()
-                            .donor(donor)
-                            .totalPoints(0)
-                            .impactScore(0.0)
-                            .lastUpdated(LocalDateTime.now())
-                            .build());
-            
-            // Add new points
-            gamification.setTotalPoints(gamification.getTotalPoints() + pointsToAward);
-            
-            // Update level based on total points
-          
-            
-            // Update badges
-            List<String> badges = calculateBadges(gamification.getTotalPoints());
-            gamification.setBadgesEarned(badges);
-            
-            gamification.setLastUpdated(LocalDateTime.now());
-            
-            gamificationRepository.save(gamification);
-            
-        } catch (Exception e) {
-            // Log error but don't fail payment
-            System.err.println("Error awarding points: " + e.getMessage());
+        if (studentId != null || (productName != null && productName.contains("Student Sponsorship"))) {
+            return Donation.DonationPurpose.STUDENT_SPONSORSHIP;
         }
+        return Donation.DonationPurpose.GENERAL_SUPPORT;
     }
     
-    private String calculateLevel(int totalPoints) {
-        if (totalPoints >= 100000) return "Diamond";      // ৳10,000+
-        if (totalPoints >= 50000) return "Platinum";     // ৳5,000+
-        if (totalPoints >= 25000) return "Gold";         // ৳2,000+ 
-        if (totalPoints >= 10000) return "Silver";        // ৳500+
-        return "Bronze";                                  // < ৳500
+    public PaymentTransaction getByTransactionReference(String transactionReference) {
+        return paymentTransactionRepository.findByTransactionReference(transactionReference).orElse(null);
     }
     
-    private List<String> calculateBadges(int totalPoints) {
-        List<String> badges = new java.util.ArrayList<>();
+    // Callbacks are idempotent: the first transition is claimed with a conditional UPDATE,
+    // repeated success redirects / IPNs for the same tran_id short-circuit without further work
+    @Transactional
+    public void updatePaymentStatus(String transactionReference, String status, Map<String, String> additionalData) {
+        long start = System.nanoTime();
+        long queriesBefore = QueryCountInspector.current();
+        PaymentTransaction.TransactionStatus newStatus;
+        List<PaymentTransaction.TransactionStatus> fromStatuses;
+        switch (status.toUpperCase()) {
+            case "VALID":
+            case "VALIDATED":
+                newStatus = PaymentTransaction.TransactionStatus.SUCCESS;
+                // A success that arrives after reconciliation expired the row was still paid
+                fromStatuses = List.of(PaymentTransaction.TransactionStatus.PENDING,
+                        PaymentTransaction.TransactionStatus.FAILED,
+                        PaymentTransaction.TransactionStatus.CANCELLED,
+                        PaymentTransaction.TransactionStatus.EXPIRED);
+                break;
+            case "FAILED":
+                newStatus = PaymentTransaction.TransactionStatus.FAILED;
+                fromStatuses = List.of(PaymentTransaction.TransactionStatus.PENDING);
+                break;
+            case "CANCELLED":
+                newStatus = PaymentTransaction.TransactionStatus.CANCELLED;
+                fromStatuses = List.of(PaymentTransaction.TransactionStatus.PENDING);
+                break;
+            default:
+                return;
+        }
         
-        if (totalPoints >= 500) badges.add("First Donor");        // ৳100
-        if (totalPoints >= 2500) badges.add("Generous Heart");    // ৳500
-        if (totalPoints >= 5000) badges.add("Education Champion"); // ৳1,000
-        if (totalPoints >= 10000) badges.add("School Builder");   // ৳2,000
-        if (totalPoints >= 25000) badges.add("Community Hero");   // ৳5,000
-        if (totalPoints >= 50000) badges.add("BrightAid Legend"); // ৳10,000
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, String> data = additionalData != null ? additionalData : Map.of();
+        int claimed = paymentTransactionRepository.transitionStatus(transactionReference, fromStatuses, newStatus,
+                newStatus == PaymentTransaction.TransactionStatus.SUCCESS ? now : null,
+                data.get("bank_tran_id"), data.get("card_type"), data.get("card_no"),
+                data.get("status"), data.get("risk_title"), now);
         
-        return badges;
-    }
-    
-    // Create donation record from successful payment transaction
-    private void createDonationFromTransaction(PaymentTransaction transaction) {
-        try {
-            // Extract project/student IDs from product name
-            Integer projectId = null;
-            Integer studentId = null;
-            Donation.DonationPurpose purpose = Donation.DonationPurpose.GENERAL_SUPPORT;
-            
-            String productName = transaction.getProductName();
-            if (productName != null) {
-                if (productName.contains("Project ID:")) {
-                    String[] parts = productName.split("Project ID: ");
-                    if (parts.length > 1) {
-                        String idPart = parts[1].replace(")", "");
-                        projectId = Integer.parseInt(idPart);
-                        purpose = Donation.DonationPurpose.SCHOOL_PROJECT;
-                    }
-                } else if (productName.contains("Student ID:")) {
-                    String[] parts = productName.split("Student ID: ");
-                    if (parts.length > 1) {
-                        String idPart = parts[1].replace(")", "");
-                        studentId = Integer.parseInt(idPart);
-                        purpose = Donation.DonationPurpose.STUDENT_SPONSORSHIP;
-                    }
-                } else if (productName.contains("Student Sponsorship") && studentId == null) {
-                    // For general student sponsorship, find a suitable student
-                    studentId = findStudentForSponsorship();
-                    if (studentId != null) {
-                        purpose = Donation.DonationPurpose.STUDENT_SPONSORSHIP;
-                    }
-                }
-            }
-            
-            DonationDto donationDto = DonationDto.builder()
-                    .donorId(transaction.getDonor().getDonorId())
-                    .projectId(projectId)
-                    .studentId(studentId)
-                    .amount(transaction.getAmount())
-                    .donationType(Donation.DonationType.ONE_TIME)
-                    .transactionId(transaction.getTransactionId())
-                    .paymentStatus(Donation.PaymentStatus.COMPLETED)
-                    .purpose(purpose)
-                    .donorMessage("Payment via " + transaction.getProductName())
-                    .isAnonymous(false)
-                    .donatedAt(LocalDateTime.now())
-                    .paymentCompletedAt(LocalDateTime.now())
-                    .build();
-            
-            donationService.saveDonation(donationDto);
-            System.out.println("Donation record created for transaction: " + transaction.getTransactionReference() + 
-                             (projectId != null ? " (Project: " + projectId + ")" : "") +
-                             (studentId != null ? " (Student: " + studentId + ")" : ""));
-            
-        } catch (Exception e) {
-            System.err.println("Error creating donation record: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    // Find a suitable student for sponsorship using updated logic that excludes monthly recipients
-    private Integer findStudentForSponsorship() {
-        try {
-            // Get students who already received scholarships this month from ALL sources (donors + NGOs)
-            List<Integer> excludedStudentIds = donationRepository.findAllStudentIdsWithScholarshipThisMonth();
-            System.out.println("Students who received scholarships this month from all sources: " + excludedStudentIds);
-            
-            // Get all high-risk students (more than 1 to have options)
-            List<com.example.Bright_Aid.Dto.StudentDto> allHighRiskStudents = studentService.getHighRiskStudentsForSponsorship(10);
-            
-            // Filter out students who already received scholarships this month
-            for (com.example.Bright_Aid.Dto.StudentDto student : allHighRiskStudents) {
-                if (!excludedStudentIds.contains(student.getStudentId())) {
-                    System.out.println("Selected student ID " + student.getStudentId() + " for sponsorship (not in excluded list)");
-                    return student.getStudentId();
-                }
-            }
-            
-            System.out.println("All high-risk students have received scholarships this month, using fallback");
-            // Fallback to original method if all high-risk students already received scholarships
-            com.example.Bright_Aid.Dto.StudentDto student = studentService.findMostSuitableStudentForSponsorship();
-            return student != null ? student.getStudentId() : null;
-        } catch (Exception e) {
-            System.err.println("Error finding student for sponsorship: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+        if (claimed == 0) {
+            // Unknown reference or already processed by an earlier callback
+            stageMetrics.record("callback.duplicate", System.nanoTime() - start,
+                    QueryCountInspector.current() - queriesBefore);
+            return;
         }
-    }
-    
-    // Create NGO donation record from successful payment transaction
-    private void createNgoDonationFromTransaction(PaymentTransaction transaction) {
-        try {
-            // Extract project/student IDs from product name
-            Integer projectId = null;
-            Integer studentId = null;
-            
-            String productName = transaction.getProductName();
-            if (productName != null) {
-                if (productName.contains("Project ID:")) {
-                    String[] parts = productName.split("Project ID: ");
-                    if (parts.length > 1) {
-                        String idPart = parts[1].replace(")", "");
-                        projectId = Integer.parseInt(idPart);
-                    }
-                } else if (productName.contains("Student ID:")) {
-                    String[] parts = productName.split("Student ID: ");
-                    if (parts.length > 1) {
-                        String idPart = parts[1].replace(")", "");
-                        studentId = Integer.parseInt(idPart);
-                    }
-                } else if (productName.contains("Student Sponsorship") && studentId == null) {
-                    // For general student sponsorship, find a suitable student
-                    studentId = findStudentForSponsorship();
-                }
-            }
-            
-            // Create appropriate NGO donation record
-            if (projectId != null) {
-                // Create NGO project donation
-                createNgoProjectDonation(transaction, projectId);
-            } else if (studentId != null) {
-                // Create NGO student donation
-                createNgoStudentDonation(transaction, studentId);
-            }
-            
-            System.out.println("NGO donation record created for transaction: " + transaction.getTransactionReference() + 
-                             (projectId != null ? " (Project: " + projectId + ")" : "") +
-                             (studentId != null ? " (Student: " + studentId + ")" : ""));
-            
-        } catch (Exception e) {
-            System.err.println("Error creating NGO donation record: " + e.getMessage());
-            e.printStackTrace();
+        
+        if (newStatus == PaymentTransaction.TransactionStatus.SUCCESS) {
+            // Donation record and points are created by the settlement workers after commit
+            paymentTransactionRepository.findTransactionIdByTransactionReference(transactionReference)
+                    .ifPresent(paymentSettlementService::submitAfterCommit);
         }
+        stageMetrics.record("callback.status-update", System.nanoTime() - start,
+                QueryCountInspector.current() - queriesBefore);
     }
     
-    private void createNgoProjectDonation(PaymentTransaction transaction, Integer projectId) {
-        try {
-            com.example.Bright_Aid.Dto.NgoProjectDonationsDTO donationDto = com.example.Bright_Aid.Dto.NgoProjectDonationsDTO.builder()
-                    .ngoId(transaction.getNgo().getNgoId())
-                    .projectId(projectId)
-                    .amount(transaction.getAmount())
-                    .donationType("ONE_TIME")
-                    .paymentStatus("COMPLETED")
-                    .transactionId(transaction.getTransactionId())
-                    .message("Payment via " + transaction.getProductName())
-                    .donatedAt(LocalDateTime.now())
-                    .paymentCompletedAt(LocalDateTime.now())
-                    .build();
-            
-            ngoProjectDonationsService.create(donationDto);
-            System.out.println("Created NGO project donation: NGO " + transaction.getNgo().getNgoId() + 
-                              " -> Project " + projectId + " Amount: " + transaction.getAmount());
-        } catch (Exception e) {
-            System.err.println("Error creating NGO project donation: " + e.getMessage());
-            e.printStackTrace();
-        }
+    // Settlement pipeline queue depth and per-stage latency
+    public Map<String, Object> getSettlementStats() {
+        return paymentSettlementService.getStats();
     }
     
-    private void createNgoStudentDonation(PaymentTransaction transaction, Integer studentId) {
-        try {
-            com.example.Bright_Aid.Dto.NgoStudentDonationsDTO donationDto = com.example.Bright_Aid.Dto.NgoStudentDonationsDTO.builder()
-                    .ngoId(transaction.getNgo().getNgoId())
-                    .studentId(studentId)
-                    .amount(transaction.getAmount())
-                    .donationType("ONE_TIME")
-                    .paymentStatus("COMPLETED")
-                    .transactionId(transaction.getTransactionId())
-                    .donorMessage("Payment via " + transaction.getProductName())
-                    .isAnonymous(false)
-                    .donatedAt(LocalDateTime.now())
-                    .paymentCompletedAt(LocalDateTime.now())
-                    .build();
-            
-            ngoStudentDonationsService.create(donationDto);
-            System.out.println("Created NGO student donation: NGO " + transaction.getNgo().getNgoId() + 
-                              " -> Student " + studentId + " Amount: " + transaction.getAmount());
-        } catch (Exception e) {
-            System.err.println("Error creating NGO student donation: " + e.getMessage());
-            e.printStackTrace();
-        }
+    // Gateway connection pool usage and circuit breaker state
+    public Map<String, Object> getGatewayStats() {
+        return gatewayClient.getStats();
     }
-   
-}
\ No newline at end of file
+}
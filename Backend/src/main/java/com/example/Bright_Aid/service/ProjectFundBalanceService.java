@@ -0,0 +1,190 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.AvailableDonationDto;
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import com.example.Bright_Aid.Entity.DonationLedgerEntry;
+import com.example.Bright_Aid.repository.ProjectFundBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains project_fund_balances, the remaining amount of every completed project donation
+ * Balances are opened by the project-fund-balances outbox subscriber and drawn down by fund utilizations
+ * with a conditional decrement, so two concurrent allocations can never take a donation below zero;
+ * every later donation write re-syncs its balance in the same transaction via syncWithLedger
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectFundBalanceService {
+
+    public static final String SUBSCRIBER_NAME = "project-fund-balances";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProjectFundBalanceRepository projectFundBalanceRepository;
+
+    public List<AvailableDonationDto> getAvailableDonations(Integer projectId) {
+        return projectFundBalanceRepository.findAvailableByProject(projectId).stream()
+                .map(result -> AvailableDonationDto.builder()
+                        .donationId((Integer) result[0])
+                        .donorName((String) result[1])
+                        .amount(result[2] != null ? new BigDecimal(result[2].toString()) : BigDecimal.ZERO)
+                        .utilizedAmount(result[3] != null ? new BigDecimal(result[3].toString()) : BigDecimal.ZERO)
+                        .remainingAmount(result[4] != null ? new BigDecimal(result[4].toString()) : BigDecimal.ZERO)
+                        .donatedAt(result[5] != null ? ((Timestamp) result[5]).toLocalDateTime() : null)
+                        .source(DonationLedgerEntry.Source.DONOR.name().equals(result[6]) ? "Donor" : "NGO")
+                        .sourceType((String) result[6])
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Open a balance for every completed project donation in the batch; the row is copied from
+     * donation_ledger, which was written in the transaction that completed the donation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyCompleted(List<DonationCompletedEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = events.stream()
+                .filter(event -> !event.isReversal() && event.getProjectId() != null)
+                .map(event -> new Object[]{now, event.getSource(), event.getDonationId()})
+                .collect(Collectors.toList());
+        if (args.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO project_fund_balances (source, source_donation_id, project_id, donor_id, ngo_id, amount, " +
+                "utilized_amount, remaining_amount, donated_at, updated_at) " +
+                "SELECT l.source, l.source_donation_id, l.project_id, l.donor_id, l.ngo_id, l.amount, 0, l.amount, l.donated_at, ? " +
+                "FROM donation_ledger l WHERE l.source = ? AND l.source_donation_id = ? AND l.project_id IS NOT NULL " +
+                "AND l.payment_status = 'COMPLETED' " +
+                "ON DUPLICATE KEY UPDATE updated_at = updated_at", args);
+    }
+
+    /**
+     * Bring an opened balance in line with its ledger row; called right after the ledger write
+     * A donation that was deleted, left COMPLETED or lost its project closes its balance, and an amount or
+     * project change resets it; both are refused once part of the donation has been utilized
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void syncWithLedger(DonationLedgerEntry.Source source, Integer sourceDonationId) {
+        Balance balance = jdbcTemplate.query(
+                "SELECT project_id, amount, utilized_amount FROM project_fund_balances " +
+                "WHERE source = ? AND source_donation_id = ? FOR UPDATE",
+                rs -> rs.next() ? new Balance(rs.getInt(1), rs.getBigDecimal(2), rs.getBigDecimal(3)) : null,
+                source.name(), sourceDonationId);
+        if (balance == null) {
+            // Not opened yet; the pending outbox event opens it from the ledger as it is then
+            return;
+        }
+        Balance current = jdbcTemplate.query(
+                "SELECT project_id, amount FROM donation_ledger " +
+                "WHERE source = ? AND source_donation_id = ? AND payment_status = 'COMPLETED' AND project_id IS NOT NULL",
+                rs -> rs.next() ? new Balance(rs.getInt(1), rs.getBigDecimal(2), BigDecimal.ZERO) : null,
+                source.name(), sourceDonationId);
+        boolean utilized = balance.utilized().signum() > 0;
+
+        if (current == null) {
+            if (utilized) {
+                throw new RuntimeException("Donation " + sourceDonationId + " has " + balance.utilized()
+                        + " allocated to fund utilizations and can no longer be deleted or moved out of COMPLETED");
+            }
+            jdbcTemplate.update("DELETE FROM project_fund_balances WHERE source = ? AND source_donation_id = ?",
+                    source.name(), sourceDonationId);
+            return;
+        }
+        if (balance.projectId().equals(current.projectId()) && balance.amount().compareTo(current.amount()) == 0) {
+            return;
+        }
+        if (utilized) {
+            throw new RuntimeException("Donation " + sourceDonationId + " has " + balance.utilized()
+                    + " allocated to fund utilizations; its amount and project can no longer be changed");
+        }
+        jdbcTemplate.update(
+                "UPDATE project_fund_balances b JOIN donation_ledger l " +
+                "ON l.source = b.source AND l.source_donation_id = b.source_donation_id " +
+                "SET b.project_id = l.project_id, b.donor_id = l.donor_id, b.ngo_id = l.ngo_id, b.amount = l.amount, " +
+                "b.remaining_amount = l.amount, b.updated_at = ? " +
+                "WHERE b.source = ? AND b.source_donation_id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), source.name(), sourceDonationId);
+    }
+
+    /**
+     * Draw an amount from one donation's balance for a utilization of the given project
+     * The decrement only applies while enough remains, so concurrent allocations serialize on the row
+     * and the loser fails instead of over-drawing
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consume(DonationLedgerEntry.Source source, Integer sourceDonationId, Integer projectId, BigDecimal amount) {
+        int updated = jdbcTemplate.update(
+                "UPDATE project_fund_balances SET utilized_amount = utilized_amount + ?, " +
+                "remaining_amount = remaining_amount - ?, updated_at = ? " +
+                "WHERE source = ? AND source_donation_id = ? AND project_id = ? AND remaining_amount >= ?",
+                amount, amount, Timestamp.valueOf(LocalDateTime.now()), source.name(), sourceDonationId, projectId, amount);
+        if (updated == 0) {
+            BigDecimal remaining = jdbcTemplate.query(
+                    "SELECT remaining_amount FROM project_fund_balances WHERE source = ? AND source_donation_id = ? AND project_id = ?",
+                    rs -> rs.next() ? rs.getBigDecimal(1) : null, source.name(), sourceDonationId, projectId);
+            if (remaining == null) {
+                throw new RuntimeException("No completed donation " + sourceDonationId + " found for project " + projectId);
+            }
+            throw new RuntimeException("Insufficient remaining funds in donation " + sourceDonationId
+                    + ": requested " + amount + ", remaining " + remaining);
+        }
+    }
+
+    /**
+     * Recompute every balance from donation_ledger and fund_utilization
+     * Locks the undelivered outbox tail like the aggregate rebuild, so completions are not opened twice
+     */
+    @Transactional
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        Long firstOpen = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MIN(event_id), (SELECT COALESCE(MAX(event_id), 0) + 1 FROM outbox_events)) " +
+                "FROM outbox_events WHERE status <> 'DONE'", Long.class);
+        jdbcTemplate.query("SELECT event_id FROM outbox_events WHERE event_id >= ? FOR UPDATE", rs -> { }, firstOpen);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(
+                "INSERT IGNORE INTO outbox_deliveries (event_id, subscriber, delivered_at) " +
+                "SELECT event_id, ?, ? FROM outbox_events WHERE event_id >= ? AND status <> 'DONE'",
+                SUBSCRIBER_NAME, now, firstOpen);
+
+        jdbcTemplate.update("DELETE FROM project_fund_balances");
+        int balances = jdbcTemplate.update(
+                "INSERT INTO project_fund_balances (source, source_donation_id, project_id, donor_id, ngo_id, amount, " +
+                "utilized_amount, remaining_amount, donated_at, updated_at) " +
+                "SELECT l.source, l.source_donation_id, l.project_id, l.donor_id, l.ngo_id, l.amount, " +
+                "COALESCE(u.used, 0), l.amount - COALESCE(u.used, 0), l.donated_at, ? " +
+                "FROM donation_ledger l " +
+                "LEFT JOIN (" +
+                "  SELECT 'DONOR' AS source, donation_id AS source_donation_id, SUM(amount_used) AS used " +
+                "  FROM fund_utilization WHERE donation_id IS NOT NULL GROUP BY donation_id " +
+                "  UNION ALL " +
+                "  SELECT 'NGO_PROJECT', ngo_project_donation_id, SUM(amount_used) " +
+                "  FROM fund_utilization WHERE ngo_project_donation_id IS NOT NULL GROUP BY ngo_project_donation_id" +
+                ") u ON u.source = l.source AND u.source_donation_id = l.source_donation_id " +
+                "WHERE l.project_id IS NOT NULL AND l.payment_status = 'COMPLETED'", now);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("balances", balances);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        log.info("Project fund balances rebuilt: {}", result);
+        return result;
+    }
+
+    private record Balance(Integer projectId, BigDecimal amount, BigDecimal utilized) {
+    }
+}
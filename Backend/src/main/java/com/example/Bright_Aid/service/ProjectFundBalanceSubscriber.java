@@ -0,0 +1,27 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Opens a project fund balance for every completed donor or NGO project donation
+@Component
+@Order(6)
+@RequiredArgsConstructor
+public class ProjectFundBalanceSubscriber implements DonationCompletedSubscriber {
+
+    private final ProjectFundBalanceService projectFundBalanceService;
+
+    @Override
+    public String name() {
+        return ProjectFundBalanceService.SUBSCRIBER_NAME;
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        projectFundBalanceService.applyCompleted(events);
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.RecurringChargeDto;
+import com.example.Bright_Aid.Dto.RecurringDonationScheduleDto;
+import com.example.Bright_Aid.Entity.Donation;
+import com.example.Bright_Aid.Entity.Donor;
+import com.example.Bright_Aid.Entity.PaymentTransaction;
+import com.example.Bright_Aid.Entity.RecurringDonationSchedule;
+import com.example.Bright_Aid.repository.DonorRepository;
+import com.example.Bright_Aid.repository.RecurringDonationScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring (MONTHLY / YEARLY) donations
+ * Each run claims due schedules one page at a time: the page's PaymentTransaction rows are inserted and
+ * the schedules advanced in one short transaction, then the gateway sessions are opened outside of it
+ * with bounded parallelism. The gateway has no stored-card charging, so each charge keeps its hosted
+ * checkout URL and is listed as a due payment for the donor to complete; settlement happens through
+ * the normal callback path. A schedule is not charged again while its previous charge is still pending.
+ * A charge whose session cannot be opened is failed and its schedule put back to the claimed date, so the
+ * period is retried by the next run; charges stranded without a URL by a crash are re-opened first.
+ */
+@Service
+@Slf4j
+public class RecurringDonationService {
+
+    private final RecurringDonationScheduleRepository scheduleRepository;
+    private final DonorRepository donorRepository;
+    private final SslCommerzGatewayClient gatewayClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${recurring.donation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recurring.donation.page-size:500}")
+    private int pageSize;
+
+    @Value("${recurring.donation.max-pages-per-run:200}")
+    private int maxPagesPerRun;
+
+    @Value("${recurring.donation.stranded-after-minutes:15}")
+    private long strandedAfterMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalCharges = new AtomicLong();
+    private final AtomicLong totalInitiated = new AtomicLong();
+    private final AtomicLong totalGatewayFailures = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public RecurringDonationService(RecurringDonationScheduleRepository scheduleRepository,
+                                    DonorRepository donorRepository,
+                                    SslCommerzGatewayClient gatewayClient,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Qualifier("recurringChargeExecutor") ThreadPoolTaskExecutor executor) {
+        this.scheduleRepository = scheduleRepository;
+        this.donorRepository = donorRepository;
+        this.gatewayClient = gatewayClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+    }
+
+    @Transactional
+    public RecurringDonationScheduleDto createSchedule(RecurringDonationScheduleDto dto) {
+        if (dto.getFrequency() != Donation.DonationType.MONTHLY && dto.getFrequency() != Donation.DonationType.YEARLY) {
+            throw new RuntimeException("Recurring donations must be MONTHLY or YEARLY");
+        }
+        if (dto.getAmount() == null || dto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        Donor donor = donorRepository.findById(dto.getDonorId())
+                .orElseThrow(() -> new RuntimeException("Donor not found with ID: " + dto.getDonorId()));
+
+        Donation.DonationPurpose purpose = dto.getPurpose();
+        if (dto.getTargetProjectId() != null) {
+            purpose = Donation.DonationPurpose.SCHOOL_PROJECT;
+        } else if (dto.getTargetStudentId() != null) {
+            purpose = Donation.DonationPurpose.STUDENT_SPONSORSHIP;
+        } else if (purpose == null) {
+            purpose = Donation.DonationPurpose.GENERAL_SUPPORT;
+        }
+
+        RecurringDonationSchedule schedule = RecurringDonationSchedule.builder()
+                .donor(donor)
+                .amount(dto.getAmount())
+                .frequency(dto.getFrequency())
+                .purpose(purpose)
+                .targetProjectId(dto.getTargetProjectId())
+                .targetStudentId(dto.getTargetStudentId())
+                .productName(dto.getProductName() != null ? dto.getProductName() : "Recurring Donation")
+                .status(RecurringDonationSchedule.ScheduleStatus.ACTIVE)
+                .nextRunDate(dto.getNextRunDate() != null ? dto.getNextRunDate() : LocalDate.now())
+                .build();
+
+        return toDTO(scheduleRepository.save(schedule));
+    }
+
+    public List<RecurringDonationScheduleDto> getSchedulesByDonor(Integer donorId) {
+        return scheduleRepository.findByDonorDonorId(donorId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public RecurringDonationScheduleDto updateStatus(Integer scheduleId, RecurringDonationSchedule.ScheduleStatus status) {
+        RecurringDonationSchedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Recurring schedule not found with ID: " + scheduleId));
+        schedule.setStatus(status);
+        return toDTO(scheduleRepository.save(schedule));
+    }
+
+    /**
+     * Pending recurring charges of a donor with the checkout URL to pay them, oldest first
+     */
+    public List<RecurringChargeDto> getDuePayments(Integer donorId) {
+        return jdbcTemplate.query(
+                "SELECT transaction_id, transaction_reference, recurring_schedule_id, amount, product_name, " +
+                "gateway_page_url, initiated_at FROM payment_transactions " +
+                "WHERE donor_id = ? AND recurring_schedule_id IS NOT NULL AND status = 'PENDING' " +
+                "AND gateway_page_url IS NOT NULL ORDER BY transaction_id",
+                (rs, rowNum) -> RecurringChargeDto.builder()
+                        .transactionId(rs.getInt("transaction_id"))
+                        .transactionReference(rs.getString("transaction_reference"))
+                        .scheduleId(rs.getInt("recurring_schedule_id"))
+                        .amount(rs.getBigDecimal("amount"))
+                        .productName(rs.getString("product_name"))
+                        .paymentUrl(rs.getString("gateway_page_url"))
+                        .initiatedAt(rs.getTimestamp("initiated_at").toLocalDateTime())
+                        .build(),
+                donorId);
+    }
+
+    @Scheduled(cron = "${recurring.donation.cron:0 0 6 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            runDueCharges();
+        }
+    }
+
+    /**
+     * Charge every schedule due today or earlier; returns the run summary, or the last one if a run is in progress
+     */
+    public Map<String, Object> runDueCharges() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Recurring donation run already in progress, skipping");
+            return lastRun;
+        }
+        try {
+            long start = System.nanoTime();
+            LocalDate today = LocalDate.now();
+            Timestamp runStart = Timestamp.valueOf(LocalDateTime.now());
+            int pages = 0;
+            long charges = 0;
+            long initiated = 0;
+            long gatewayFailures = 0;
+
+            // Charges stranded by a crash between the claim commit and the session update go first
+            List<PendingCharge> stranded = findStranded(runStart);
+            int recovered = stranded.isEmpty() ? 0 : openGatewaySessions(stranded);
+            gatewayFailures += stranded.size() - recovered;
+
+            while (pages < maxPagesPerRun) {
+                List<PendingCharge> page = transactionTemplate.execute(status -> claimDuePage(today, runStart));
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                pages++;
+                charges += page.size();
+
+                int opened = openGatewaySessions(page);
+                initiated += opened;
+                gatewayFailures += page.size() - opened;
+
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+
+            totalCharges.addAndGet(charges);
+            totalInitiated.addAndGet(initiated);
+            totalGatewayFailures.addAndGet(gatewayFailures);
+
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("runDate", today);
+            summary.put("pages", pages);
+            summary.put("charges", charges);
+            summary.put("initiated", initiated);
+            summary.put("recovered", recovered);
+            summary.put("gatewayFailures", gatewayFailures);
+            summary.put("durationSeconds", seconds);
+            summary.put("chargesPerSecond", seconds > 0 ? charges / seconds : 0.0);
+            lastRun = summary;
+
+            if (charges > 0) {
+                log.info("Recurring donation run created {} charges in {} pages ({} gateway failures)",
+                        charges, pages, gatewayFailures);
+            }
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("dueSchedules", jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM recurring_donation_schedules WHERE status = 'ACTIVE' AND next_run_date <= ?",
+                Long.class, Date.valueOf(LocalDate.now())));
+        stats.put("totalCharges", totalCharges.get());
+        stats.put("totalInitiated", totalInitiated.get());
+        stats.put("totalGatewayFailures", totalGatewayFailures.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    // Lock one page of due schedules, insert their transactions and advance them, all in one short transaction.
+    // Advanced schedules drop out of the due range, so the next page query needs no offset. Schedules whose
+    // last charge is still pending stay due and are picked up once it is paid or expired by reconciliation;
+    // schedules put back after a gateway failure in this run wait for the next run.
+    private List<PendingCharge> claimDuePage(LocalDate today, Timestamp runStart) {
+        List<PendingCharge> charges = jdbcTemplate.query(
+                "SELECT s.schedule_id, s.donor_id, s.amount, s.frequency, s.purpose, s.target_project_id, " +
+                "s.target_student_id, s.product_name, s.next_run_date, d.donor_name, u.email, up.phone " +
+                "FROM recurring_donation_schedules s " +
+                "JOIN donors d ON d.donor_id = s.donor_id " +
+                "JOIN users u ON u.user_id = d.user_id " +
+                "LEFT JOIN user_profiles up ON up.user_id = u.user_id " +
+                "WHERE s.status = 'ACTIVE' AND s.next_run_date <= ? " +
+                "AND NOT EXISTS (SELECT 1 FROM payment_transactions p " +
+                "  WHERE p.recurring_schedule_id = s.schedule_id AND (p.status = 'PENDING' OR p.created_at >= ?)) " +
+                "ORDER BY s.next_run_date, s.schedule_id LIMIT ? " +
+                "FOR UPDATE OF s SKIP LOCKED",
+                (rs, rowNum) -> new PendingCharge(
+                        rs.getInt("schedule_id"),
+                        rs.getInt("donor_id"),
+                        rs.getBigDecimal("amount"),
+                        Donation.DonationType.valueOf(rs.getString("frequency")),
+                        rs.getString("purpose"),
+                        (Integer) rs.getObject("target_project_id"),
+                        (Integer) rs.getObject("target_student_id"),
+                        rs.getString("product_name") != null ? rs.getString("product_name") : "Recurring Donation",
+                        rs.getDate("next_run_date").toLocalDate(),
+                        "REC_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16),
+                        rs.getString("donor_name"),
+                        rs.getString("email"),
+                        rs.getString("phone")),
+                Date.valueOf(today), runStart, pageSize);
+        if (charges.isEmpty()) {
+            return charges;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO payment_transactions (donor_id, transaction_reference, amount, currency, transaction_type, " +
+                "payment_method, status, customer_name, customer_email, customer_phone, product_name, product_category, " +
+                "session_key, target_project_id, target_student_id, purpose, donation_type, recurring_schedule_id, " +
+                "initiated_at, created_at, updated_at) " +
+                "VALUES (?, ?, ?, 'BDT', 'DONATION', 'CARD', 'PENDING', ?, ?, ?, ?, 'Recurring Donation', '', ?, ?, ?, ?, ?, ?, ?, ?)",
+                charges,
+                charges.size(),
+                (ps, charge) -> {
+                    ps.setInt(1, charge.donorId);
+                    ps.setString(2, charge.transactionReference);
+                    ps.setBigDecimal(3, charge.amount);
+                    ps.setString(4, charge.customerName);
+                    ps.setString(5, charge.customerEmail);
+                    ps.setString(6, charge.customerPhone);
+                    ps.setString(7, charge.productName);
+                    ps.setObject(8, charge.targetProjectId);
+                    ps.setObject(9, charge.targetStudentId);
+                    ps.setString(10, charge.purpose);
+                    ps.setString(11, charge.frequency.name());
+                    ps.setInt(12, charge.scheduleId);
+                    ps.setTimestamp(13, now);
+                    ps.setTimestamp(14, now);
+                    ps.setTimestamp(15, now);
+                });
+
+        jdbcTemplate.batchUpdate(
+                "UPDATE recurring_donation_schedules SET next_run_date = ?, last_run_at = ?, updated_at = ? WHERE schedule_id = ?",
+                charges,
+                charges.size(),
+                (ps, charge) -> {
+                    ps.setDate(1, Date.valueOf(nextRunDate(charge.nextRunDate, charge.frequency, today)));
+                    ps.setTimestamp(2, now);
+                    ps.setTimestamp(3, now);
+                    ps.setInt(4, charge.scheduleId);
+                });
+        return charges;
+    }
+
+    // Pending recurring charges that never got a checkout URL; the claimed date is not stored, so a schedule
+    // whose session fails again is put back to the day the charge was claimed, which is due by the next run
+    private List<PendingCharge> findStranded(Timestamp runStart) {
+        return jdbcTemplate.query(
+                "SELECT recurring_schedule_id, donor_id, amount, donation_type, purpose, target_project_id, " +
+                "target_student_id, product_name, created_at, transaction_reference, customer_name, customer_email, " +
+                "customer_phone FROM payment_transactions " +
+                "WHERE recurring_schedule_id IS NOT NULL AND status = 'PENDING' AND gateway_page_url IS NULL " +
+                "AND created_at < ? ORDER BY transaction_id LIMIT ?",
+                (rs, rowNum) -> new PendingCharge(
+                        rs.getInt("recurring_schedule_id"),
+                        rs.getInt("donor_id"),
+                        rs.getBigDecimal("amount"),
+                        Donation.DonationType.valueOf(rs.getString("donation_type")),
+                        rs.getString("purpose"),
+                        (Integer) rs.getObject("target_project_id"),
+                        (Integer) rs.getObject("target_student_id"),
+                        rs.getString("product_name"),
+                        rs.getTimestamp("created_at").toLocalDateTime().toLocalDate(),
+                        rs.getString("transaction_reference"),
+                        rs.getString("customer_name"),
+                        rs.getString("customer_email"),
+                        rs.getString("customer_phone")),
+                Timestamp.valueOf(runStart.toLocalDateTime().minusMinutes(strandedAfterMinutes)), pageSize);
+    }
+
+    // Missed periods are skipped rather than charged in bulk, so each schedule is charged at most once per run
+    private LocalDate nextRunDate(LocalDate current, Donation.DonationType frequency, LocalDate today) {
+        LocalDate next = current;
+        do {
+            next = frequency == Donation.DonationType.YEARLY ? next.plusYears(1) : next.plusMonths(1);
+        } while (!next.isAfter(today));
+        return next;
+    }
+
+    // Open gateway sessions for a page on the bounded pool; returns how many were accepted by the gateway
+    private int openGatewaySessions(List<PendingCharge> page) {
+        List<CompletableFuture<GatewaySession>> futures = new ArrayList<>(page.size());
+        for (PendingCharge charge : page) {
+            futures.add(CompletableFuture.supplyAsync(() -> openSession(charge), executor));
+        }
+
+        List<Object[]> sessions = new ArrayList<>();
+        List<Object[]> failures = new ArrayList<>();
+        List<Object[]> rewinds = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            GatewaySession session = futures.get(i).join();
+            PendingCharge charge = page.get(i);
+            if (session != null) {
+                sessions.add(new Object[]{session.sessionKey(), session.pageUrl(), charge.transactionReference});
+            } else {
+                failures.add(new Object[]{charge.transactionReference});
+                rewinds.add(new Object[]{Date.valueOf(charge.nextRunDate), charge.scheduleId});
+            }
+        }
+
+        if (!sessions.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE payment_transactions SET session_key = ?, gateway_page_url = ? WHERE transaction_reference = ?",
+                    sessions);
+        }
+        if (!failures.isEmpty()) {
+            // Failing the charge and putting its schedule back commit together, so the period is never lost
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE payment_transactions SET status = '" + PaymentTransaction.TransactionStatus.FAILED.name() + "', " +
+                        "gateway_response_message = 'Gateway session could not be opened' " +
+                        "WHERE transaction_reference = ? AND status = 'PENDING'", failures);
+                jdbcTemplate.batchUpdate(
+                        "UPDATE recurring_donation_schedules SET next_run_date = ? WHERE schedule_id = ?", rewinds);
+            });
+        }
+        return sessions.size();
+    }
+
+    // A session without a checkout URL cannot be paid, so it counts as a failure
+    private GatewaySession openSession(PendingCharge charge) {
+        try {
+            Map<String, Object> response = gatewayClient.initiateSession(charge.transactionReference, charge.amount,
+                    charge.customerName, charge.customerEmail, charge.customerPhone, charge.productName, "Recurring Donation");
+            String pageUrl = (String) response.get("GatewayPageURL");
+            if ("SUCCESS".equals(response.get("status")) && pageUrl != null && !pageUrl.isBlank()) {
+                return new GatewaySession((String) response.get("sessionkey"), pageUrl);
+            }
+            log.warn("Gateway rejected recurring charge {}: {}", charge.transactionReference, response.get("failedreason"));
+        } catch (Exception e) {
+            log.warn("Recurring charge {} could not be initiated: {}", charge.transactionReference, e.getMessage());
+        }
+        return null;
+    }
+
+    private RecurringDonationScheduleDto toDTO(RecurringDonationSchedule schedule) {
+        return RecurringDonationScheduleDto.builder()
+                .scheduleId(schedule.getScheduleId())
+                .donorId(schedule.getDonor() != null ? schedule.getDonor().getDonorId() : null)
+                .amount(schedule.getAmount())
+                .frequency(schedule.getFrequency())
+                .purpose(schedule.getPurpose())
+                .targetProjectId(schedule.getTargetProjectId())
+                .targetStudentId(schedule.getTargetStudentId())
+                .productName(schedule.getProductName())
+                .status(schedule.getStatus())
+                .nextRunDate(schedule.getNextRunDate())
+                .lastRunAt(schedule.getLastRunAt())
+                .build();
+    }
+
+    private record GatewaySession(String sessionKey, String pageUrl) {
+    }
+
+    private record PendingCharge(int scheduleId, int donorId, BigDecimal amount, Donation.DonationType frequency,
+                                 String purpose, Integer targetProjectId, Integer targetStudentId, String productName,
+                                 LocalDate nextRunDate, String transactionReference,
+                                 String customerName, String customerEmail, String customerPhone) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Bright_Aid.service;
 
+import com.example.Bright_Aid.repository.MonthWindow;
 import com.example.Bright_Aid.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,9 +8,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+
 /**
  * Service to manage scholarship status updates for students
  * Updates has_scholarship field based on donations received in current month
+ * Completed donations mark their students directly and a monthly rollover clears lapsed holders
  */
 @Service
 @RequiredArgsConstructor
@@ -19,14 +23,15 @@ public class ScholarshipStatusService {
     private final StudentRepository studentRepository;
 
     /**
-     * Updates scholarship status for all students
+     * Recomputes scholarship status for all students
      * Sets has_scholarship = 1 if student received donation in current month, otherwise 0
+     * Full-table repair for manual use; day-to-day status is kept by markScholarshipHolders and the rollover
      */
     @Transactional
     public void updateScholarshipStatus() {
         try {
             log.info("Starting scholarship status update for all students");
-            studentRepository.updateScholarshipStatus();
+            studentRepository.updateScholarshipStatus(MonthWindow.current());
             log.info("Successfully updated scholarship status for all students");
         } catch (Exception e) {
             log.error("Error updating scholarship status: {}", e.getMessage(), e);
@@ -35,13 +40,36 @@ public class ScholarshipStatusService {
     }
 
     /**
-     * Scheduled task to run scholarship status update daily at midnight
-     * Ensures scholarship status is always current
+     * Marks students whose sponsorship donations completed this month
+     * Touches only the given students, so the cost grows with donations rather than with the students table
+     */
+    @Transactional
+    public int markScholarshipHolders(Collection<Integer> studentIds) {
+        if (studentIds.isEmpty()) {
+            return 0;
+        }
+        return studentRepository.markScholarshipHolders(studentIds);
+    }
+
+    /**
+     * Re-checks students whose sponsorship was reversed and clears those no other sponsorship covers this month
      */
-    @Scheduled(cron = "0 0 0 * * *") // Run daily at midnight
-    public void scheduledScholarshipStatusUpdate() {
-        log.info("Running scheduled scholarship status update");
-        updateScholarshipStatus();
+    @Transactional
+    public int clearLapsedHolders(Collection<Integer> studentIds) {
+        if (studentIds.isEmpty()) {
+            return 0;
+        }
+        return studentRepository.clearLapsedHolders(studentIds, MonthWindow.current());
+    }
+
+    /**
+     * Month rollover: clears has_scholarship only for holders without a donation in the new month
+     */
+    @Scheduled(cron = "${scholarship.rollover.cron:0 5 0 1 * *}")
+    @Transactional
+    public void rolloverMonth() {
+        int reset = studentRepository.resetLapsedScholarships(MonthWindow.current());
+        log.info("Scholarship month rollover cleared {} students", reset);
     }
 
     /**
@@ -0,0 +1,54 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import com.example.Bright_Aid.repository.MonthWindow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Marks students sponsored this month with one targeted update per outbox batch; students whose
+// sponsorship was reversed are re-checked against the ledger and cleared when nothing else sponsors them
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class ScholarshipStatusSubscriber implements DonationCompletedSubscriber {
+
+    private final ScholarshipStatusService scholarshipStatusService;
+
+    @Override
+    public String name() {
+        return "scholarship-status";
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        MonthWindow month = MonthWindow.current();
+        Set<Integer> studentIds = new LinkedHashSet<>();
+        Set<Integer> reversedIds = new LinkedHashSet<>();
+        for (DonationCompletedEvent event : events) {
+            if (event.isReversal()) {
+                if (event.getStudentId() != null && isStudentSponsorship(event)) {
+                    reversedIds.add(event.getStudentId());
+                }
+                continue;
+            }
+            // Events relayed after a rollover must not revive last month's scholarship
+            boolean thisMonth = event.getCompletedAt() == null || !event.getCompletedAt().isBefore(month.start());
+            if (event.getStudentId() != null && isStudentSponsorship(event) && thisMonth) {
+                studentIds.add(event.getStudentId());
+            }
+        }
+        // Re-checked against the ledger first, so a reversal followed by a re-completion keeps the flag
+        scholarshipStatusService.clearLapsedHolders(reversedIds);
+        scholarshipStatusService.markScholarshipHolders(studentIds);
+    }
+
+    private boolean isStudentSponsorship(DonationCompletedEvent event) {
+        return DonationCompletedEvent.SOURCE_NGO_STUDENT.equals(event.getSource())
+                || "STUDENT_SPONSORSHIP".equals(event.getPurpose());
+    }
+}
@@ -21,17 +21,20 @@ public class SchoolProjectService {
     private final ProjectTypeRepository projectTypeRepository;
     private final FundUtilizationRepository fundUtilizationRepository;
     private final FundTransparencyRepository fundTransparencyRepository;
+    private final DonationAggregateService donationAggregateService;
 
     public SchoolProjectService(SchoolProjectRepository schoolProjectRepository,
                                 SchoolRepository schoolRepository,
                                 ProjectTypeRepository projectTypeRepository,
                                 FundUtilizationRepository fundUtilizationRepository,
-                                FundTransparencyRepository fundTransparencyRepository) {
+                                FundTransparencyRepository fundTransparencyRepository,
+                                DonationAggregateService donationAggregateService) {
         this.schoolProjectRepository = schoolProjectRepository;
         this.schoolRepository = schoolRepository;
         this.projectTypeRepository = projectTypeRepository;
         this.fundUtilizationRepository = fundUtilizationRepository;
         this.fundTransparencyRepository = fundTransparencyRepository;
+        this.donationAggregateService = donationAggregateService;
     }
 
     @PostConstruct
@@ -142,7 +145,7 @@ public class SchoolProjectService {
     
     // Get project fund statistics for a school
     public java.util.Map<String, java.math.BigDecimal> getSchoolProjectFundStats(Integer schoolId) {
-        java.math.BigDecimal totalFundsReceived = schoolProjectRepository.getTotalFundsReceivedBySchool(schoolId);
+        java.math.BigDecimal totalFundsReceived = donationAggregateService.getSchoolTotals(schoolId).getProjectFunds();
         java.math.BigDecimal totalFundsUtilized = schoolProjectRepository.getTotalFundsUtilizedBySchool(schoolId);
         
         java.util.Map<String, java.math.BigDecimal> stats = new java.util.HashMap<>();
@@ -215,7 +218,7 @@ public class SchoolProjectService {
 
     // Map SchoolProject entity to DTO with funding logic
     private SchoolProjectDto mapToDto(SchoolProject schoolProject) {
-        java.math.BigDecimal raisedAmount = schoolProjectRepository.getTotalRaisedAmount(schoolProject.getProjectId());
+        java.math.BigDecimal raisedAmount = donationAggregateService.getProjectTotalRaised(schoolProject.getProjectId());
         Double completionRate = schoolProjectRepository.getLatestCompletionRate(schoolProject.getProjectId());
         
         // Calculate funding percentage and check for auto-completion
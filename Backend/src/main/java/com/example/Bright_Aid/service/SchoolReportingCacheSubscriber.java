@@ -0,0 +1,34 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Evicts cached school reporting stats for the schools whose completed donations just changed
+@Component
+@Order(5)
+@RequiredArgsConstructor
+public class SchoolReportingCacheSubscriber implements DonationCompletedSubscriber {
+
+    private final SchoolReportingService schoolReportingService;
+
+    @Override
+    public String name() {
+        return "school-reporting-cache";
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        Set<Integer> projectIds = events.stream().map(DonationCompletedEvent::getProjectId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Integer> studentIds = events.stream().map(DonationCompletedEvent::getStudentId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        schoolReportingService.evictForTargets(projectIds, studentIds);
+    }
+}
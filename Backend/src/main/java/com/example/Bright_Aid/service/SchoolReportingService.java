@@ -0,0 +1,171 @@
+package com.example.Bright_Aid.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * School reporting statistics
+ * Student, project and donation figures come back from one statement: the counts are scalar
+ * subqueries and the donations are grouped by status, purpose and month over donation_ledger.
+ * Results are cached per school for a short TTL and evicted when a donation for the school completes;
+ * every eviction bumps the school's version, so a load that started before it is never cached.
+ */
+@Service
+@Slf4j
+public class SchoolReportingService {
+
+    private static final String STATS_QUERY =
+            "SELECT c.total_students, c.scholarship_students, c.high_risk_students, c.total_projects, " +
+            "g.payment_status, g.purpose, g.month, g.donation_count, g.amount " +
+            "FROM (SELECT " +
+            "  (SELECT COUNT(*) FROM students s WHERE s.school_id = ?) AS total_students, " +
+            "  (SELECT COUNT(*) FROM students s WHERE s.school_id = ? AND s.has_scholarship = 1) AS scholarship_students, " +
+            "  (SELECT COUNT(*) FROM students s WHERE s.school_id = ? AND s.latest_risk_status = 'HIGH') AS high_risk_students, " +
+            "  (SELECT COUNT(*) FROM school_projects sp WHERE sp.school_id = ?) AS total_projects" +
+            ") c " +
+            "LEFT JOIN (" +
+            "  SELECT l.payment_status, l.purpose, DATE_FORMAT(l.donated_at, '%Y-%m') AS month, " +
+            "  COUNT(*) AS donation_count, SUM(l.amount) AS amount " +
+            "  FROM donation_ledger l WHERE l.school_id = ? " +
+            "  GROUP BY l.payment_status, l.purpose, DATE_FORMAT(l.donated_at, '%Y-%m')" +
+            ") g ON 1 = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, CachedStats> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+
+    @Value("${school.reporting.cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${school.reporting.monthly-series-months:12}")
+    private int monthlySeriesMonths;
+
+    public SchoolReportingService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<String, Object> getSchoolStats(Integer schoolId) {
+        CachedStats cached = cache.get(schoolId);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return cached.stats;
+        }
+        Long version = versions.get(schoolId);
+        Map<String, Object> stats = Collections.unmodifiableMap(loadStats(schoolId));
+        // Checked and cached under the version's lock, which evict() also takes
+        versions.compute(schoolId, (id, current) -> {
+            if (Objects.equals(current, version)) {
+                cache.put(schoolId, new CachedStats(stats, System.currentTimeMillis() + cacheTtlMs));
+            }
+            return current;
+        });
+        return stats;
+    }
+
+    /**
+     * Evict the cached stats of the schools owning these projects and students once the
+     * current transaction commits; reads already loading figures from before the commit do not cache them
+     */
+    public void evictForTargets(Collection<Integer> projectIds, Collection<Integer> studentIds) {
+        if (projectIds.isEmpty() && studentIds.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT school_id FROM school_projects WHERE project_id IN (")
+                .append(placeholders(projectIds, args))
+                .append(") UNION SELECT school_id FROM students WHERE student_id IN (")
+                .append(placeholders(studentIds, args))
+                .append(")");
+        Set<Integer> schoolIds = Set.copyOf(jdbcTemplate.queryForList(sql.toString(), Integer.class, args.toArray()));
+        TransactionCallbacks.afterCommit(() -> schoolIds.forEach(this::evict));
+    }
+
+    private Map<String, Object> loadStats(Integer schoolId) {
+        long start = System.currentTimeMillis();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, BigDecimal> purposeBreakdown = new HashMap<>();
+        Map<String, BigDecimal> monthlyAmounts = new HashMap<>();
+        Map<String, Long> monthlyCounts = new HashMap<>();
+        Map<String, Long> statusCounts = new HashMap<>();
+        BigDecimal[] totalReceived = {BigDecimal.ZERO};
+        long[] totals = {0, 0};
+
+        jdbcTemplate.query(STATS_QUERY, rs -> {
+            stats.put("totalStudents", rs.getLong("total_students"));
+            stats.put("scholarshipStudents", rs.getLong("scholarship_students"));
+            stats.put("highRiskStudents", rs.getLong("high_risk_students"));
+            stats.put("totalProjects", rs.getLong("total_projects"));
+
+            String status = rs.getString("payment_status");
+            if (status == null) {
+                return; // school without donations
+            }
+            long count = rs.getLong("donation_count");
+            BigDecimal amount = rs.getBigDecimal("amount");
+            totals[0] += count;
+            statusCounts.merge(status, count, Long::sum);
+            if ("COMPLETED".equals(status)) {
+                String purpose = rs.getString("purpose");
+                String month = rs.getString("month");
+                totals[1] += count;
+                totalReceived[0] = totalReceived[0].add(amount);
+                purposeBreakdown.merge(purpose != null ? purpose : "GENERAL_SUPPORT", amount, BigDecimal::add);
+                monthlyAmounts.merge(month, amount, BigDecimal::add);
+                monthlyCounts.merge(month, count, Long::sum);
+            }
+        }, schoolId, schoolId, schoolId, schoolId, schoolId);
+
+        List<Map<String, Object>> monthlySeries = new ArrayList<>();
+        YearMonth month = YearMonth.now().minusMonths(monthlySeriesMonths - 1L);
+        for (int i = 0; i < monthlySeriesMonths; i++, month = month.plusMonths(1)) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("month", month.toString());
+            point.put("amount", monthlyAmounts.getOrDefault(month.toString(), BigDecimal.ZERO));
+            point.put("donationCount", monthlyCounts.getOrDefault(month.toString(), 0L));
+            monthlySeries.add(point);
+        }
+
+        stats.put("totalReceived", totalReceived[0]);
+        stats.put("completedAmount", totalReceived[0]);
+        stats.put("totalDonations", totals[0]);
+        stats.put("completedDonations", totals[1]);
+        stats.put("donationsByStatus", statusCounts);
+        stats.put("purposeBreakdown", purposeBreakdown);
+        stats.put("monthlySeries", monthlySeries);
+        log.debug("Computed reporting stats for school {} in {} ms", schoolId, System.currentTimeMillis() - start);
+        return stats;
+    }
+
+    // An empty IN list is written as NULL so the branch matches nothing
+    private static String placeholders(Collection<Integer> values, List<Object> args) {
+        if (values.isEmpty()) {
+            return "NULL";
+        }
+        args.addAll(values);
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+
+    private void evict(Integer schoolId) {
+        versions.compute(schoolId, (id, current) -> {
+            cache.remove(schoolId);
+            return current == null ? 1L : current + 1;
+        });
+    }
+
+    private record CachedStats(Map<String, Object> stats, long expiresAt) {
+    }
+}
@@ -2,6 +2,7 @@ package com.example.Bright_Aid.service;
 
 import com.example.Bright_Aid.Entity.*;
 import com.example.Bright_Aid.Dto.SchoolDto;
+import com.example.Bright_Aid.Dto.SearchPageDto;
 import com.example.Bright_Aid.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +14,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,17 +28,23 @@ public class SchoolService {
     private final DistrictRepository districtRepository;
     private final UpazilaRepository upazilaRepository;
     private final UserRepository userRepository;
+    private final DonationAggregateService donationAggregateService;
+    private final SearchIndexService searchIndexService;
 
     public SchoolService(SchoolRepository schoolRepository,
                          DivisionRepository divisionRepository,
                          DistrictRepository districtRepository,
                          UpazilaRepository upazilaRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         DonationAggregateService donationAggregateService,
+                         SearchIndexService searchIndexService) {
         this.schoolRepository = schoolRepository;
         this.divisionRepository = divisionRepository;
         this.districtRepository = districtRepository;
         this.upazilaRepository = upazilaRepository;
         this.userRepository = userRepository;
+        this.donationAggregateService = donationAggregateService;
+        this.searchIndexService = searchIndexService;
     }
 
     // -------------------- CRUD --------------------
@@ -77,6 +87,7 @@ public class SchoolService {
                 .build();
 
         School saved = schoolRepository.save(school);
+        searchIndexService.schoolsChanged(List.of(saved.getSchoolId()));
         return mapToDto(saved);
     }
 
@@ -118,6 +129,7 @@ public class SchoolService {
         existingSchool.setUpdatedAt(LocalDateTime.now());
 
         School updated = schoolRepository.save(existingSchool);
+        searchIndexService.schoolsChanged(List.of(schoolId));
         return mapToDto(updated);
     }
 
@@ -138,6 +150,7 @@ public class SchoolService {
             throw new RuntimeException("School not found with ID: " + schoolId);
         }
         schoolRepository.deleteById(schoolId);
+        searchIndexService.schoolsChanged(List.of(schoolId));
     }
 
     // -------------------- STATUS & VERIFICATION --------------------
@@ -166,9 +179,22 @@ public class SchoolService {
     }
 
     // -------------------- CUSTOM QUERIES --------------------
-    public List<SchoolDto> findSchoolsByName(String name) {
-        return schoolRepository.findBySchoolNameContainingIgnoreCase(name)
-                .stream().map(this::mapToDto).collect(Collectors.toList());
+    // Ranked fuzzy / prefix / transliterated name search from the in-process index
+    public SearchPageDto<SchoolDto> searchSchools(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        int pageNumber = Math.max(page, 0);
+        NameSearchIndex.Result result = searchIndexService.searchSchools(query, pageNumber * pageSize, pageSize);
+        List<Integer> ids = result.hits().stream().map(NameSearchIndex.Hit::id).collect(Collectors.toList());
+        Map<Integer, School> byId = schoolRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(School::getSchoolId, Function.identity()));
+        List<SchoolDto> items = ids.stream().map(byId::get).filter(Objects::nonNull)
+                .map(this::mapToDto).collect(Collectors.toList());
+        return SearchPageDto.<SchoolDto>builder()
+                .items(items)
+                .page(pageNumber)
+                .size(pageSize)
+                .total(result.total())
+                .build();
     }
 
     public List<SchoolDto> findSchoolsByStatus(School.SchoolStatus status) {
@@ -191,9 +217,10 @@ public class SchoolService {
                 .stream().map(this::mapToDto).collect(Collectors.toList());
     }
     
-    // AI FIX: Calculate total funds received from all donation sources using native SQL
+    // Total funds received from donor + NGO project donations and NGO student donations (school_donation_totals)
     public Double getTotalFundsReceived(Integer schoolId) {
-        return schoolRepository.getTotalFundsReceivedBySchool(schoolId);
+        SchoolDonationTotals totals = donationAggregateService.getSchoolTotals(schoolId);
+        return totals.getProjectFunds().add(totals.getNgoStudentFunds()).doubleValue();
     }
 
     // -------------------- IMAGE UPLOAD --------------------
@@ -0,0 +1,153 @@
+package com.example.Bright_Aid.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name search over students and schools, served from in-process {@link NameSearchIndex}es
+ * The indexes are built on startup, updated after commit whenever a student or school is created,
+ * renamed or deleted, and rebuilt periodically to pick up writes that bypass the services.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    private static final String STUDENT_QUERY = "SELECT student_id, student_name, school_id FROM students";
+    private static final String SCHOOL_QUERY = "SELECT school_id, school_name FROM schools";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile NameSearchIndex students = new NameSearchIndex();
+    private volatile NameSearchIndex schools = new NameSearchIndex();
+    // Rows changed while a rebuild was reading; replayed on the new index after the swap
+    private final Set<Integer> touchedStudents = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> touchedSchools = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    private volatile Map<String, Object> lastRebuild = Map.of();
+
+    public SearchIndexService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.rebuild-ms:3600000}",
+            initialDelayString = "${search.index.rebuild-ms:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        touchedStudents.clear();
+        touchedSchools.clear();
+        rebuilding = true;
+        try {
+            NameSearchIndex newStudents = new NameSearchIndex();
+            NameSearchIndex newSchools = new NameSearchIndex();
+            jdbcTemplate.query(STUDENT_QUERY, rs -> {
+                newStudents.put(rs.getInt("student_id"), rs.getString("student_name"), (Integer) rs.getObject("school_id"));
+            });
+            jdbcTemplate.query(SCHOOL_QUERY, rs -> {
+                newSchools.put(rs.getInt("school_id"), rs.getString("school_name"), null);
+            });
+            students = newStudents;
+            schools = newSchools;
+        } finally {
+            rebuilding = false;
+        }
+        reindexStudents(new HashSet<>(touchedStudents));
+        reindexSchools(new HashSet<>(touchedSchools));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("students", students.size());
+        result.put("schools", schools.size());
+        result.put("rebuiltAt", LocalDateTime.now().toString());
+        result.put("durationMs", System.currentTimeMillis() - start);
+        lastRebuild = result;
+        log.info("Search indexes rebuilt: {}", result);
+        return result;
+    }
+
+    public NameSearchIndex.Result searchStudents(String query, Integer schoolId, int offset, int limit) {
+        return students.search(query, schoolId, offset, limit);
+    }
+
+    public NameSearchIndex.Result searchSchools(String query, int offset, int limit) {
+        return schools.search(query, null, offset, limit);
+    }
+
+    // Re-read these students once the current transaction commits
+    public void studentsChanged(Collection<Integer> studentIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (rebuilding) {
+                touchedStudents.addAll(studentIds);
+            }
+            reindexStudents(studentIds);
+        });
+    }
+
+    public void schoolsChanged(Collection<Integer> schoolIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (rebuilding) {
+                touchedSchools.addAll(schoolIds);
+            }
+            reindexSchools(schoolIds);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("students", students.size());
+        stats.put("schools", schools.size());
+        stats.put("lastRebuild", lastRebuild);
+        return stats;
+    }
+
+    private void reindexStudents(Collection<Integer> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        NameSearchIndex index = students;
+        Set<Integer> missing = new HashSet<>(studentIds);
+        jdbcTemplate.query(STUDENT_QUERY + " WHERE student_id IN (" + placeholders(studentIds) + ")", rs -> {
+            missing.remove(rs.getInt("student_id"));
+            index.put(rs.getInt("student_id"), rs.getString("student_name"), (Integer) rs.getObject("school_id"));
+        }, studentIds.toArray());
+        missing.forEach(index::remove);
+    }
+
+    private void reindexSchools(Collection<Integer> schoolIds) {
+        if (schoolIds.isEmpty()) {
+            return;
+        }
+        NameSearchIndex index = schools;
+        Set<Integer> missing = new HashSet<>(schoolIds);
+        jdbcTemplate.query(SCHOOL_QUERY + " WHERE school_id IN (" + placeholders(schoolIds) + ")", rs -> {
+            missing.remove(rs.getInt("school_id"));
+            index.put(rs.getInt("school_id"), rs.getString("school_name"), null);
+        }, schoolIds.toArray());
+        missing.forEach(index::remove);
+    }
+
+    private static String placeholders(Collection<Integer> ids) {
+        return String.join(", ", Collections.nCopies(ids.size(), "?"));
+    }
+}
@@ -80,6 +80,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/attendances/**").permitAll()
                         .requestMatchers("/api/dropout-predictions/**").permitAll()
                         .requestMatchers("/api/donations/**").permitAll()
+                        .requestMatchers("/api/recurring-donations/**").permitAll()
                         .requestMatchers("/api/donors/**").permitAll()
                         .requestMatchers("/api/donor-gamifications/**").permitAll()
                         .requestMatchers("/api/ngos/**").permitAll()
@@ -94,6 +95,7 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-ui/**","/v3/api-docs/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/stub/**").permitAll()
                         .requestMatchers("/api/divisions/**").permitAll()
                         .requestMatchers("/api/districts/**").permitAll()
                         .requestMatchers("/api/upazilas/**").permitAll()
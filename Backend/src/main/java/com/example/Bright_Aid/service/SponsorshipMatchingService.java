@@ -0,0 +1,312 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.repository.MonthWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * In-memory matching of general sponsorships to students
+ * Students not sponsored this month are kept in a set ranked by latest dropout risk, family income
+ * and time since their last sponsorship. A match takes the best student out of the set under one lock
+ * (O(log n)) as a time-limited reservation, so concurrent settlements never get the same child; the
+ * reservation is confirmed when the donation commits and handed back when it rolls back or expires.
+ * The set is loaded on startup, refreshed per student on donation, prediction and student changes,
+ * and fully reloaded periodically. Reservations are local to this instance.
+ */
+@Service
+@Slf4j
+public class SponsorshipMatchingService {
+
+    private static final String CANDIDATE_QUERY =
+            "SELECT s.student_id, s.family_monthly_income, s.created_at, s.latest_risk_status AS risk_status, " +
+            "(SELECT MAX(l.donated_at) FROM donation_ledger l WHERE l.student_id = s.student_id " +
+            " AND l.payment_status = 'COMPLETED' AND l.purpose = 'STUDENT_SPONSORSHIP') AS last_sponsored_at " +
+            "FROM students s WHERE s.has_scholarship = 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM donation_ledger l WHERE l.student_id = s.student_id " +
+            " AND l.donated_at >= ? AND l.donated_at < ? " +
+            " AND l.payment_status = 'COMPLETED' AND l.purpose = 'STUDENT_SPONSORSHIP')";
+
+    // Highest risk first, then lowest family income, then longest without a sponsorship
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::riskRank)
+            .thenComparing(Candidate::familyIncome, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Candidate::unsponsoredSince, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Candidate::studentId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${sponsorship.matching.reservation-ttl-ms:120000}")
+    private long reservationTtlMs;
+
+    // Guarded by this
+    private final TreeSet<Candidate> pool = new TreeSet<>(RANKING);
+    private final Map<Integer, Candidate> pooled = new HashMap<>();
+    private final Map<Integer, Reservation> reserved = new HashMap<>();
+    private final ArrayDeque<Reservation> expiryQueue = new ArrayDeque<>();
+    // Students matched or sponsored since a load started; that load may have read them before the commit
+    private final Map<Integer, Long> recentlyMatched = new HashMap<>();
+    private long reservations;
+    private long confirmed;
+    private long expired;
+    private volatile Map<String, Object> lastRefresh = Map.of();
+    private volatile boolean loaded;
+
+    public SponsorshipMatchingService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Reservation(String token, Integer studentId, long expiresAt, Candidate candidate) {
+    }
+
+    public record Candidate(Integer studentId, int riskRank, BigDecimal familyIncome, LocalDateTime unsponsoredSince) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    // Full reload; also picks up students whose scholarship lapsed at the month rollover
+    @Scheduled(fixedDelayString = "${sponsorship.matching.refresh-ms:900000}",
+            initialDelayString = "${sponsorship.matching.refresh-ms:900000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    public Map<String, Object> refresh() {
+        long start = System.currentTimeMillis();
+        List<Candidate> candidates = load(null);
+        int size;
+        synchronized (this) {
+            pool.clear();
+            pooled.clear();
+            for (Candidate candidate : candidates) {
+                admit(candidate, start);
+            }
+            recentlyMatched.values().removeIf(matchedAt -> matchedAt < start);
+            size = pool.size();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("eligibleStudents", size);
+        result.put("refreshedAt", LocalDateTime.now().toString());
+        result.put("durationMs", System.currentTimeMillis() - start);
+        lastRefresh = result;
+        loaded = true;
+        log.info("Sponsorship pool refreshed: {}", result);
+        return result;
+    }
+
+    /**
+     * Take the best-ranked student out of the pool for reservationTtlMs
+     */
+    public synchronized Optional<Reservation> reserve() {
+        expireReservations();
+        Candidate candidate = pool.pollFirst();
+        if (candidate == null) {
+            return Optional.empty();
+        }
+        pooled.remove(candidate.studentId());
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), candidate.studentId(),
+                System.currentTimeMillis() + reservationTtlMs, candidate);
+        reserved.put(candidate.studentId(), reservation);
+        expiryQueue.addLast(reservation);
+        reservations++;
+        return Optional.of(reservation);
+    }
+
+    /**
+     * Reserve a student for the donation being written in the current transaction: the reservation
+     * is confirmed if the transaction commits and released if it rolls back
+     */
+    public Integer reserveForCurrentTransaction() {
+        if (!loaded) {
+            refresh();
+        }
+        Reservation reservation = reserve().orElse(null);
+        if (reservation == null) {
+            return null;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        confirm(reservation);
+                    } else {
+                        release(reservation);
+                    }
+                }
+            });
+        } else {
+            confirm(reservation);
+        }
+        return reservation.studentId();
+    }
+
+    // The student was sponsored; they stay out of the pool until a reload finds them eligible again
+    public synchronized void confirm(Reservation reservation) {
+        if (reserved.remove(reservation.studentId(), reservation)) {
+            recentlyMatched.put(reservation.studentId(), System.currentTimeMillis());
+            confirmed++;
+        }
+    }
+
+    public synchronized void release(Reservation reservation) {
+        if (reserved.remove(reservation.studentId(), reservation)) {
+            admit(reservation.candidate(), 0);
+        }
+    }
+
+    /**
+     * Drop students that just received a sponsorship from any source
+     * Deferred until the current transaction commits, like the reporting cache eviction
+     */
+    public void removeStudents(Collection<Integer> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                for (Integer studentId : studentIds) {
+                    Candidate candidate = pooled.remove(studentId);
+                    if (candidate != null) {
+                        pool.remove(candidate);
+                    }
+                    recentlyMatched.put(studentId, now);
+                }
+            }
+        });
+    }
+
+    /**
+     * Re-read the given students after their risk, income or scholarship status changed
+     */
+    public void refreshStudents(Collection<Integer> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> ids = Set.copyOf(studentIds);
+        TransactionCallbacks.afterCommit(() -> {
+            long start = System.currentTimeMillis();
+            List<Candidate> loaded = load(ids);
+            synchronized (this) {
+                for (Integer studentId : ids) {
+                    Candidate previous = pooled.remove(studentId);
+                    if (previous != null) {
+                        pool.remove(previous);
+                    }
+                }
+                for (Candidate candidate : loaded) {
+                    admit(candidate, start);
+                }
+            }
+        });
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        expireReservations();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("eligibleStudents", pool.size());
+        stats.put("activeReservations", reserved.size());
+        stats.put("reservations", reservations);
+        stats.put("confirmed", confirmed);
+        stats.put("expired", expired);
+        stats.put("next", pool.isEmpty() ? null : pool.first());
+        stats.put("lastRefresh", lastRefresh);
+        return stats;
+    }
+
+    // Caller holds the lock; loadedAt = 0 skips the recently-matched check for candidates coming back from a reservation
+    private void admit(Candidate candidate, long loadedAt) {
+        if (reserved.containsKey(candidate.studentId())) {
+            return;
+        }
+        Long matchedAt = recentlyMatched.get(candidate.studentId());
+        if (loadedAt > 0 && matchedAt != null && matchedAt >= loadedAt) {
+            return;
+        }
+        Candidate previous = pooled.put(candidate.studentId(), candidate);
+        if (previous != null) {
+            pool.remove(previous);
+        }
+        pool.add(candidate);
+    }
+
+    // Caller holds the lock; TTL is fixed, so the queue is in expiry order
+    private void expireReservations() {
+        long now = System.currentTimeMillis();
+        Iterator<Reservation> it = expiryQueue.iterator();
+        while (it.hasNext()) {
+            Reservation reservation = it.next();
+            if (reserved.get(reservation.studentId()) == reservation) {
+                if (reservation.expiresAt() > now) {
+                    break;
+                }
+                reserved.remove(reservation.studentId());
+                admit(reservation.candidate(), 0);
+                expired++;
+            }
+            it.remove();
+        }
+    }
+
+    private List<Candidate> load(Set<Integer> studentIds) {
+        MonthWindow month = MonthWindow.current();
+        String sql = CANDIDATE_QUERY;
+        Object[] args = {Timestamp.valueOf(month.start()), Timestamp.valueOf(month.end())};
+        if (studentIds != null) {
+            sql += " AND s.student_id IN (" + String.join(", ", Collections.nCopies(studentIds.size(), "?")) + ")";
+            Object[] withIds = new Object[args.length + studentIds.size()];
+            System.arraycopy(args, 0, withIds, 0, args.length);
+            int i = args.length;
+            for (Integer studentId : studentIds) {
+                withIds[i++] = studentId;
+            }
+            args = withIds;
+        }
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Timestamp lastSponsored = rs.getTimestamp("last_sponsored_at");
+            Timestamp created = rs.getTimestamp("created_at");
+            return new Candidate(rs.getInt("student_id"), riskRank(rs.getString("risk_status")),
+                    rs.getBigDecimal("family_monthly_income"),
+                    lastSponsored != null ? lastSponsored.toLocalDateTime()
+                            : created != null ? created.toLocalDateTime() : null);
+        }, args);
+    }
+
+    private static int riskRank(String riskStatus) {
+        if (riskStatus == null) {
+            return 3;
+        }
+        return switch (riskStatus) {
+            case "HIGH" -> 0;
+            case "MEDIUM" -> 1;
+            default -> 2;
+        };
+    }
+}
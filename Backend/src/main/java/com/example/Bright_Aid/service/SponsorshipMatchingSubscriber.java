@@ -0,0 +1,42 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.DonationCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Takes students sponsored by any source (admin entries, imports, NGOs) out of the sponsorship pool
+// and re-reads students whose sponsorship was reversed, so those left without a scholarship return
+@Component
+@Order(7)
+@RequiredArgsConstructor
+public class SponsorshipMatchingSubscriber implements DonationCompletedSubscriber {
+
+    private final SponsorshipMatchingService sponsorshipMatchingService;
+
+    @Override
+    public String name() {
+        return "sponsorship-matching";
+    }
+
+    @Override
+    public void onDonationsCompleted(List<DonationCompletedEvent> events) {
+        Set<Integer> studentIds = new LinkedHashSet<>();
+        Set<Integer> reversedIds = new LinkedHashSet<>();
+        for (DonationCompletedEvent event : events) {
+            if (event.getStudentId() != null
+                    && (DonationCompletedEvent.SOURCE_NGO_STUDENT.equals(event.getSource())
+                    || "STUDENT_SPONSORSHIP".equals(event.getPurpose()))) {
+                (event.isReversal() ? reversedIds : studentIds).add(event.getStudentId());
+            }
+        }
+        reversedIds.removeAll(studentIds);
+        sponsorshipMatchingService.removeStudents(studentIds);
+        // Runs after the scholarship subscriber, so students it cleared are re-admitted from fresh rows
+        sponsorshipMatchingService.refreshStudents(reversedIds);
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.Bright_Aid.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shared HTTP client for the SSLCommerz gateway
+ * Reuses pooled keep-alive connections, bounds every call with connect/read timeouts and
+ * stops calling a failing gateway through a circuit breaker so Tomcat threads are not tied up
+ */
+@Component
+@Slf4j
+public class SslCommerzGatewayClient {
+
+    private final String storeId;
+    private final String storePassword;
+    private final String sandboxUrl;
+    private final String successUrl;
+    private final String failUrl;
+    private final String cancelUrl;
+    private final String ipnUrl;
+    private final String transactionQueryUrl;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+
+    public SslCommerzGatewayClient(@Value("${sslcommerz.store.id}") String storeId,
+                                   @Value("${sslcommerz.store.password}") String storePassword,
+                                   @Value("${sslcommerz.sandbox.url}") String sandboxUrl,
+                                   @Value("${sslcommerz.success.url}") String successUrl,
+                                   @Value("${sslcommerz.fail.url}") String failUrl,
+                                   @Value("${sslcommerz.cancel.url}") String cancelUrl,
+                                   @Value("${sslcommerz.ipn.url}") String ipnUrl,
+                                   @Value("${sslcommerz.transaction-query.url}") String transactionQueryUrl,
+                                   @Value("${sslcommerz.client.max-connections:50}") int maxConnections,
+                                   @Value("${sslcommerz.client.connect-timeout-ms:3000}") long connectTimeoutMs,
+                                   @Value("${sslcommerz.client.read-timeout-ms:10000}") long readTimeoutMs,
+                                   @Value("${sslcommerz.client.pool-wait-timeout-ms:2000}") long poolWaitTimeoutMs,
+                                   @Value("${sslcommerz.client.keep-alive-seconds:30}") long keepAliveSeconds,
+                                   @Value("${sslcommerz.client.circuit-failure-threshold:5}") int failureThreshold,
+                                   @Value("${sslcommerz.client.circuit-open-seconds:30}") long openSeconds) {
+        this.storeId = storeId;
+        this.storePassword = storePassword;
+        this.sandboxUrl = sandboxUrl;
+        this.successUrl = successUrl;
+        this.failUrl = failUrl;
+        this.cancelUrl = cancelUrl;
+        this.ipnUrl = ipnUrl;
+        this.transactionQueryUrl = transactionQueryUrl;
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolWaitTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setConnectionKeepAlive(TimeValue.ofSeconds(keepAliveSeconds))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .build();
+
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openSeconds * 1000);
+    }
+
+    /**
+     * Open a checkout session for a transaction; returns the raw gateway response body
+     */
+    public Map<String, Object> initiateSession(String transactionReference, BigDecimal amount,
+                                               String customerName, String customerEmail, String customerPhone,
+                                               String productName, String productCategory) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("store_id", storeId);
+        params.add("store_passwd", storePassword);
+        params.add("total_amount", amount.toString());
+        params.add("currency", "BDT");
+        params.add("tran_id", transactionReference);
+        params.add("success_url", successUrl);
+        params.add("fail_url", failUrl);
+        params.add("cancel_url", cancelUrl);
+        params.add("ipn_url", ipnUrl);
+        params.add("cus_name", customerName);
+        params.add("cus_email", customerEmail);
+        params.add("cus_add1", "Dhaka");
+        params.add("cus_city", "Dhaka");
+        params.add("cus_country", "Bangladesh");
+        params.add("cus_phone", customerPhone != null ? customerPhone : "01700000000");
+        params.add("product_name", productName);
+        params.add("product_category", productCategory != null ? productCategory : "Donation");
+        params.add("product_profile", "general");
+        params.add("shipping_method", "NO");
+        params.add("num_of_item", "1");
+        params.add("product_amount", amount.toString());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(params, headers);
+
+        return execute(() -> {
+            ResponseEntity<Map> response = restTemplate.postForEntity(sandboxUrl, entity, Map.class);
+            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                throw new RuntimeException("No response from SSLCommerz or HTTP error: " + response.getStatusCode());
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = response.getBody();
+            return body;
+        });
+    }
+
+    /**
+     * Look up the gateway-side state of a transaction by its tran_id (merchantTransIDvalidationAPI);
+     * returns the raw response body with an "element" list of matching sessions
+     */
+    public Map<String, Object> queryByTransactionReference(String transactionReference) {
+        String url = UriComponentsBuilder.fromHttpUrl(transactionQueryUrl)
+                .queryParam("tran_id", transactionReference)
+                .queryParam("store_id", storeId)
+                .queryParam("store_passwd", storePassword)
+                .queryParam("format", "json")
+                .toUriString();
+
+        return execute(() -> {
+            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                throw new RuntimeException("No response from SSLCommerz or HTTP error: " + response.getStatusCode());
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = response.getBody();
+            return body;
+        });
+    }
+
+    /**
+     * Connection pool usage and circuit breaker state
+     */
+    public Map<String, Object> getStats() {
+        PoolStats pool = connectionManager.getTotalStats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitState", circuitBreaker.state());
+        stats.put("consecutiveFailures", circuitBreaker.consecutiveFailures());
+        stats.put("leasedConnections", pool.getLeased());
+        stats.put("availableConnections", pool.getAvailable());
+        stats.put("pendingConnectionRequests", pool.getPending());
+        stats.put("maxConnections", pool.getMax());
+        return stats;
+    }
+
+    private <T> T execute(Supplier<T> call) {
+        if (!circuitBreaker.allowRequest()) {
+            throw new RuntimeException("SSLCommerz gateway is unavailable (circuit open), please retry shortly");
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            // Timeouts, connection failures and 5xx responses count against the gateway
+            circuitBreaker.recordFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordSuccess();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Minimal consecutive-failure circuit breaker: CLOSED -> OPEN after N failures,
+     * OPEN -> HALF_OPEN after the cool-down, HALF_OPEN lets a single probe through
+     */
+    private static final class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openMillis;
+
+        private String state = "CLOSED";
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        CircuitBreaker(int failureThreshold, long openMillis) {
+            this.failureThreshold = failureThreshold;
+            this.openMillis = openMillis;
+        }
+
+        synchronized boolean allowRequest() {
+            if ("OPEN".equals(state)) {
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = "HALF_OPEN";
+                probeInFlight = false;
+            }
+            if ("HALF_OPEN".equals(state)) {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            state = "CLOSED";
+        }
+
+        synchronized void recordFailure() {
+            consecutiveFailures++;
+            probeInFlight = false;
+            if ("HALF_OPEN".equals(state) || consecutiveFailures >= failureThreshold) {
+                if (!"OPEN".equals(state)) {
+                    log.warn("SSLCommerz circuit opened after {} consecutive failures", consecutiveFailures);
+                }
+                state = "OPEN";
+                openedAt = System.currentTimeMillis();
+            }
+        }
+
+        synchronized String state() {
+            return state;
+        }
+
+        synchronized int consecutiveFailures() {
+            return consecutiveFailures;
+        }
+    }
+}
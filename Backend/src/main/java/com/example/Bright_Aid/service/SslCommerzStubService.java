@@ -0,0 +1,182 @@
+package com.example.Bright_Aid.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the SSLCommerz sandbox, only active with the "loadtest" profile
+ * Answers session-init and transaction-query calls and fires the IPN (and optionally a duplicate
+ * success redirect) back at the application with configurable latency and failure rates
+ */
+@Service
+@Profile("loadtest")
+@Slf4j
+public class SslCommerzStubService {
+
+    private final StageMetrics stageMetrics;
+    private final RestTemplate callbackClient = new RestTemplate();
+    private final ScheduledExecutorService callbackScheduler;
+    private final Map<String, StubSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${stub.sslcommerz.init-latency-ms:150}")
+    private long initLatencyMs;
+
+    @Value("${stub.sslcommerz.callback-delay-ms:500}")
+    private long callbackDelayMs;
+
+    @Value("${stub.sslcommerz.init-failure-rate:0.0}")
+    private double initFailureRate;
+
+    @Value("${stub.sslcommerz.payment-failure-rate:0.0}")
+    private double paymentFailureRate;
+
+    @Value("${stub.sslcommerz.duplicate-callback-rate:0.0}")
+    private double duplicateCallbackRate;
+
+    private final AtomicLong sessionsOpened = new AtomicLong();
+    private final AtomicLong initFailures = new AtomicLong();
+    private final AtomicLong callbacksSent = new AtomicLong();
+    private final AtomicLong callbackErrors = new AtomicLong();
+
+    public SslCommerzStubService(StageMetrics stageMetrics,
+                                 @Value("${stub.sslcommerz.callback-threads:8}") int callbackThreads) {
+        this.stageMetrics = stageMetrics;
+        this.callbackScheduler = Executors.newScheduledThreadPool(callbackThreads);
+    }
+
+    /**
+     * Equivalent of gwprocess/v4/api.php: open a session and schedule the payment outcome callbacks
+     */
+    public Map<String, Object> initiate(Map<String, String> params) {
+        sleep(initLatencyMs);
+        String tranId = params.get("tran_id");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (tranId == null || ThreadLocalRandom.current().nextDouble() < initFailureRate) {
+            initFailures.incrementAndGet();
+            response.put("status", "FAILED");
+            response.put("failedreason", tranId == null ? "tran_id is required" : "Stub injected init failure");
+            return response;
+        }
+
+        boolean paid = ThreadLocalRandom.current().nextDouble() >= paymentFailureRate;
+        StubSession session = new StubSession(tranId, UUID.randomUUID().toString().replace("-", ""),
+                paid ? "VALID" : "FAILED", params.get("total_amount"), System.nanoTime());
+        sessions.put(tranId, session);
+        sessionsOpened.incrementAndGet();
+
+        callbackScheduler.schedule(() -> sendCallback(params.get("ipn_url"), session), callbackDelayMs, TimeUnit.MILLISECONDS);
+        if (paid && ThreadLocalRandom.current().nextDouble() < duplicateCallbackRate) {
+            // Browser redirect racing the IPN, as happens against the real gateway
+            callbackScheduler.schedule(() -> sendCallback(params.get("success_url"), session), callbackDelayMs, TimeUnit.MILLISECONDS);
+        }
+
+        response.put("status", "SUCCESS");
+        response.put("sessionkey", session.sessionKey);
+        response.put("GatewayPageURL", "http://localhost/stub/sslcommerz/pay/" + session.sessionKey);
+        return response;
+    }
+
+    /**
+     * Equivalent of merchantTransIDvalidationAPI.php
+     */
+    public Map<String, Object> queryTransaction(String tranId) {
+        StubSession session = tranId != null ? sessions.get(tranId) : null;
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("APIConnect", "DONE");
+        response.put("no_of_trans_found", session != null ? 1 : 0);
+        response.put("element", session != null ? List.of(callbackPayload(session)) : List.of());
+        return response;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessionsOpened", sessionsOpened.get());
+        stats.put("initFailures", initFailures.get());
+        stats.put("callbacksSent", callbacksSent.get());
+        stats.put("callbackErrors", callbackErrors.get());
+        stats.put("openSessions", sessions.size());
+        return stats;
+    }
+
+    public void reset() {
+        sessions.clear();
+        sessionsOpened.set(0);
+        initFailures.set(0);
+        callbacksSent.set(0);
+        callbackErrors.set(0);
+    }
+
+    private void sendCallback(String url, StubSession session) {
+        if (url == null) {
+            return;
+        }
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        callbackPayload(session).forEach((key, value) -> form.add(key, value));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        long start = System.nanoTime();
+        try {
+            callbackClient.postForEntity(url, new HttpEntity<>(form, headers), String.class);
+            callbacksSent.incrementAndGet();
+            stageMetrics.record("stub.callback", System.nanoTime() - start);
+            stageMetrics.record("stub.initiate-to-callback", System.nanoTime() - session.openedAtNanos);
+        } catch (Exception e) {
+            callbackErrors.incrementAndGet();
+            log.warn("Stub callback to {} failed for {}: {}", url, session.tranId, e.getMessage());
+        }
+    }
+
+    private Map<String, String> callbackPayload(StubSession session) {
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("tran_id", session.tranId);
+        payload.put("status", session.status);
+        payload.put("amount", session.amount);
+        payload.put("bank_tran_id", "STUB" + session.sessionKey.substring(0, 12));
+        payload.put("card_type", "VISA-Stub");
+        payload.put("card_no", "411111XXXXXX1111");
+        payload.put("risk_title", "Safe");
+        return payload;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackScheduler.shutdownNow();
+    }
+
+    private record StubSession(String tranId, String sessionKey, String status, String amount, long openedAtNanos) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.Bright_Aid.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory latency recorder for named processing stages
+ * Keeps a bounded window of recent samples per stage so percentiles stay cheap to compute
+ */
+@Component
+public class StageMetrics {
+
+    private static final int WINDOW_SIZE = 2048;
+
+    private final Map<String, StageWindow> stages = new ConcurrentHashMap<>();
+
+    /**
+     * Record one execution of a stage
+     */
+    public void record(String stage, long elapsedNanos) {
+        record(stage, elapsedNanos, 0);
+    }
+
+    /**
+     * Record one execution of a stage together with the number of SQL statements it issued
+     */
+    public void record(String stage, long elapsedNanos, long queryCount) {
+        stages.computeIfAbsent(stage, key -> new StageWindow()).add(elapsedNanos, queryCount);
+    }
+
+    /**
+     * Snapshot of count, average, p50, p99 and max latency (ms) plus average query count per stage
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        stages.forEach((stage, window) -> result.put(stage, window.summary()));
+        return result;
+    }
+
+    public void reset() {
+        stages.clear();
+    }
+
+    private static final class StageWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private long count;
+        private long totalNanos;
+        private long totalQueries;
+        private long maxNanos;
+
+        synchronized void add(long elapsedNanos, long queryCount) {
+            samples[(int) (count % WINDOW_SIZE)] = elapsedNanos;
+            count++;
+            totalNanos += elapsedNanos;
+            totalQueries += queryCount;
+            maxNanos = Math.max(maxNanos, elapsedNanos);
+        }
+
+        synchronized Map<String, Object> summary() {
+            int size = (int) Math.min(count, WINDOW_SIZE);
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", count);
+            summary.put("avgMs", count == 0 ? 0.0 : toMillis(totalNanos / count));
+            summary.put("p50Ms", percentile(sorted, 0.50));
+            summary.put("p99Ms", percentile(sorted, 0.99));
+            summary.put("maxMs", toMillis(maxNanos));
+            summary.put("avgQueries", count == 0 ? 0.0 : (double) totalQueries / count);
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
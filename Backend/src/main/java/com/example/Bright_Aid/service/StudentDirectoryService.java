@@ -0,0 +1,129 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.CursorPageDto;
+import com.example.Bright_Aid.Dto.StudentDirectoryEntryDto;
+import com.example.Bright_Aid.Entity.DropoutPrediction;
+import com.example.Bright_Aid.Entity.Student;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Server-side student directory: filtered, keyset-paginated by student_id, slim rows
+ * School, class level, gender, scholarship and a non-LOW risk status are equality filters backed by
+ * composite indexes ending in student_id, so those pages read at most size + 1 index entries regardless
+ * of enrolment. The LOW risk filter also matches students without a prediction and the income filter
+ * is a range; both read every matching row of the school before sorting, so their cost grows with it
+ */
+@Service
+@RequiredArgsConstructor
+public class StudentDirectoryService {
+
+    private static final String SELECT =
+            "SELECT s.student_id, s.school_id, sc.school_name, s.student_name, s.class_level, s.gender, " +
+            "s.latest_risk_status, s.has_scholarship, s.family_monthly_income, s.profile_image " +
+            "FROM students s JOIN schools sc ON sc.school_id = s.school_id WHERE s.student_id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Cursor is the student_id of the last row of the previous page
+    public CursorPageDto<StudentDirectoryEntryDto> getDirectory(Integer schoolId, String classLevel, String gender,
+                                                                String riskStatus, Boolean hasScholarship,
+                                                                BigDecimal minIncome, BigDecimal maxIncome,
+                                                                String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        int after;
+        try {
+            after = cursor == null || cursor.isBlank() ? 0 : Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+        if (minIncome != null && maxIncome != null && minIncome.compareTo(maxIncome) > 0) {
+            throw new RuntimeException("minIncome must not exceed maxIncome");
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(after);
+        if (schoolId != null) {
+            sql.append(" AND s.school_id = ?");
+            args.add(schoolId);
+        }
+        if (classLevel != null && !classLevel.isBlank()) {
+            sql.append(" AND s.class_level = ?");
+            args.add(parseClassLevel(classLevel).name());
+        }
+        if (gender != null && !gender.isBlank()) {
+            sql.append(" AND s.gender = ?");
+            args.add(parseEnum(Student.Gender.class, gender, "gender").name());
+        }
+        if (riskStatus != null && !riskStatus.isBlank()) {
+            DropoutPrediction.RiskStatus risk = parseEnum(DropoutPrediction.RiskStatus.class, riskStatus, "risk status");
+            // Students without a prediction are listed as LOW, so the LOW filter includes them
+            sql.append(risk == DropoutPrediction.RiskStatus.LOW
+                    ? " AND (s.latest_risk_status = ? OR s.latest_risk_status IS NULL)"
+                    : " AND s.latest_risk_status = ?");
+            args.add(risk.name());
+        }
+        if (hasScholarship != null) {
+            sql.append(" AND s.has_scholarship = ?");
+            args.add(hasScholarship);
+        }
+        if (minIncome != null) {
+            sql.append(" AND s.family_monthly_income >= ?");
+            args.add(minIncome);
+        }
+        if (maxIncome != null) {
+            sql.append(" AND s.family_monthly_income <= ?");
+            args.add(maxIncome);
+        }
+        sql.append(" ORDER BY s.student_id LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<StudentDirectoryEntryDto> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) ->
+                StudentDirectoryEntryDto.builder()
+                        .studentId(rs.getInt("student_id"))
+                        .schoolId(rs.getInt("school_id"))
+                        .schoolName(rs.getString("school_name"))
+                        .studentName(rs.getString("student_name"))
+                        .classLevel(rs.getString("class_level") != null ? Student.ClassLevel.valueOf(rs.getString("class_level")) : null)
+                        .gender(rs.getString("gender") != null ? Student.Gender.valueOf(rs.getString("gender")) : null)
+                        .riskStatus(rs.getString("latest_risk_status") != null ? rs.getString("latest_risk_status") : "LOW")
+                        .hasScholarship(rs.getBoolean("has_scholarship"))
+                        .familyMonthlyIncome(rs.getBigDecimal("family_monthly_income"))
+                        .profileImage(rs.getString("profile_image"))
+                        .build(), args.toArray());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<StudentDirectoryEntryDto> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return CursorPageDto.<StudentDirectoryEntryDto>builder()
+                .items(page)
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? String.valueOf(page.get(page.size() - 1).getStudentId()) : null)
+                .build();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String label) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid " + label + ": " + value);
+        }
+    }
+
+    // Accepts the enum name ("FIVE") or the class number ("5")
+    private static Student.ClassLevel parseClassLevel(String classLevel) {
+        String value = classLevel.trim();
+        return Arrays.stream(Student.ClassLevel.values())
+                .filter(level -> level.name().equalsIgnoreCase(value) || level.getValue().equals(value))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Invalid class level: " + classLevel));
+    }
+}
@@ -0,0 +1,576 @@
+package com.example.Bright_Aid.service;
+
+import com.example.Bright_Aid.Dto.RosterImportJobDto;
+import com.example.Bright_Aid.Entity.School;
+import com.example.Bright_Aid.Entity.Student;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Asynchronous bulk import of a school's student roster (CSV) with an optional ZIP of photos
+ * The roster is read one record at a time and validated as it streams; valid rows are inserted with
+ * JDBC batches in chunks that commit on their own, retried row by row when a chunk fails
+ * (BatchInsertSupport). Photos are matched to rows by a photo column or by the student id number and
+ * stored on a separate executor, so inserts never wait on image I/O. Progress is kept in memory per
+ * job and polled through the job status endpoint.
+ */
+@Service
+@Slf4j
+public class StudentRosterImportService {
+
+    private static final String INSERT_STUDENT =
+            "INSERT INTO students (school_id, student_name, student_id_number, gender, date_of_birth, father_name, " +
+            "father_alive, father_occupation, mother_name, mother_alive, mother_occupation, guardian_phone, address, " +
+            "class_level, family_monthly_income, has_scholarship, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("studentName", "studentIdNumber", "classLevel", "fatherOccupation", "motherOccupation");
+
+    private static final Set<String> PHOTO_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".webp");
+
+    // Same location and naming as single photo uploads in StudentService
+    private static final String IMAGE_DIR = "src/main/resources/static/images/students/";
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BatchInsertSupport batchInsertSupport;
+    private final SearchIndexService searchIndexService;
+    private final SponsorshipMatchingService sponsorshipMatchingService;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final ThreadPoolTaskExecutor photoExecutor;
+
+    @Value("${student.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${student.import.max-rows:5000}")
+    private int maxRows;
+
+    @Value("${student.import.photo-max-bytes:5242880}")
+    private long photoMaxBytes;
+
+    @Value("${student.import.job-retention-ms:86400000}")
+    private long jobRetentionMs;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public StudentRosterImportService(JdbcTemplate jdbcTemplate,
+                                      BatchInsertSupport batchInsertSupport,
+                                      SearchIndexService searchIndexService,
+                                      SponsorshipMatchingService sponsorshipMatchingService,
+                                      @Qualifier("rosterImportExecutor") ThreadPoolTaskExecutor importExecutor,
+                                      @Qualifier("studentPhotoExecutor") ThreadPoolTaskExecutor photoExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchInsertSupport = batchInsertSupport;
+        this.searchIndexService = searchIndexService;
+        this.sponsorshipMatchingService = sponsorshipMatchingService;
+        this.importExecutor = importExecutor;
+        this.photoExecutor = photoExecutor;
+    }
+
+    /**
+     * Queue an import; the uploads are copied to temporary files so the request can return right away.
+     * Roster columns: studentName, studentIdNumber, classLevel (ONE..TEN or 1..10), fatherOccupation,
+     * motherOccupation, gender, dateOfBirth (ISO date), fatherName, fatherAlive, motherName, motherAlive,
+     * guardianPhone, address, familyMonthlyIncome, photo (file name inside the ZIP; defaults to
+     * studentIdNumber with any image extension)
+     */
+    public RosterImportJobDto submit(Integer schoolId, MultipartFile roster, MultipartFile photos) {
+        if (roster == null || roster.isEmpty()) {
+            throw new RuntimeException("Roster file is empty");
+        }
+        String fileName = roster.getOriginalFilename();
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).matches(".*\\.xlsx?$")) {
+            throw new RuntimeException("Spreadsheet rosters are not supported; save the sheet as CSV and upload that");
+        }
+        Integer schools = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM schools WHERE school_id = ?", Integer.class, schoolId);
+        if (schools == null || schools == 0) {
+            throw new RuntimeException("School not found with id: " + schoolId);
+        }
+        pruneJobs();
+
+        Job job = new Job(UUID.randomUUID().toString(), schoolId, fileName);
+        try {
+            job.rosterFile = Files.createTempFile("roster-import-", ".csv");
+            roster.transferTo(job.rosterFile);
+            if (photos != null && !photos.isEmpty()) {
+                job.photoFile = Files.createTempFile("roster-photos-", ".zip");
+                photos.transferTo(job.photoFile);
+            }
+        } catch (IOException e) {
+            deleteTempFiles(job);
+            throw new RuntimeException("Failed to store upload: " + e.getMessage(), e);
+        }
+
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteTempFiles(job);
+            throw new RuntimeException("Too many roster imports are in progress, try again shortly");
+        }
+        return job.toDto();
+    }
+
+    public RosterImportJobDto getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Import job not found: " + jobId);
+        }
+        return job.toDto();
+    }
+
+    private void run(Job job) {
+        job.status = "IMPORTING";
+        try {
+            if (job.photoFile != null) {
+                job.zip = new ZipFile(job.photoFile.toFile());
+                indexPhotos(job);
+            }
+            importRows(job);
+        } catch (Exception e) {
+            log.warn("Roster import {} failed: {}", job.id, e.getMessage());
+            job.message = e instanceof IOException ? "Failed to read upload: " + e.getMessage() : e.getMessage();
+            job.failedAtRead = true;
+        }
+        job.rowsDone = true;
+        finishIfDone(job);
+    }
+
+    private void importRows(Job job) throws IOException {
+        Set<String> seenIdNumbers = new HashSet<>();
+        List<Student> pending = new ArrayList<>(batchSize);
+        List<Integer> pendingRows = new ArrayList<>(batchSize);
+        List<String> pendingPhotos = new ArrayList<>(batchSize);
+        // Rows already parsed are still imported when the row limit or a read error stops the file
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(job.rosterFile, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = reader.readHeader();
+            for (String column : REQUIRED_COLUMNS) {
+                if (!header.containsKey(column.toLowerCase(Locale.ROOT))) {
+                    throw new RuntimeException("Roster is missing the " + column + " column");
+                }
+            }
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                if (job.rowsRead.get() >= maxRows) {
+                    throw new RuntimeException("Import is limited to " + maxRows + " rows per file; later rows were not read");
+                }
+                int rowNumber = job.rowsRead.incrementAndGet();
+                Student student;
+                try {
+                    student = parseRow(reader, record, job.schoolId);
+                } catch (RuntimeException e) {
+                    job.rowFailed(rowNumber, e.getMessage());
+                    continue;
+                }
+                if (!seenIdNumbers.add(student.getStudentIdNumber())) {
+                    job.rowFailed(rowNumber, "Duplicate studentIdNumber in file: " + student.getStudentIdNumber());
+                    continue;
+                }
+                pending.add(student);
+                pendingRows.add(rowNumber);
+                pendingPhotos.add(reader.get(record, "photo"));
+                if (pending.size() == batchSize) {
+                    flush(job, pending, pendingRows, pendingPhotos);
+                }
+            }
+        } finally {
+            if (!pending.isEmpty()) {
+                flush(job, pending, pendingRows, pendingPhotos);
+            }
+        }
+    }
+
+    // Drop rows whose id number is already taken, insert the rest and queue their photos
+    private void flush(Job job, List<Student> students, List<Integer> rowNumbers, List<String> photos) {
+        Set<String> taken = existingIdNumbers(students);
+        List<Student> chunk = new ArrayList<>(students.size());
+        List<Integer> chunkRows = new ArrayList<>(students.size());
+        List<String> chunkPhotos = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            if (taken.contains(students.get(i).getStudentIdNumber())) {
+                job.rowFailed(rowNumbers.get(i), "studentIdNumber already exists: " + students.get(i).getStudentIdNumber());
+            } else {
+                chunk.add(students.get(i));
+                chunkRows.add(rowNumbers.get(i));
+                chunkPhotos.add(photos.get(i));
+            }
+        }
+        students.clear();
+        rowNumbers.clear();
+        photos.clear();
+
+        List<Integer> inserted = new ArrayList<>(chunk.size());
+        for (int i : insertChunk(job, chunk, chunkRows)) {
+            Student student = chunk.get(i);
+            inserted.add(student.getStudentId());
+            queuePhoto(job, chunkRows.get(i), student, chunkPhotos.get(i));
+        }
+        job.imported.addAndGet(inserted.size());
+        searchIndexService.studentsChanged(inserted);
+        sponsorshipMatchingService.refreshStudents(inserted);
+    }
+
+    // Returns the indexes of the inserted students
+    private List<Integer> insertChunk(Job job, List<Student> students, List<Integer> rowNumbers) {
+        return batchInsertSupport.insertChunk("Roster import", students, this::insert,
+                (i, message) -> job.rowFailed(rowNumbers.get(i), message));
+    }
+
+    private void insert(List<Student> students) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> ids = batchInsertSupport.batchInsert(INSERT_STUDENT, students, (ps, student) -> {
+            ps.setInt(1, student.getSchool().getSchoolId());
+            ps.setString(2, student.getStudentName());
+            ps.setString(3, student.getStudentIdNumber());
+            ps.setString(4, student.getGender() != null ? student.getGender().name() : null);
+            ps.setDate(5, student.getDateOfBirth() != null ? Date.valueOf(student.getDateOfBirth()) : null);
+            ps.setString(6, student.getFatherName());
+            ps.setBoolean(7, student.getFatherAlive());
+            ps.setString(8, student.getFatherOccupation());
+            ps.setString(9, student.getMotherName());
+            ps.setBoolean(10, student.getMotherAlive());
+            ps.setString(11, student.getMotherOccupation());
+            ps.setString(12, student.getGuardianPhone());
+            ps.setString(13, student.getAddress());
+            ps.setString(14, student.getClassLevel().name());
+            if (student.getFamilyMonthlyIncome() != null) {
+                ps.setBigDecimal(15, student.getFamilyMonthlyIncome());
+            } else {
+                ps.setNull(15, Types.DECIMAL);
+            }
+            ps.setTimestamp(16, now);
+            ps.setTimestamp(17, now);
+        });
+        for (int i = 0; i < students.size(); i++) {
+            students.get(i).setStudentId(ids.get(i));
+        }
+    }
+
+    private Student parseRow(CsvReader reader, List<String> record, Integer schoolId) {
+        String studentIdNumber = required(reader, record, "studentIdNumber");
+        String dateOfBirth = reader.get(record, "dateOfBirth");
+        String income = reader.get(record, "familyMonthlyIncome");
+        BigDecimal familyMonthlyIncome;
+        try {
+            familyMonthlyIncome = income != null ? new BigDecimal(income) : null;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("familyMonthlyIncome is not a number: " + income);
+        }
+        if (familyMonthlyIncome != null && familyMonthlyIncome.signum() < 0) {
+            throw new RuntimeException("familyMonthlyIncome cannot be negative");
+        }
+        LocalDate dob;
+        try {
+            dob = dateOfBirth != null ? LocalDate.parse(dateOfBirth) : null;
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("dateOfBirth is not an ISO date (yyyy-MM-dd): " + dateOfBirth);
+        }
+        if (dob != null && dob.isAfter(LocalDate.now())) {
+            throw new RuntimeException("dateOfBirth is in the future");
+        }
+        return Student.builder()
+                .school(School.builder().schoolId(schoolId).build())
+                .studentName(required(reader, record, "studentName"))
+                .studentIdNumber(studentIdNumber)
+                .classLevel(parseClassLevel(required(reader, record, "classLevel")))
+                .fatherOccupation(required(reader, record, "fatherOccupation"))
+                .motherOccupation(required(reader, record, "motherOccupation"))
+                .gender(parseGender(reader.get(record, "gender")))
+                .dateOfBirth(dob)
+                .fatherName(reader.get(record, "fatherName"))
+                .fatherAlive(parseBoolean(reader.get(record, "fatherAlive"), "fatherAlive"))
+                .motherName(reader.get(record, "motherName"))
+                .motherAlive(parseBoolean(reader.get(record, "motherAlive"), "motherAlive"))
+                .guardianPhone(reader.get(record, "guardianPhone"))
+                .address(reader.get(record, "address"))
+                .familyMonthlyIncome(familyMonthlyIncome)
+                .build();
+    }
+
+    private void queuePhoto(Job job, int rowNumber, Student student, String photo) {
+        if (job.zip == null) {
+            if (photo != null) {
+                job.photoFailed(rowNumber, "photo " + photo + " given but no photo archive was uploaded");
+            }
+            return;
+        }
+        String entryName = photo != null
+                ? job.photosByName.get(baseName(photo).toLowerCase(Locale.ROOT))
+                : job.photosByStem.get(student.getStudentIdNumber().toLowerCase(Locale.ROOT));
+        if (entryName == null) {
+            if (photo != null) {
+                job.photoFailed(rowNumber, "photo " + photo + " not found in archive");
+            }
+            return;
+        }
+        job.photosQueued.incrementAndGet();
+        job.pendingPhotos.incrementAndGet();
+        photoExecutor.execute(() -> {
+            try {
+                storePhoto(job, entryName, student.getStudentId());
+                job.photosStored.incrementAndGet();
+            } catch (Exception e) {
+                job.photoFailed(rowNumber, "photo " + entryName + ": " + e.getMessage());
+            } finally {
+                job.pendingPhotos.decrementAndGet();
+                finishIfDone(job);
+            }
+        });
+    }
+
+    private void storePhoto(Job job, String entryName, Integer studentId) throws IOException {
+        ZipEntry entry = job.zip.getEntry(entryName);
+        Path uploadPath = Paths.get(IMAGE_DIR);
+        Files.createDirectories(uploadPath);
+        String fileName = "school_" + job.schoolId + "_student_" + studentId + extension(entryName);
+        // Written under a temporary name and moved into place, so a partial file is never served
+        Path tmp = Files.createTempFile(uploadPath, fileName, ".part");
+        try {
+            try (InputStream in = job.zip.getInputStream(entry); OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    total += n;
+                    if (total > photoMaxBytes) {
+                        throw new RuntimeException("larger than " + photoMaxBytes + " bytes");
+                    }
+                    out.write(buffer, 0, n);
+                }
+            }
+            Files.move(tmp, uploadPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        jdbcTemplate.update("UPDATE students SET profile_image = ?, updated_at = ? WHERE student_id = ?",
+                "/images/students/" + fileName, Timestamp.valueOf(LocalDateTime.now()), studentId);
+    }
+
+    // Image entries by lower-cased file name and by file name without extension; folders inside the ZIP are ignored
+    private void indexPhotos(Job job) {
+        Enumeration<? extends ZipEntry> entries = job.zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String name = baseName(entry.getName());
+            if (entry.isDirectory() || name.startsWith(".") || !PHOTO_EXTENSIONS.contains(extension(name))) {
+                continue;
+            }
+            String lower = name.toLowerCase(Locale.ROOT);
+            job.photosByName.putIfAbsent(lower, entry.getName());
+            job.photosByStem.putIfAbsent(lower.substring(0, lower.lastIndexOf('.')), entry.getName());
+        }
+    }
+
+    // Completes the job once every row is processed and every queued photo has been stored or has failed
+    private void finishIfDone(Job job) {
+        synchronized (job) {
+            if (job.finishedAt != null || !job.rowsDone) {
+                return;
+            }
+            if (job.pendingPhotos.get() > 0) {
+                job.status = "PROCESSING_PHOTOS";
+                return;
+            }
+            job.finishedAt = LocalDateTime.now();
+            job.status = job.failedAtRead ? "FAILED" : "COMPLETED";
+        }
+        deleteTempFiles(job);
+        log.info("Roster import {} for school {}: {} rows, {} imported, {} failed, {} photos stored, {} photos failed",
+                job.id, job.schoolId, job.rowsRead.get(), job.imported.get(), job.failed.get(),
+                job.photosStored.get(), job.photosFailed.get());
+    }
+
+    private void pruneJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(jobRetentionMs));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private void deleteTempFiles(Job job) {
+        try {
+            if (job.zip != null) {
+                job.zip.close();
+            }
+            if (job.rosterFile != null) {
+                Files.deleteIfExists(job.rosterFile);
+            }
+            if (job.photoFile != null) {
+                Files.deleteIfExists(job.photoFile);
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove temporary files of roster import {}: {}", job.id, e.getMessage());
+        }
+    }
+
+    // Id numbers among the given students that already exist, in one IN query (chunks are at most batch-size rows)
+    private Set<String> existingIdNumbers(List<Student> students) {
+        if (students.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT student_id_number FROM students WHERE student_id_number IN ("
+                        + String.join(", ", Collections.nCopies(students.size(), "?")) + ")",
+                String.class, students.stream().map(Student::getStudentIdNumber).toArray()));
+    }
+
+    private static String required(CsvReader reader, List<String> record, String column) {
+        String value = reader.get(record, column);
+        if (value == null) {
+            throw new RuntimeException(column + " is required");
+        }
+        return value;
+    }
+
+    private static Student.ClassLevel parseClassLevel(String value) {
+        String level = value.toUpperCase(Locale.ROOT).replaceFirst("^CLASS\\s*", "");
+        for (Student.ClassLevel classLevel : Student.ClassLevel.values()) {
+            if (classLevel.name().equals(level) || classLevel.getValue().equals(level)) {
+                return classLevel;
+            }
+        }
+        throw new RuntimeException("Invalid classLevel: " + value);
+    }
+
+    private static Student.Gender parseGender(String value) {
+        try {
+            return value != null ? Student.Gender.valueOf(value.toUpperCase(Locale.ROOT)) : null;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid gender: " + value);
+        }
+    }
+
+    // Blank means alive, matching the column default
+    private static boolean parseBoolean(String value, String column) {
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> true;
+            case "false", "no", "n", "0" -> false;
+            default -> throw new RuntimeException(column + " must be true or false: " + value);
+        };
+    }
+
+    private static String baseName(String path) {
+        String name = path.replace('\\', '/');
+        return name.substring(name.lastIndexOf('/') + 1);
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static class Job {
+        final String id;
+        final Integer schoolId;
+        final String fileName;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicInteger rowsRead = new AtomicInteger();
+        final AtomicInteger imported = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger photosQueued = new AtomicInteger();
+        final AtomicInteger photosStored = new AtomicInteger();
+        final AtomicInteger photosFailed = new AtomicInteger();
+        final AtomicInteger pendingPhotos = new AtomicInteger();
+        final List<RosterImportJobDto.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, String> photosByName = new HashMap<>();
+        final Map<String, String> photosByStem = new HashMap<>();
+        volatile String status = "QUEUED";
+        volatile String message;
+        volatile boolean rowsDone;
+        volatile boolean failedAtRead;
+        volatile LocalDateTime finishedAt;
+        Path rosterFile;
+        Path photoFile;
+        ZipFile zip;
+
+        Job(String id, Integer schoolId, String fileName) {
+            this.id = id;
+            this.schoolId = schoolId;
+            this.fileName = fileName;
+        }
+
+        void rowFailed(int row, String message) {
+            failed.incrementAndGet();
+            addError(row, message);
+        }
+
+        void photoFailed(int row, String message) {
+            photosFailed.incrementAndGet();
+            addError(row, message);
+        }
+
+        private void addError(int row, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RosterImportJobDto.RowError(row, message));
+            }
+        }
+
+        RosterImportJobDto toDto() {
+            List<RosterImportJobDto.RowError> snapshot;
+            synchronized (errors) {
+                snapshot = new ArrayList<>(errors);
+            }
+            snapshot.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+            LocalDateTime end = finishedAt;
+            return RosterImportJobDto.builder()
+                    .jobId(id)
+                    .schoolId(schoolId)
+                    .fileName(fileName)
+                    .status(status)
+                    .message(message)
+                    .rowsRead(rowsRead.get())
+                    .imported(imported.get())
+                    .failed(failed.get())
+                    .photosQueued(photosQueued.get())
+                    .photosStored(photosStored.get())
+                    .photosFailed(photosFailed.get())
+                    .errors(snapshot)
+                    .createdAt(createdAt)
+                    .finishedAt(end)
+                    .durationMs(Duration.between(createdAt, end != null ? end : LocalDateTime.now()).toMillis())
+                    .build();
+        }
+    }
+}
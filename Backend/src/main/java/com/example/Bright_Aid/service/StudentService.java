@@ -1,7 +1,9 @@
 package com.example.Bright_Aid.service;
 
+import com.example.Bright_Aid.Entity.DropoutPrediction;
 import com.example.Bright_Aid.Entity.School;
 import com.example.Bright_Aid.Entity.Student;
+import com.example.Bright_Aid.Dto.SearchPageDto;
 import com.example.Bright_Aid.Dto.StudentDto;
 import com.example.Bright_Aid.repository.SchoolRepository;
 import com.example.Bright_Aid.repository.StudentRepository;
@@ -11,12 +13,17 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,19 +33,14 @@ public class StudentService {
 
     private final StudentRepository studentRepository;
     private final SchoolRepository schoolRepository;
+    private final SponsorshipMatchingService sponsorshipMatchingService;
+    private final SearchIndexService searchIndexService;
 
     // Convert Entity -> DTO
     private StudentDto convertToDTO(Student student) {
-        // Get latest risk status from dropout predictions
-        String riskStatus = "LOW"; // Default
-        if (student.getDropoutPredictions() != null && !student.getDropoutPredictions().isEmpty()) {
-            // Get the most recent prediction
-            riskStatus = student.getDropoutPredictions().stream()
-                .max((p1, p2) -> p1.getLastCalculated().compareTo(p2.getLastCalculated()))
-                .map(p -> p.getRiskStatus().toString())
-                .orElse("LOW");
-        }
-        
+        // Latest risk comes from the snapshot on the student row, not the predictions collection
+        String riskStatus = student.getLatestRiskStatus() != null ? student.getLatestRiskStatus().name() : "LOW";
+
         return StudentDto.builder()
                 .studentId(student.getStudentId())
                 .schoolId(student.getSchool().getSchoolId())
@@ -58,10 +60,37 @@ public class StudentService {
                 .familyMonthlyIncome(student.getFamilyMonthlyIncome())
                 .hasScholarship(student.getHasScholarship())
                 .riskStatus(riskStatus)
+                .attendanceRate(student.getLatestAttendanceRate())
                 .profileImage(student.getProfileImage())
                 .build();
     }
 
+    // Listing row (StudentRepository.LIST_COLUMNS) -> DTO
+    private StudentDto toListDto(Object[] row) {
+        return StudentDto.builder()
+                .studentId((Integer) row[0])
+                .schoolId((Integer) row[1])
+                .studentName((String) row[2])
+                .studentIdNumber((String) row[3])
+                .gender((Student.Gender) row[4])
+                .dateOfBirth((LocalDate) row[5])
+                .fatherName((String) row[6])
+                .fatherAlive((Boolean) row[7])
+                .fatherOccupation((String) row[8])
+                .motherName((String) row[9])
+                .motherAlive((Boolean) row[10])
+                .motherOccupation((String) row[11])
+                .guardianPhone((String) row[12])
+                .address((String) row[13])
+                .classLevel((Student.ClassLevel) row[14])
+                .familyMonthlyIncome((BigDecimal) row[15])
+                .hasScholarship((Boolean) row[16])
+                .riskStatus(row[17] != null ? ((DropoutPrediction.RiskStatus) row[17]).name() : "LOW")
+                .attendanceRate((Double) row[18])
+                .profileImage((String) row[19])
+                .build();
+    }
+
     // Convert DTO -> Entity
     private Student convertToEntity(StudentDto dto) {
         School school = schoolRepository.findById(dto.getSchoolId())
@@ -90,8 +119,8 @@ public class StudentService {
     }
 
     public List<StudentDto> getAllStudents() {
-        return studentRepository.findAll()
-                .stream().map(this::convertToDTO)
+        return studentRepository.findAllListRows()
+                .stream().map(this::toListDto)
                 .collect(Collectors.toList());
     }
 
@@ -101,7 +130,10 @@ public class StudentService {
 
     public StudentDto createStudent(StudentDto dto) {
         Student student = convertToEntity(dto);
-        return convertToDTO(studentRepository.save(student));
+        StudentDto saved = convertToDTO(studentRepository.save(student));
+        sponsorshipMatchingService.refreshStudents(List.of(saved.getStudentId()));
+        searchIndexService.studentsChanged(List.of(saved.getStudentId()));
+        return saved;
     }
 
     @Transactional
@@ -123,12 +155,35 @@ public class StudentService {
             // Only update profile image if provided
             if (dto.getProfileImage() != null) existing.setProfileImage(dto.getProfileImage());
             
+            // Income and scholarship status feed the sponsorship ranking
+            sponsorshipMatchingService.refreshStudents(List.of(id));
+            searchIndexService.studentsChanged(List.of(id));
             return convertToDTO(studentRepository.save(existing));
         }).orElseThrow(() -> new RuntimeException("Student not found with ID: " + id));
     }
 
     public void deleteStudent(Integer id) {
         studentRepository.deleteById(id);
+        sponsorshipMatchingService.refreshStudents(List.of(id));
+        searchIndexService.studentsChanged(List.of(id));
+    }
+
+    // Ranked fuzzy / prefix / transliterated name search, optionally within one school
+    public SearchPageDto<StudentDto> searchStudents(String query, Integer schoolId, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        int pageNumber = Math.max(page, 0);
+        NameSearchIndex.Result result = searchIndexService.searchStudents(query, schoolId, pageNumber * pageSize, pageSize);
+        List<Integer> ids = result.hits().stream().map(NameSearchIndex.Hit::id).collect(Collectors.toList());
+        Map<Integer, Student> byId = studentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Student::getStudentId, Function.identity()));
+        List<StudentDto> items = ids.stream().map(byId::get).filter(Objects::nonNull)
+                .map(this::convertToDTO).collect(Collectors.toList());
+        return SearchPageDto.<StudentDto>builder()
+                .items(items)
+                .page(pageNumber)
+                .size(pageSize)
+                .total(result.total())
+                .build();
     }
 
 public String saveStudentImageWithSchool(MultipartFile file, Integer studentId, Integer schoolId) {
@@ -267,8 +322,8 @@ public String saveStudentImage(MultipartFile file, Integer studentId) {
     }
 
     public List<StudentDto> getStudentsSponsoredByDonor(Integer donorId) {
-        return studentRepository.findStudentsSponsoredByDonor(donorId)
-                .stream().map(this::convertToDTO)
+        return studentRepository.findListRowsSponsoredByDonor(donorId)
+                .stream().map(this::toListDto)
                 .collect(Collectors.toList());
     }
     
@@ -324,6 +379,7 @@ public String saveStudentImage(MultipartFile file, Integer studentId) {
             Student student = studentOpt.get();
             student.setHasScholarship(true);
             studentRepository.save(student);
+            sponsorshipMatchingService.removeStudents(List.of(studentId));
             System.out.println("Student " + studentId + " (" + student.getStudentName() + ") marked as sponsored");
         } else {
             System.err.println("Student " + studentId + " not found when trying to mark as sponsored");
@@ -339,6 +395,7 @@ public String saveStudentImage(MultipartFile file, Integer studentId) {
             Student student = studentOpt.get();
             student.setHasScholarship(false);
             studentRepository.save(student);
+            sponsorshipMatchingService.refreshStudents(List.of(studentId));
             System.out.println("Student " + studentId + " (" + student.getStudentName() + ") sponsorship reset");
         } else {
             System.err.println("Student " + studentId + " not found when trying to reset sponsorship");
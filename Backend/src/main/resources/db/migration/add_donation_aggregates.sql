@@ -0,0 +1,93 @@
+-- Migration script for the materialized completed-donation aggregates
+-- Maintained incrementally by the donation-aggregates outbox subscriber;
+-- POST /api/donations/aggregates/rebuild recomputes them from the donation tables
+
+CREATE TABLE IF NOT EXISTS donor_donation_totals (
+    donor_id INT PRIMARY KEY,
+    total_donated DECIMAL(15, 2) NOT NULL,
+    donation_count INT NOT NULL,
+    students_sponsored INT NOT NULL,
+    projects_supported INT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+-- Distinct students / projects per donor, backing the distinct counts above
+CREATE TABLE IF NOT EXISTS donor_supported_targets (
+    donor_id INT NOT NULL,
+    target_type ENUM('STUDENT', 'PROJECT') NOT NULL,
+    target_id INT NOT NULL,
+    PRIMARY KEY (donor_id, target_type, target_id)
+);
+
+CREATE TABLE IF NOT EXISTS project_donation_totals (
+    project_id INT PRIMARY KEY,
+    total_raised DECIMAL(15, 2) NOT NULL,
+    donation_count INT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS school_donation_totals (
+    school_id INT PRIMARY KEY,
+    project_funds DECIMAL(15, 2) NOT NULL,
+    ngo_student_funds DECIMAL(15, 2) NOT NULL,
+    donor_student_funds DECIMAL(15, 2) NOT NULL,
+    donation_count INT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ngo_donation_totals (
+    ngo_id INT PRIMARY KEY,
+    total_donated DECIMAL(15, 2) NOT NULL,
+    donation_count INT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+-- Populate from existing donations (same as the rebuild endpoint)
+INSERT INTO donor_supported_targets (donor_id, target_type, target_id)
+SELECT DISTINCT donor_id, 'STUDENT', student_id FROM donations
+WHERE payment_status = 'COMPLETED' AND student_id IS NOT NULL
+UNION
+SELECT DISTINCT donor_id, 'PROJECT', project_id FROM donations
+WHERE payment_status = 'COMPLETED' AND project_id IS NOT NULL;
+
+INSERT INTO donor_donation_totals (donor_id, total_donated, donation_count, students_sponsored, projects_supported, updated_at)
+SELECT d.donor_id, SUM(d.amount), COUNT(*),
+    (SELECT COUNT(*) FROM donor_supported_targets t WHERE t.donor_id = d.donor_id AND t.target_type = 'STUDENT'),
+    (SELECT COUNT(*) FROM donor_supported_targets t WHERE t.donor_id = d.donor_id AND t.target_type = 'PROJECT'),
+    NOW(6)
+FROM donations d WHERE d.payment_status = 'COMPLETED' GROUP BY d.donor_id;
+
+INSERT INTO project_donation_totals (project_id, total_raised, donation_count, updated_at)
+SELECT project_id, SUM(amount), COUNT(*), NOW(6) FROM (
+    SELECT d.project_id, d.amount FROM donations d
+    WHERE d.project_id IS NOT NULL AND d.payment_status = 'COMPLETED'
+    UNION ALL
+    SELECT npd.project_id, npd.amount FROM ngo_project_donations npd
+    WHERE npd.payment_status = 'COMPLETED'
+) AS all_donations GROUP BY project_id;
+
+INSERT INTO school_donation_totals (school_id, project_funds, ngo_student_funds, donor_student_funds, donation_count, updated_at)
+SELECT school_id, SUM(project_funds), SUM(ngo_student_funds), SUM(donor_student_funds), COUNT(*), NOW(6) FROM (
+    SELECT sp.school_id, d.amount AS project_funds, 0 AS ngo_student_funds, 0 AS donor_student_funds
+    FROM donations d JOIN school_projects sp ON d.project_id = sp.project_id
+    WHERE d.payment_status = 'COMPLETED'
+    UNION ALL
+    SELECT sp.school_id, npd.amount, 0, 0
+    FROM ngo_project_donations npd JOIN school_projects sp ON npd.project_id = sp.project_id
+    WHERE npd.payment_status = 'COMPLETED'
+    UNION ALL
+    SELECT s.school_id, 0, nsd.amount, 0
+    FROM ngo_student_donations nsd JOIN students s ON nsd.student_id = s.student_id
+    WHERE nsd.payment_status = 'COMPLETED'
+    UNION ALL
+    SELECT s.school_id, 0, 0, d.amount
+    FROM donations d JOIN students s ON d.student_id = s.student_id
+    WHERE d.project_id IS NULL AND d.payment_status = 'COMPLETED'
+) AS school_donations GROUP BY school_id;
+
+INSERT INTO ngo_donation_totals (ngo_id, total_donated, donation_count, updated_at)
+SELECT ngo_id, SUM(amount), COUNT(*), NOW(6) FROM (
+    SELECT ngo_id, amount FROM ngo_student_donations WHERE ngo_id IS NOT NULL AND payment_status = 'COMPLETED'
+    UNION ALL
+    SELECT ngo_id, amount FROM ngo_project_donations WHERE ngo_id IS NOT NULL AND payment_status = 'COMPLETED'
+) AS ngo_donations GROUP BY ngo_id;
@@ -0,0 +1,8 @@
+-- Archive tables for the hot/cold donation split (see DonationArchiveService)
+-- Same columns and indexes as the live tables; LIKE does not copy foreign keys, so archived rows
+-- no longer pin their donors, projects or transactions. The service also creates these on startup.
+
+CREATE TABLE IF NOT EXISTS donations_archive LIKE donations;
+CREATE TABLE IF NOT EXISTS ngo_student_donations_archive LIKE ngo_student_donations;
+CREATE TABLE IF NOT EXISTS ngo_project_donations_archive LIKE ngo_project_donations;
+CREATE TABLE IF NOT EXISTS payment_transactions_archive LIKE payment_transactions;
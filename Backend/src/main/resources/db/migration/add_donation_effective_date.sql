@@ -0,0 +1,8 @@
+-- Migration script for the stored donor-history sort key
+-- effective_date = COALESCE(donated_at, created_at), kept current by the Donation entity
+
+ALTER TABLE donations ADD COLUMN IF NOT EXISTS effective_date DATETIME(6) NULL;
+
+UPDATE donations SET effective_date = COALESCE(donated_at, created_at) WHERE effective_date IS NULL;
+
+CREATE INDEX idx_donations_donor_effective ON donations (donor_id, effective_date, donation_id);
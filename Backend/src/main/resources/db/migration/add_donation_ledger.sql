@@ -0,0 +1,56 @@
+-- Migration script for the unified donation ledger
+-- One row per donor / NGO student / NGO project donation, written alongside the source row;
+-- cross-source reports read it instead of UNIONing the three donation tables
+
+CREATE TABLE IF NOT EXISTS donation_ledger (
+    ledger_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source ENUM('DONOR', 'NGO_STUDENT', 'NGO_PROJECT') NOT NULL,
+    source_donation_id INT NOT NULL,
+    donor_id INT NULL,
+    ngo_id INT NULL,
+    student_id INT NULL,
+    project_id INT NULL,
+    school_id INT NULL,
+    transaction_id INT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    payment_status ENUM('PENDING', 'COMPLETED', 'FAILED') NULL,
+    donation_type ENUM('ONE_TIME', 'MONTHLY', 'YEARLY') NULL,
+    purpose ENUM('SCHOOL_PROJECT', 'STUDENT_SPONSORSHIP', 'NGO_PROJECT', 'GENERAL_SUPPORT') NULL,
+    donated_at DATETIME(6) NOT NULL,
+    payment_completed_at DATETIME(6) NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_donation_ledger_source (source, source_donation_id),
+    INDEX idx_donation_ledger_school_date (school_id, donated_at),
+    INDEX idx_donation_ledger_project_status (project_id, payment_status),
+    INDEX idx_donation_ledger_student_date (student_id, donated_at),
+    INDEX idx_donation_ledger_status_date (payment_status, donated_at),
+    INDEX idx_donation_ledger_ngo (ngo_id, payment_status, school_id),
+    INDEX idx_donation_ledger_donor (donor_id, school_id)
+);
+
+-- Backfill (same as POST /api/donations/ledger/backfill)
+INSERT IGNORE INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id,
+    transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at)
+SELECT 'DONOR', d.donation_id, d.donor_id, NULL, d.student_id, d.project_id, COALESCE(sp.school_id, s.school_id),
+    d.transaction_id, d.amount, d.payment_status, d.donation_type, d.purpose, COALESCE(d.donated_at, d.created_at),
+    d.payment_completed_at, NOW(6), NOW(6)
+FROM donations d
+LEFT JOIN school_projects sp ON d.project_id = sp.project_id
+LEFT JOIN students s ON d.student_id = s.student_id;
+
+INSERT IGNORE INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id,
+    transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at)
+SELECT 'NGO_STUDENT', nsd.student_donation_id, NULL, nsd.ngo_id, nsd.student_id, NULL, s.school_id,
+    nsd.transaction_id, nsd.amount, nsd.payment_status, nsd.donation_type, 'STUDENT_SPONSORSHIP',
+    COALESCE(nsd.donated_at, nsd.created_at, NOW(6)), nsd.payment_completed_at, NOW(6), NOW(6)
+FROM ngo_student_donations nsd
+LEFT JOIN students s ON nsd.student_id = s.student_id;
+
+INSERT IGNORE INTO donation_ledger (source, source_donation_id, donor_id, ngo_id, student_id, project_id, school_id,
+    transaction_id, amount, payment_status, donation_type, purpose, donated_at, payment_completed_at, created_at, updated_at)
+SELECT 'NGO_PROJECT', npd.project_donation_id, NULL, npd.ngo_id, NULL, npd.project_id, sp.school_id,
+    npd.transaction_id, npd.amount, npd.payment_status, npd.donation_type, 'SCHOOL_PROJECT',
+    COALESCE(npd.donated_at, npd.created_at, NOW(6)), npd.payment_completed_at, NOW(6), NOW(6)
+FROM ngo_project_donations npd
+LEFT JOIN school_projects sp ON npd.project_id = sp.project_id;
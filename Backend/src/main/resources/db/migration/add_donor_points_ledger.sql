@@ -0,0 +1,30 @@
+-- Migration script for the donor points ledger
+-- Points are appended per payment transaction and added to donor_gamification with an atomic increment,
+-- which requires a single gamification row per donor
+
+CREATE TABLE IF NOT EXISTS donor_points_ledger (
+    ledger_id INT AUTO_INCREMENT PRIMARY KEY,
+    donor_id INT NOT NULL,
+    transaction_id INT NOT NULL,
+    points INT NOT NULL,
+    amount DECIMAL(10, 2) NULL,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_donor_points_ledger_transaction UNIQUE (transaction_id),
+    INDEX idx_donor_points_ledger_donor (donor_id, created_at)
+);
+
+-- Fold duplicate gamification rows into the oldest row per donor before adding the unique key
+UPDATE donor_gamification keep_row
+JOIN (
+    SELECT donor_id, MIN(gamification_id) AS keep_id, SUM(total_points) AS total_points
+    FROM donor_gamification
+    GROUP BY donor_id
+    HAVING COUNT(*) > 1
+) dup ON dup.keep_id = keep_row.gamification_id
+SET keep_row.total_points = dup.total_points;
+
+DELETE g FROM donor_gamification g
+JOIN donor_gamification keep_row
+  ON keep_row.donor_id = g.donor_id AND keep_row.gamification_id < g.gamification_id;
+
+ALTER TABLE donor_gamification ADD CONSTRAINT uk_donor_gamification_donor UNIQUE (donor_id);
@@ -0,0 +1,10 @@
+-- Date-range indexes for month-window queries
+-- Monthly filters compare payment_completed_at against [monthStart, nextMonthStart) (see MonthWindow),
+-- so each donation table gets a (payment_status, payment_completed_at) index to range-scan instead of a full scan
+
+CREATE INDEX idx_donations_status_completed
+    ON donations (payment_status, payment_completed_at);
+CREATE INDEX idx_ngo_student_donations_status_completed
+    ON ngo_student_donations (payment_status, payment_completed_at);
+CREATE INDEX idx_ngo_project_donations_status_completed
+    ON ngo_project_donations (payment_status, payment_completed_at);
@@ -0,0 +1,26 @@
+-- Migration script for the donation-completed transactional outbox
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    event_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL,
+    source VARCHAR(32) NOT NULL,
+    source_id INT NOT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'PROCESSING', 'DONE', 'FAILED') NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claimed_at DATETIME(6) NULL,
+    last_error VARCHAR(1000) NULL,
+    created_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6) NULL,
+    INDEX idx_outbox_events_pending (status, next_attempt_at, event_id),
+    INDEX idx_outbox_events_claimed (status, claimed_at)
+);
+
+-- One row per event and subscriber that has applied it
+CREATE TABLE IF NOT EXISTS outbox_deliveries (
+    event_id BIGINT NOT NULL,
+    subscriber VARCHAR(64) NOT NULL,
+    delivered_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id, subscriber)
+);
@@ -0,0 +1,17 @@
+-- Durable settlement marker for successful payments
+-- settled_at is written in the transaction that creates the donation record; SUCCESS rows without it
+-- are re-queued by the settlement sweep, so a lost in-memory settlement task is recovered
+
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS settled_at DATETIME(6) NULL;
+
+CREATE INDEX idx_payment_transactions_unsettled ON payment_transactions (status, settled_at, transaction_id);
+
+-- Existing successful transactions count as settled when a donation record references them, or when they are
+-- older than 30 days (re-settling those now would date the donation today); the rest are picked up by the sweep
+UPDATE payment_transactions t
+SET t.settled_at = COALESCE(t.completed_at, t.updated_at)
+WHERE t.status = 'SUCCESS' AND t.settled_at IS NULL
+  AND (EXISTS (SELECT 1 FROM donations d WHERE d.transaction_id = t.transaction_id)
+       OR EXISTS (SELECT 1 FROM ngo_student_donations n WHERE n.transaction_id = t.transaction_id)
+       OR EXISTS (SELECT 1 FROM ngo_project_donations n WHERE n.transaction_id = t.transaction_id)
+       OR t.completed_at < NOW() - INTERVAL 30 DAY);
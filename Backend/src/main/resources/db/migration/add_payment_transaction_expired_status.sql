@@ -0,0 +1,7 @@
+-- Migration script to support reconciliation of abandoned payment transactions
+-- Adds the EXPIRED status and the index used to page through PENDING rows by transaction_id
+
+ALTER TABLE payment_transactions MODIFY COLUMN status
+    ENUM('PENDING', 'SUCCESS', 'FAILED', 'CANCELLED', 'REFUNDED', 'EXPIRED') NOT NULL;
+
+CREATE INDEX idx_payment_transactions_status_id ON payment_transactions (status, transaction_id);
@@ -0,0 +1,29 @@
+-- Migration script to add typed payment intent columns to payment_transactions
+-- Settlement previously recovered the target from product_name, e.g. "Books (Project ID: 12)"
+
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS target_project_id INT NULL;
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS target_student_id INT NULL;
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS purpose
+    ENUM('SCHOOL_PROJECT', 'STUDENT_SPONSORSHIP', 'NGO_PROJECT', 'GENERAL_SUPPORT') NULL;
+
+-- Backfill from the legacy product_name suffixes
+UPDATE payment_transactions
+SET target_project_id = CAST(TRIM(TRAILING ')' FROM SUBSTRING_INDEX(product_name, 'Project ID: ', -1)) AS UNSIGNED)
+WHERE target_project_id IS NULL AND product_name LIKE '%(Project ID: %)';
+
+UPDATE payment_transactions
+SET target_student_id = CAST(TRIM(TRAILING ')' FROM SUBSTRING_INDEX(product_name, 'Student ID: ', -1)) AS UNSIGNED)
+WHERE target_student_id IS NULL AND product_name LIKE '%(Student ID: %)';
+
+UPDATE payment_transactions
+SET purpose = CASE
+        WHEN target_project_id IS NOT NULL THEN 'SCHOOL_PROJECT'
+        WHEN target_student_id IS NOT NULL OR product_name LIKE '%Student Sponsorship%' THEN 'STUDENT_SPONSORSHIP'
+        ELSE 'GENERAL_SUPPORT'
+    END
+WHERE purpose IS NULL;
+
+-- Indexes used by settlement and reconciliation lookups by target
+CREATE INDEX idx_payment_transactions_target_project ON payment_transactions (target_project_id, status);
+CREATE INDEX idx_payment_transactions_target_student ON payment_transactions (target_student_id, status);
+CREATE INDEX idx_payment_transactions_purpose ON payment_transactions (purpose, status);
@@ -0,0 +1,35 @@
+-- Migration script for the per-donation project fund balances read by the fund utilization form
+-- Filled by the project-fund-balances outbox subscriber and drawn down by fund utilizations;
+-- POST /api/donations/fund-balances/rebuild recomputes it from donation_ledger and fund_utilization
+
+ALTER TABLE fund_utilization ADD COLUMN ngo_project_donation_id INT NULL;
+
+CREATE TABLE IF NOT EXISTS project_fund_balances (
+    source ENUM('DONOR', 'NGO_STUDENT', 'NGO_PROJECT') NOT NULL,
+    source_donation_id INT NOT NULL,
+    project_id INT NOT NULL,
+    donor_id INT NULL,
+    ngo_id INT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    utilized_amount DECIMAL(15, 2) NOT NULL,
+    remaining_amount DECIMAL(15, 2) NOT NULL,
+    donated_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (source, source_donation_id),
+    INDEX idx_project_fund_balances_project_remaining (project_id, remaining_amount)
+);
+
+-- Backfill (same as POST /api/donations/fund-balances/rebuild)
+INSERT IGNORE INTO project_fund_balances (source, source_donation_id, project_id, donor_id, ngo_id, amount,
+    utilized_amount, remaining_amount, donated_at, updated_at)
+SELECT l.source, l.source_donation_id, l.project_id, l.donor_id, l.ngo_id, l.amount,
+    COALESCE(u.used, 0), l.amount - COALESCE(u.used, 0), l.donated_at, NOW(6)
+FROM donation_ledger l
+LEFT JOIN (
+    SELECT 'DONOR' AS source, donation_id AS source_donation_id, SUM(amount_used) AS used
+    FROM fund_utilization WHERE donation_id IS NOT NULL GROUP BY donation_id
+    UNION ALL
+    SELECT 'NGO_PROJECT', ngo_project_donation_id, SUM(amount_used)
+    FROM fund_utilization WHERE ngo_project_donation_id IS NOT NULL GROUP BY ngo_project_donation_id
+) u ON u.source = l.source AND u.source_donation_id = l.source_donation_id
+WHERE l.project_id IS NOT NULL AND l.payment_status = 'COMPLETED';
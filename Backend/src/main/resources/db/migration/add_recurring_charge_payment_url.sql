@@ -0,0 +1,6 @@
+-- Recurring charges keep their hosted checkout URL so the donor can be asked to pay it
+
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS gateway_page_url VARCHAR(512) NULL;
+
+-- One outstanding charge per schedule, and the donor's due-payment list
+CREATE INDEX idx_payment_transactions_recurring ON payment_transactions (recurring_schedule_id, status);
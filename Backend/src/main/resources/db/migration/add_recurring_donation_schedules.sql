@@ -0,0 +1,24 @@
+-- Migration script for recurring (MONTHLY / YEARLY) donations
+
+CREATE TABLE IF NOT EXISTS recurring_donation_schedules (
+    schedule_id INT AUTO_INCREMENT PRIMARY KEY,
+    donor_id INT NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    frequency ENUM('ONE_TIME', 'MONTHLY', 'YEARLY') NOT NULL,
+    purpose ENUM('SCHOOL_PROJECT', 'STUDENT_SPONSORSHIP', 'NGO_PROJECT', 'GENERAL_SUPPORT') NOT NULL,
+    target_project_id INT NULL,
+    target_student_id INT NULL,
+    product_name VARCHAR(255) NULL,
+    status ENUM('ACTIVE', 'PAUSED', 'CANCELLED') NOT NULL,
+    next_run_date DATE NOT NULL,
+    last_run_at DATETIME(6) NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_recurring_schedules_donor FOREIGN KEY (donor_id) REFERENCES donors (donor_id),
+    INDEX idx_recurring_schedules_due (status, next_run_date, schedule_id),
+    INDEX idx_recurring_schedules_donor (donor_id)
+);
+
+-- Charges created from a schedule carry its frequency and id
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS donation_type ENUM('ONE_TIME', 'MONTHLY', 'YEARLY') NULL;
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS recurring_schedule_id INT NULL;
@@ -0,0 +1,8 @@
+-- Indexes for the incremental scholarship status updates
+-- The month rollover scans current holders and probes each source for a donation completed this month
+
+CREATE INDEX idx_students_has_scholarship ON students (has_scholarship);
+CREATE INDEX idx_donations_student_status_completed
+    ON donations (student_id, payment_status, payment_completed_at);
+CREATE INDEX idx_ngo_student_donations_student_status_completed
+    ON ngo_student_donations (student_id, payment_status, payment_completed_at);
@@ -0,0 +1,8 @@
+-- Indexes for the student directory's gender and income filters (GET /api/students/directory)
+-- Gender is an equality filter, so (school_id, gender) and (gender) are walked in student_id order like
+-- the indexes in add_student_directory_indexes.sql. Income is a range: its index limits the scan to the
+-- students inside the range, which are then sorted by student_id, so that page cost grows with the range
+
+CREATE INDEX idx_students_school_gender ON students (school_id, gender);
+CREATE INDEX idx_students_gender ON students (gender);
+CREATE INDEX idx_students_school_income ON students (school_id, family_monthly_income);
@@ -0,0 +1,7 @@
+-- Composite indexes for the student directory (GET /api/students/directory)
+-- InnoDB appends student_id to every secondary index, so an equality filter on these columns
+-- walks the index in student_id order and each keyset page stops after size + 1 rows
+
+CREATE INDEX idx_students_school_class ON students (school_id, class_level);
+CREATE INDEX idx_students_school_scholarship ON students (school_id, has_scholarship);
+CREATE INDEX idx_students_risk_scholarship ON students (latest_risk_status, has_scholarship);
@@ -0,0 +1,18 @@
+-- Latest dropout prediction snapshot on the student row
+-- Student listings, school stats and sponsorship matching read these columns instead of loading or
+-- joining every prediction; DropoutPredictionService refreshes them whenever a prediction changes
+
+ALTER TABLE students
+    ADD COLUMN latest_risk_status VARCHAR(255) NULL,
+    ADD COLUMN latest_attendance_rate DOUBLE NULL,
+    ADD COLUMN latest_risk_calculated_at DATETIME(6) NULL;
+
+CREATE INDEX idx_students_school_risk ON students (school_id, latest_risk_status);
+CREATE INDEX idx_dropout_predictions_student_calculated ON dropout_predictions (student_id, last_calculated);
+
+UPDATE students s SET
+    s.latest_risk_status = (SELECT p.risk_status FROM dropout_predictions p WHERE p.student_id = s.student_id
+        ORDER BY p.last_calculated DESC, p.prediction_id DESC LIMIT 1),
+    s.latest_attendance_rate = (SELECT p.attendance_rate FROM dropout_predictions p WHERE p.student_id = s.student_id
+        ORDER BY p.last_calculated DESC, p.prediction_id DESC LIMIT 1),
+    s.latest_risk_calculated_at = (SELECT MAX(p.last_calculated) FROM dropout_predictions p WHERE p.student_id = s.student_id);